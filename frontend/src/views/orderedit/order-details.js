@@ -219,8 +219,15 @@ class OrderDetails extends ScrollShadowMixin(LitElement) {
               .hidden="${this.review}"
             >
               <label slot="label">History</label>
-              ${this.item &&
-              map(this.item.history, (event) => html`
+              <vaadin-button
+                id="olderHistory"
+                theme="tertiary small"
+                .hidden="${!this.hasOlderHistory}"
+              >
+                Show older entries
+              </vaadin-button>
+              ${this.history &&
+              map(this.history, (event) => html`
                   <div class="history-line">
                     <span class="bold">${event.createdBy.firstName}</span>
                     <span class="secondary">${event.formattedTimestamp}</span>
@@ -299,6 +306,12 @@ class OrderDetails extends ScrollShadowMixin(LitElement) {
       review: {
         type: Boolean,
       },
+      history: {
+        type: Array,
+      },
+      hasOlderHistory: {
+        type: Boolean,
+      },
       form1responsiveSteps: {
         type: Array,
       },
@@ -0,0 +1,288 @@
+package com.vaadin.starter.bakery.app;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.vaadin.flow.spring.annotation.SpringComponent;
+import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.data.entity.User;
+
+/**
+ * Generates large order data sets for load testing, writing straight to the
+ * database with batched JDBC inserts instead of saving each order through JPA.
+ * <p>
+ * The generated period is split into months which are written in parallel,
+ * each on its own connection and with its own {@link Random} seeded from the
+ * configured seed and the month, so the same settings always produce the same
+ * orders. Ids are handed out in blocks from a shared counter, and the
+ * {@code hibernate_sequence} is moved past the last one when done.
+ */
+@SpringComponent
+public class BulkOrderGenerator implements HasLogger {
+
+	private static final String INSERT_CUSTOMER = "insert into customer (id, version, details, full_name, phone_number) values (?, 0, ?, ?, ?)";
+	private static final String INSERT_ORDER = "insert into order_info (id, version, due_date, due_time, state, customer_id, pickup_location_id, total_price) values (?, 0, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_ORDER_ITEM = "insert into order_item (id, version, comment, quantity, product_id, items_id, items_order, unit_price) values (?, 0, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_HISTORY_ITEM = "insert into history_item (id, version, message, new_state, timestamp, created_by_id, history_id) values (?, 0, ?, ?, ?, ?, ?)";
+
+	private static final String[] ID_TABLES = new String[] { "user_info", "product", "pickup_location", "customer",
+			"order_info", "order_item", "history_item" };
+
+	private final DataSource dataSource;
+	private final int years;
+	private final int ordersPerDay;
+	private final long seed;
+	private final int threads;
+	private final int batchSize;
+
+	private final AtomicLong nextId = new AtomicLong();
+
+	/**
+	 * Creates a new {@code BulkOrderGenerator}.
+	 *
+	 * @param dataSource   the data source to write to
+	 * @param years        how many full years before the current one to generate orders for
+	 * @param ordersPerDay the maximum number of orders per day at the start of the period
+	 * @param seed         the random seed
+	 * @param threads      how many months to write in parallel
+	 * @param batchSize    how many rows to send to the database in one batch
+	 */
+	@Autowired
+	public BulkOrderGenerator(DataSource dataSource, @Value("${bakery.generator.years:2}") int years,
+			@Value("${bakery.generator.orders-per-day:10}") int ordersPerDay,
+			@Value("${bakery.generator.seed:1}") long seed, @Value("${bakery.generator.threads:4}") int threads,
+			@Value("${bakery.generator.batch-size:1000}") int batchSize) {
+		this.dataSource = dataSource;
+		this.years = years;
+		this.ordersPerDay = ordersPerDay;
+		this.seed = seed;
+		this.threads = threads;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Generates orders from the start of the configured period until a month
+	 * from now.
+	 *
+	 * @param products        the saved products to order
+	 * @param pickupLocations the saved pickup locations to use
+	 * @param barista         user with the BARISTA role
+	 * @param baker           user with the BAKER role
+	 * @return the number of inserted rows
+	 */
+	public long generate(List<Product> products, List<PickupLocation> pickupLocations, User barista, User baker) {
+		LocalDate now = LocalDate.now();
+		LocalDate oldestDate = LocalDate.of(now.getYear() - years, 1, 1);
+		LocalDate newestDate = now.plusMonths(1L);
+
+		long start = System.nanoTime();
+		long rows = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			nextId.set(findMaxId() + 1);
+
+			List<Future<Long>> months = new ArrayList<>();
+			int relativeMonth = 0;
+			for (LocalDate month = oldestDate; month.isBefore(newestDate); month = month.plusMonths(1)) {
+				LocalDate from = month;
+				LocalDate to = month.plusMonths(1).isBefore(newestDate) ? month.plusMonths(1) : newestDate;
+				Random random = new Random(seed * 31 + relativeMonth);
+				DemoOrderFactory factory = new DemoOrderFactory(random, products, pickupLocations, barista, baker);
+				int monthIndex = ++relativeMonth;
+				months.add(executor.submit(() -> generateMonth(factory, from, to, monthIndex)));
+			}
+			for (Future<Long> month : months) {
+				rows += month.get();
+			}
+
+			restartSequence(nextId.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating orders", e);
+		} catch (ExecutionException | SQLException e) {
+			throw new IllegalStateException("Unable to generate orders", e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		getLogger().info("Inserted {} rows in {} s ({} rows/s)", rows, String.format("%.1f", seconds),
+				Math.round(rows / seconds));
+		return rows;
+	}
+
+	private long generateMonth(DemoOrderFactory factory, LocalDate from, LocalDate to, int relativeMonth)
+			throws SQLException {
+		long start = System.nanoTime();
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			try (Batch batch = new Batch(connection)) {
+				for (LocalDate dueDate = from; dueDate.isBefore(to); dueDate = dueDate.plusDays(1)) {
+					int ordersThisDay = factory.getOrdersPerDay(relativeMonth, ordersPerDay);
+					List<Order> orders = new ArrayList<>(ordersThisDay);
+					int ids = 0;
+					for (int i = 0; i < ordersThisDay; i++) {
+						Order order = factory.createOrder(dueDate);
+						orders.add(order);
+						ids += 2 + order.getItems().size() + order.getHistory().size();
+					}
+					long id = nextId.getAndAdd(ids);
+					for (Order order : orders) {
+						id = batch.add(order, id);
+					}
+				}
+				batch.flush();
+				connection.commit();
+
+				double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+				getLogger().debug("Inserted {} rows for {} ({} rows/s)", batch.rows, from.withDayOfMonth(1),
+						Math.round(batch.rows / seconds));
+				return batch.rows;
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			}
+		}
+	}
+
+	private long findMaxId() throws SQLException {
+		long max = 0;
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String table : ID_TABLES) {
+				try (ResultSet result = statement.executeQuery("select max(id) from " + table)) {
+					if (result.next()) {
+						max = Math.max(max, result.getLong(1));
+					}
+				}
+			}
+		}
+		return max;
+	}
+
+	private void restartSequence(long next) throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("alter sequence hibernate_sequence restart with " + next);
+		}
+	}
+
+	/**
+	 * The insert statements of one connection, executed and committed every
+	 * {@code batchSize} rows.
+	 */
+	private class Batch implements AutoCloseable {
+
+		private final Connection connection;
+		private final PreparedStatement customers;
+		private final PreparedStatement orders;
+		private final PreparedStatement orderItems;
+		private final PreparedStatement historyItems;
+		private int pending;
+		private long rows;
+
+		private Batch(Connection connection) throws SQLException {
+			this.connection = connection;
+			customers = connection.prepareStatement(INSERT_CUSTOMER);
+			orders = connection.prepareStatement(INSERT_ORDER);
+			orderItems = connection.prepareStatement(INSERT_ORDER_ITEM);
+			historyItems = connection.prepareStatement(INSERT_HISTORY_ITEM);
+		}
+
+		/**
+		 * Adds the rows of an order, using consecutive ids from the given one.
+		 *
+		 * @return the next unused id
+		 */
+		private long add(Order order, long id) throws SQLException {
+			long customerId = id++;
+			customers.setLong(1, customerId);
+			customers.setString(2, order.getCustomer().getDetails());
+			customers.setString(3, order.getCustomer().getFullName());
+			customers.setString(4, order.getCustomer().getPhoneNumber());
+			customers.addBatch();
+
+			long orderId = id++;
+			order.updateTotalPrice();
+			orders.setLong(1, orderId);
+			orders.setDate(2, Date.valueOf(order.getDueDate()));
+			orders.setTime(3, Time.valueOf(order.getDueTime()));
+			orders.setInt(4, order.getState().ordinal());
+			orders.setLong(5, customerId);
+			orders.setLong(6, order.getPickupLocation().getId());
+			orders.setInt(7, order.getTotalPrice());
+			orders.addBatch();
+
+			List<OrderItem> items = order.getItems();
+			for (int i = 0; i < items.size(); i++) {
+				OrderItem item = items.get(i);
+				orderItems.setLong(1, id++);
+				orderItems.setString(2, item.getComment());
+				orderItems.setInt(3, item.getQuantity());
+				orderItems.setLong(4, item.getProduct().getId());
+				orderItems.setLong(5, orderId);
+				orderItems.setInt(6, i);
+				orderItems.setInt(7, item.getUnitPrice());
+				orderItems.addBatch();
+			}
+
+			List<HistoryItem> history = order.getHistory();
+			for (HistoryItem item : history) {
+				historyItems.setLong(1, id++);
+				historyItems.setString(2, item.getMessage());
+				historyItems.setInt(3, item.getNewState().ordinal());
+				historyItems.setTimestamp(4, Timestamp.valueOf(item.getTimestamp()));
+				historyItems.setLong(5, item.getCreatedBy().getId());
+				historyItems.setLong(6, orderId);
+				historyItems.addBatch();
+			}
+
+			pending += 2 + items.size() + history.size();
+			if (pending >= batchSize) {
+				flush();
+				connection.commit();
+			}
+			return id;
+		}
+
+		private void flush() throws SQLException {
+			// Parents first, the foreign keys are checked per statement
+			customers.executeBatch();
+			orders.executeBatch();
+			orderItems.executeBatch();
+			historyItems.executeBatch();
+			rows += pending;
+			pending = 0;
+		}
+
+		@Override
+		public void close() throws SQLException {
+			customers.close();
+			orders.close();
+			orderItems.close();
+			historyItems.close();
+		}
+	}
+}
@@ -1,34 +1,31 @@
 package com.vaadin.starter.bakery.app;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.function.Supplier;
+import java.util.Set;
 
 import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.vaadin.flow.spring.annotation.SpringComponent;
-import com.vaadin.starter.bakery.backend.data.OrderState;
 import com.vaadin.starter.bakery.backend.data.Role;
-import com.vaadin.starter.bakery.backend.data.entity.Customer;
-import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
 import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
 import com.vaadin.starter.bakery.backend.data.entity.Product;
 import com.vaadin.starter.bakery.backend.data.entity.User;
+import com.vaadin.starter.bakery.backend.repositories.HistoryItemRepository;
 import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
 import com.vaadin.starter.bakery.backend.repositories.PickupLocationRepository;
 import com.vaadin.starter.bakery.backend.repositories.ProductRepository;
 import com.vaadin.starter.bakery.backend.repositories.UserRepository;
+import com.vaadin.starter.bakery.backend.service.OrderRollupService;
 
 /**
  * Generates demo data (users, products, pickup locations, and orders)
@@ -44,47 +41,72 @@ public class DataGenerator implements HasLogger {
 			"Vanilla" };
 	private static final String[] TYPE = new String[] { "Cake", "Pastry", "Tart", "Muffin", "Biscuit", "Bread", "Bagel",
 			"Bun", "Brownie", "Cookie", "Cracker", "Cheese Cake" };
-	private static final String[] FIRST_NAME = new String[] { "Ori", "Amanda", "Octavia", "Laurel", "Lael", "Delilah",
-			"Jason", "Skyler", "Arsenio", "Haley", "Lionel", "Sylvia", "Jessica", "Lester", "Ferdinand", "Elaine",
-			"Griffin", "Kerry", "Dominique" };
-	private static final String[] LAST_NAME = new String[] { "Carter", "Castro", "Rich", "Irwin", "Moore", "Hendricks",
-			"Huber", "Patton", "Wilkinson", "Thornton", "Nunez", "Macias", "Gallegos", "Blevins", "Mejia", "Pickett",
-			"Whitney", "Farmer", "Henry", "Chen", "Macias", "Rowland", "Pierce", "Cortez", "Noble", "Howard", "Nixon",
-			"Mcbride", "Leblanc", "Russell", "Carver", "Benton", "Maldonado", "Lyons" };
+	// One or two different fillings and a type
+	private static final int PRODUCT_NAMES = FILLING.length * FILLING.length * TYPE.length;
+	private static final int DELETABLE_PRODUCTS = 4;
 
 	private final Random random = new Random(1L);
+	private final Set<String> productNames = new HashSet<>();
 
 	private OrderRepository orderRepository;
+	private HistoryItemRepository historyItemRepository;
 	private UserRepository userRepository;
 	private ProductRepository productRepository;
 	private PickupLocationRepository pickupLocationRepository;
 	private PasswordEncoder passwordEncoder;
-
+	private OrderRollupService orderRollupService;
+	private BulkOrderGenerator bulkOrderGenerator;
+	private boolean bulk;
+	private int productCount;
+	private int pickupLocationCount;
 
     /**
      * Constructs the data generator with required repositories and services.
      *
      * @param orderRepository          repository for orders
+     * @param historyItemRepository    repository for the order history
      * @param userRepository           repository for users
      * @param productRepository        repository for products
      * @param pickupLocationRepository repository for pickup locations
      * @param passwordEncoder          encoder for user passwords
+     * @param orderRollupService       service maintaining the dashboard rollups
+     * @param bulkOrderGenerator       generator for large order data sets
+     * @param bulk                     whether to generate the orders with the bulk generator
+     * @param productCount             how many products to order
+     * @param pickupLocationCount      how many pickup locations to create
      */
 	@Autowired
-	public DataGenerator(OrderRepository orderRepository, UserRepository userRepository,
+	public DataGenerator(OrderRepository orderRepository, HistoryItemRepository historyItemRepository,
+			UserRepository userRepository,
 			ProductRepository productRepository, PickupLocationRepository pickupLocationRepository,
-			PasswordEncoder passwordEncoder) {
+			PasswordEncoder passwordEncoder, OrderRollupService orderRollupService,
+			BulkOrderGenerator bulkOrderGenerator, @Value("${bakery.generator.bulk:false}") boolean bulk,
+			@Value("${bakery.generator.products:8}") int productCount,
+			@Value("${bakery.generator.pickup-locations:2}") int pickupLocationCount) {
+		if (productCount + DELETABLE_PRODUCTS > PRODUCT_NAMES) {
+			throw new IllegalArgumentException(
+					"At most " + (PRODUCT_NAMES - DELETABLE_PRODUCTS) + " products can be generated");
+		}
 		this.orderRepository = orderRepository;
+		this.historyItemRepository = historyItemRepository;
 		this.userRepository = userRepository;
 		this.productRepository = productRepository;
 		this.pickupLocationRepository = pickupLocationRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.orderRollupService = orderRollupService;
+		this.bulkOrderGenerator = bulkOrderGenerator;
+		this.bulk = bulk;
+		this.productCount = productCount;
+		this.pickupLocationCount = pickupLocationCount;
 	}
 
 	@PostConstruct
 	public void loadData() {
 		if (userRepository.count() != 0L) {
 			getLogger().info("Using existing database");
+			if (orderRollupService.isEmpty() && orderRepository.count() != 0L) {
+				orderRollupService.rebuild();
+			}
 			return;
 		}
 
@@ -99,261 +121,72 @@ public class DataGenerator implements HasLogger {
 
 		getLogger().info("... generating products");
 		// A set of products that will be used for creating orders.
-		Supplier<Product> productSupplier = createProducts(productRepository, 8);
+		List<Product> products = createProducts(productRepository, productCount);
 		// A set of products without relationships that can be deleted
-		createProducts(productRepository, 4);
+		createProducts(productRepository, DELETABLE_PRODUCTS);
 
 		getLogger().info("... generating pickup locations");
-		Supplier<PickupLocation> pickupLocationSupplier = createPickupLocations(pickupLocationRepository);
+		List<PickupLocation> pickupLocations = createPickupLocations(pickupLocationRepository, pickupLocationCount);
 
 		getLogger().info("... generating orders");
-		createOrders(orderRepository, productSupplier, pickupLocationSupplier, barista, baker);
-
-		getLogger().info("Generated demo data");
-	}
-
-
-    /**
-     * Populates a {@link Customer} entity with random data such as
-     * full name and phone number.
-     *
-     * @param customer the customer to fill with random demo data
-     */
-	private void fillCustomer(Customer customer) {
-		String first = getRandom(FIRST_NAME);
-		String last = getRandom(LAST_NAME);
-		customer.setFullName(first + " " + last);
-		customer.setPhoneNumber(getRandomPhone());
-		if (random.nextInt(10) == 0) {
-			customer.setDetails("Very important customer");
+		if (bulk) {
+			bulkOrderGenerator.generate(products, pickupLocations, barista, baker);
+		} else {
+			createOrders(orderRepository, historyItemRepository,
+					new DemoOrderFactory(random, products, pickupLocations, barista, baker));
 		}
-	}
 
-    /**
-     * Generates a random phone number using the format +1-555-XXXX.
-     *
-     * @return a randomly generated phone number
-     */
-	private String getRandomPhone() {
-		return "+1-555-" + String.format("%04d", random.nextInt(10000));
+		// Orders are not saved through OrderService, so aggregate them in one go
+		getLogger().info("... generating order rollups");
+		orderRollupService.rebuild();
+
+		getLogger().info("Generated demo data");
 	}
 
 
     /**
      * Creates multiple demo orders distributed across a time range.
      *
-     * @param orderRepo               repository used to persist the orders
-     * @param productSupplier         supplier of demo products
-     * @param pickupLocationSupplier  supplier of pickup locations
-     * @param barista                 user with the BARISTA role
-     * @param baker                   user with the BAKER role
+     * @param orderRepo    repository used to persist the orders
+     * @param historyRepo  repository used to persist the order history
+     * @param orderFactory factory creating the random orders
      */
-	private void createOrders(OrderRepository orderRepo, Supplier<Product> productSupplier,
-			Supplier<PickupLocation> pickupLocationSupplier, User barista, User baker) {
+	private void createOrders(OrderRepository orderRepo, HistoryItemRepository historyRepo,
+			DemoOrderFactory orderFactory) {
 		int yearsToInclude = 2;
 		LocalDate now = LocalDate.now();
 		LocalDate oldestDate = LocalDate.of(now.getYear() - yearsToInclude, 1, 1);
 		LocalDate newestDate = now.plusMonths(1L);
 
 		// Create first today's order
-		Order order = createOrder(productSupplier, pickupLocationSupplier, barista, baker, now);
+		Order order = orderFactory.createOrder(now);
 		order.setDueTime(LocalTime.of(8, 0));
 		order.setHistory(order.getHistory().subList(0, 1));
 		order.setItems(order.getItems().subList(0, 1));
-		orderRepo.save(order);
+		saveOrder(orderRepo, historyRepo, order);
 
 		for (LocalDate dueDate = oldestDate; dueDate.isBefore(newestDate); dueDate = dueDate.plusDays(1)) {
-			// Create a slightly upwards trend - everybody wants to be
-			// successful
 			int relativeYear = dueDate.getYear() - now.getYear() + yearsToInclude;
 			int relativeMonth = relativeYear * 12 + dueDate.getMonthValue();
-			double multiplier = 1.0 + 0.03 * relativeMonth;
-			int ordersThisDay = (int) (random.nextInt(10) + 1 * multiplier);
+			int ordersThisDay = orderFactory.getOrdersPerDay(relativeMonth, 10);
 			for (int i = 0; i < ordersThisDay; i++) {
-				orderRepo.save(createOrder(productSupplier, pickupLocationSupplier, barista, baker, dueDate));
-			}
-		}
-	}
-
-
-    /**
-     * Creates a single demo order with random customer, products, and history.
-     *
-     * @param productSupplier        supplier of demo products
-     * @param pickupLocationSupplier supplier of pickup locations
-     * @param barista                user who can change the order state
-     * @param baker                  user who can change the order state
-     * @param dueDate                date when the order is due
-     * @return a randomly generated {@link Order}
-     */
-	private Order createOrder(Supplier<Product> productSupplier, Supplier<PickupLocation> pickupLocationSupplier,
-			User barista, User baker, LocalDate dueDate) {
-		Order order = new Order(barista);
-
-		fillCustomer(order.getCustomer());
-		order.setPickupLocation(pickupLocationSupplier.get());
-		order.setDueDate(dueDate);
-		order.setDueTime(getRandomDueTime());
-		order.changeState(barista, getRandomState(order.getDueDate()));
-
-		int itemCount = random.nextInt(3);
-		List<OrderItem> items = new ArrayList<>();
-		for (int i = 0; i <= itemCount; i++) {
-			OrderItem item = new OrderItem();
-			Product product;
-			do {
-				product = productSupplier.get();
-			} while (containsProduct(items, product));
-			item.setProduct(product);
-			item.setQuantity(random.nextInt(10) + 1);
-			if (random.nextInt(5) == 0) {
-				if (random.nextBoolean()) {
-					item.setComment("Lactose free");
-				} else {
-					item.setComment("Gluten free");
-				}
-			}
-			items.add(item);
-		}
-		order.setItems(items);
-
-		order.setHistory(createOrderHistory(order, barista, baker));
-
-		return order;
-	}
-
-
-    /**
-     * Creates a list of {@link HistoryItem} entries representing the history of a
-     * given order. The generated history simulates real-world order events
-     * (placed, confirmed, problem, ready, delivered, cancelled).
-     *
-     * @param order   the order for which the history is created
-     * @param barista the user acting as barista (used for initial and cancelled events)
-     * @param baker   the user acting as baker (used for confirmation and fulfillment events)
-     * @return a list of {@link HistoryItem} objects describing the order timeline
-     */
-	private List<HistoryItem> createOrderHistory(Order order, User barista, User baker) {
-		ArrayList<HistoryItem> history = new ArrayList<>();
-		HistoryItem item = new HistoryItem(barista, "Order placed");
-		item.setNewState(OrderState.NEW);
-		LocalDateTime orderPlaced = order.getDueDate().minusDays(random.nextInt(5) + 2L).atTime(random.nextInt(10) + 7,
-				00);
-		item.setTimestamp(orderPlaced);
-		history.add(item);
-		if (order.getState() == OrderState.CANCELLED) {
-			item = new HistoryItem(barista, "Order cancelled");
-			item.setNewState(OrderState.CANCELLED);
-			item.setTimestamp(orderPlaced.plusDays(random
-					.nextInt((int) orderPlaced.until(order.getDueDate().atTime(order.getDueTime()), ChronoUnit.DAYS))));
-			history.add(item);
-		} else if (order.getState() == OrderState.CONFIRMED || order.getState() == OrderState.DELIVERED
-				|| order.getState() == OrderState.PROBLEM || order.getState() == OrderState.READY) {
-			item = new HistoryItem(baker, "Order confirmed");
-			item.setNewState(OrderState.CONFIRMED);
-			item.setTimestamp(orderPlaced.plusDays(random.nextInt(2)).plusHours(random.nextInt(5)));
-			history.add(item);
-
-			if (order.getState() == OrderState.PROBLEM) {
-				item = new HistoryItem(baker, "Can't make it. Did not get any ingredients this morning");
-				item.setNewState(OrderState.PROBLEM);
-				item.setTimestamp(order.getDueDate().atTime(random.nextInt(4) + 4, 0));
-				history.add(item);
-			} else if (order.getState() == OrderState.READY || order.getState() == OrderState.DELIVERED) {
-				item = new HistoryItem(baker, "Order ready for pickup");
-				item.setNewState(OrderState.READY);
-				item.setTimestamp(order.getDueDate().atTime(random.nextInt(2) + 8, random.nextBoolean() ? 0 : 30));
-				history.add(item);
-				if (order.getState() == OrderState.DELIVERED) {
-					item = new HistoryItem(baker, "Order delivered");
-					item.setNewState(OrderState.DELIVERED);
-					item.setTimestamp(order.getDueDate().atTime(order.getDueTime().minusMinutes(random.nextInt(120))));
-					history.add(item);
-				}
-			}
-		}
-
-		return history;
-	}
-
-    /**
-     * Checks if the given list of {@link OrderItem} already contains
-     * a specific {@link Product}.
-     *
-     * @param items   the list of order items to check
-     * @param product the product to search for
-     * @return {@code true} if the product is already present in the list; {@code false} otherwise
-     */
-	private boolean containsProduct(List<OrderItem> items, Product product) {
-		for (OrderItem item : items) {
-			if (item.getProduct() == product) {
-				return true;
+				saveOrder(orderRepo, historyRepo, orderFactory.createOrder(dueDate));
 			}
 		}
-		return false;
 	}
 
     /**
-     * Generates a random due time for an order.
-     * <p>
-     * The time is chosen between 8:00 and 20:00 in 4-hour intervals.
+     * Saves an order and its history, which is not saved with the order.
      *
-     * @return a random {@link LocalTime} representing the due time
+     * @param orderRepo   repository used to persist the order
+     * @param historyRepo repository used to persist the order history
+     * @param order       the order to save
      */
-	private LocalTime getRandomDueTime() {
-		int time = 8 + 4 * random.nextInt(3);
-
-		return LocalTime.of(time, 0);
+	private void saveOrder(OrderRepository orderRepo, HistoryItemRepository historyRepo, Order order) {
+		orderRepo.save(order);
+		historyRepo.saveAll(order.getHistory());
 	}
 
-    /**
-     * Determines a random {@link OrderState} for an order based on its due date.
-     * <p>
-     * Past dates are more likely to be delivered or cancelled,
-     * while future dates are more likely to be new or have problems.
-     *
-     * @param due the due date of the order
-     * @return a randomly selected {@link OrderState}
-     */
-	private OrderState getRandomState(LocalDate due) {
-		LocalDate today = LocalDate.now();
-		LocalDate tomorrow = today.plusDays(1);
-		LocalDate twoDays = today.plusDays(2);
-
-		if (due.isBefore(today)) {
-			if (random.nextDouble() < 0.9) {
-				return OrderState.DELIVERED;
-			} else {
-				return OrderState.CANCELLED;
-			}
-		} else {
-			if (due.isAfter(twoDays)) {
-				return OrderState.NEW;
-			} else if (due.isAfter(tomorrow)) {
-				// in 1-2 days
-				double resolution = random.nextDouble();
-				if (resolution < 0.8) {
-					return OrderState.NEW;
-				} else if (resolution < 0.9) {
-					return OrderState.PROBLEM;
-				} else {
-					return OrderState.CANCELLED;
-				}
-			} else {
-				double resolution = random.nextDouble();
-				if (resolution < 0.6) {
-					return OrderState.READY;
-				} else if (resolution < 0.8) {
-					return OrderState.DELIVERED;
-				} else if (resolution < 0.9) {
-					return OrderState.PROBLEM;
-				} else {
-					return OrderState.CANCELLED;
-				}
-			}
-
-		}
-	}
 
     /**
      * Returns a random element from the provided array.
@@ -367,17 +200,21 @@ public class DataGenerator implements HasLogger {
 	}
 
     /**
-     * Creates and persists demo pickup locations, returning a supplier
-     * that randomly picks one of them.
+     * Creates and persists demo pickup locations: a "Store" and a "Bakery",
+     * followed by numbered stores when more are requested.
      *
      * @param pickupLocationRepository repository for storing pickup locations
-     * @return a supplier providing random {@link PickupLocation} instances
+     * @param numberOfItems            how many pickup locations to create
+     * @return the saved {@link PickupLocation} instances
      */
-	private Supplier<PickupLocation> createPickupLocations(PickupLocationRepository pickupLocationRepository) {
-		List<PickupLocation> pickupLocations = Arrays.asList(
-				pickupLocationRepository.save(createPickupLocation("Store")),
-				pickupLocationRepository.save(createPickupLocation("Bakery")));
-		return () -> pickupLocations.get(random.nextInt(pickupLocations.size()));
+	private List<PickupLocation> createPickupLocations(PickupLocationRepository pickupLocationRepository,
+			int numberOfItems) {
+		List<PickupLocation> pickupLocations = new ArrayList<>();
+		for (int i = 0; i < numberOfItems; i++) {
+			String name = i == 0 ? "Store" : i == 1 ? "Bakery" : "Store " + i;
+			pickupLocations.add(pickupLocationRepository.save(createPickupLocation(name)));
+		}
+		return pickupLocations;
 	}
 
     /**
@@ -393,31 +230,26 @@ public class DataGenerator implements HasLogger {
 	}
 
     /**
-     * Creates and persists demo products and returns a supplier that picks
-     * a product with a weighted random distribution.
+     * Creates and persists demo products with unique random names.
      *
      * @param productsRepo   repository for storing products
      * @param numberOfItems  how many products to create
-     * @return a supplier providing random {@link Product} instances
+     * @return the saved {@link Product} instances
      */
-	private Supplier<Product> createProducts(ProductRepository productsRepo, int numberOfItems) {
+	private List<Product> createProducts(ProductRepository productsRepo, int numberOfItems) {
 		List<Product> products  = new ArrayList<>();
 		for (int i = 0; i < numberOfItems; i++) {
 			Product product = new Product();
-			product.setName(getRandomProductName());
+			String name;
+			do {
+				name = getRandomProductName();
+			} while (!productNames.add(name));
+			product.setName(name);
 			double doublePrice = 2.0 + random.nextDouble() * 100.0;
 			product.setPrice((int) (doublePrice * 100.0));
 			products.add(productsRepo.save(product));
 		}
-		return () -> {
-			double cutoff = 2.5;
-			double g = random.nextGaussian();
-			g = Math.min(cutoff, g);
-			g = Math.max(-cutoff, g);
-			g += cutoff;
-			g /= (cutoff * 2.0);
-			return products.get((int) (g * (products.size() - 1)));
-		};
+		return products;
 	}
 
     /**
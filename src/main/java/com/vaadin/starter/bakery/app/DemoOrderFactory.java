@@ -0,0 +1,296 @@
+package com.vaadin.starter.bakery.app;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.Customer;
+import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.data.entity.User;
+
+/**
+ * Creates random demo orders with customers, items and history, without
+ * saving them.
+ * <p>
+ * Not thread safe. The bulk generator uses one instance per thread, each with
+ * its own {@link Random}.
+ */
+class DemoOrderFactory {
+
+	private static final String[] FIRST_NAME = new String[] { "Ori", "Amanda", "Octavia", "Laurel", "Lael", "Delilah",
+			"Jason", "Skyler", "Arsenio", "Haley", "Lionel", "Sylvia", "Jessica", "Lester", "Ferdinand", "Elaine",
+			"Griffin", "Kerry", "Dominique" };
+	private static final String[] LAST_NAME = new String[] { "Carter", "Castro", "Rich", "Irwin", "Moore", "Hendricks",
+			"Huber", "Patton", "Wilkinson", "Thornton", "Nunez", "Macias", "Gallegos", "Blevins", "Mejia", "Pickett",
+			"Whitney", "Farmer", "Henry", "Chen", "Macias", "Rowland", "Pierce", "Cortez", "Noble", "Howard", "Nixon",
+			"Mcbride", "Leblanc", "Russell", "Carver", "Benton", "Maldonado", "Lyons" };
+
+	private final Random random;
+	private final List<Product> products;
+	private final List<PickupLocation> pickupLocations;
+	private final User barista;
+	private final User baker;
+
+	/**
+	 * Creates a factory for orders of the given products and pickup locations.
+	 *
+	 * @param random          the source of randomness
+	 * @param products        the products to order, picked with a weighted random distribution
+	 * @param pickupLocations the pickup locations to use
+	 * @param barista         user with the BARISTA role
+	 * @param baker           user with the BAKER role
+	 */
+	DemoOrderFactory(Random random, List<Product> products, List<PickupLocation> pickupLocations, User barista,
+			User baker) {
+		this.random = random;
+		this.products = products;
+		this.pickupLocations = pickupLocations;
+		this.barista = barista;
+		this.baker = baker;
+	}
+
+	/**
+	 * Creates a single demo order with random customer, products, and history.
+	 *
+	 * @param dueDate date when the order is due
+	 * @return a randomly generated {@link Order}
+	 */
+	Order createOrder(LocalDate dueDate) {
+		Order order = new Order(barista);
+
+		fillCustomer(order.getCustomer());
+		order.setPickupLocation(pickupLocations.get(random.nextInt(pickupLocations.size())));
+		order.setDueDate(dueDate);
+		order.setDueTime(getRandomDueTime());
+		order.changeState(barista, getRandomState(order.getDueDate()));
+
+		int itemCount = random.nextInt(3);
+		List<OrderItem> items = new ArrayList<>();
+		for (int i = 0; i <= itemCount; i++) {
+			OrderItem item = new OrderItem();
+			Product product;
+			do {
+				product = getRandomProduct();
+			} while (containsProduct(items, product));
+			item.setProduct(product);
+			item.setQuantity(random.nextInt(10) + 1);
+			if (random.nextInt(5) == 0) {
+				if (random.nextBoolean()) {
+					item.setComment("Lactose free");
+				} else {
+					item.setComment("Gluten free");
+				}
+			}
+			items.add(item);
+		}
+		order.setItems(items);
+
+		order.setHistory(createOrderHistory(order));
+
+		return order;
+	}
+
+	/**
+	 * Gets the number of orders to create for a day, with a slightly upwards
+	 * trend over the generated period - everybody wants to be successful.
+	 *
+	 * @param relativeMonth   the number of months since the start of the period
+	 * @param maxOrdersPerDay the maximum number of orders per day at the start
+	 * @return the number of orders for the day
+	 */
+	int getOrdersPerDay(int relativeMonth, int maxOrdersPerDay) {
+		double multiplier = 1.0 + 0.03 * relativeMonth;
+		return (int) (random.nextInt(maxOrdersPerDay) + 1 * multiplier);
+	}
+
+	/**
+	 * Populates a {@link Customer} entity with random data such as
+	 * full name and phone number.
+	 *
+	 * @param customer the customer to fill with random demo data
+	 */
+	private void fillCustomer(Customer customer) {
+		String first = getRandom(FIRST_NAME);
+		String last = getRandom(LAST_NAME);
+		customer.setFullName(first + " " + last);
+		customer.setPhoneNumber(getRandomPhone());
+		if (random.nextInt(10) == 0) {
+			customer.setDetails("Very important customer");
+		}
+	}
+
+	/**
+	 * Generates a random phone number using the format +1-555-XXXX.
+	 *
+	 * @return a randomly generated phone number
+	 */
+	private String getRandomPhone() {
+		return "+1-555-" + String.format("%04d", random.nextInt(10000));
+	}
+
+	/**
+	 * Picks a product with a weighted random distribution, favoring the ones
+	 * in the middle of the list.
+	 *
+	 * @return a random product
+	 */
+	private Product getRandomProduct() {
+		double cutoff = 2.5;
+		double g = random.nextGaussian();
+		g = Math.min(cutoff, g);
+		g = Math.max(-cutoff, g);
+		g += cutoff;
+		g /= (cutoff * 2.0);
+		return products.get((int) (g * (products.size() - 1)));
+	}
+
+	/**
+	 * Creates a list of {@link HistoryItem} entries representing the history of a
+	 * given order. The generated history simulates real-world order events
+	 * (placed, confirmed, problem, ready, delivered, cancelled).
+	 *
+	 * @param order the order for which the history is created
+	 * @return a list of {@link HistoryItem} objects describing the order timeline
+	 */
+	private List<HistoryItem> createOrderHistory(Order order) {
+		ArrayList<HistoryItem> history = new ArrayList<>();
+		HistoryItem item = new HistoryItem(barista, Order.ORDER_PLACED_MESSAGE);
+		item.setNewState(OrderState.NEW);
+		LocalDateTime orderPlaced = order.getDueDate().minusDays(random.nextInt(5) + 2L).atTime(random.nextInt(10) + 7,
+				00);
+		item.setTimestamp(orderPlaced);
+		history.add(item);
+		if (order.getState() == OrderState.CANCELLED) {
+			item = new HistoryItem(barista, "Order cancelled");
+			item.setNewState(OrderState.CANCELLED);
+			item.setTimestamp(orderPlaced.plusDays(random
+					.nextInt((int) orderPlaced.until(order.getDueDate().atTime(order.getDueTime()), ChronoUnit.DAYS))));
+			history.add(item);
+		} else if (order.getState() == OrderState.CONFIRMED || order.getState() == OrderState.DELIVERED
+				|| order.getState() == OrderState.PROBLEM || order.getState() == OrderState.READY) {
+			item = new HistoryItem(baker, "Order confirmed");
+			item.setNewState(OrderState.CONFIRMED);
+			item.setTimestamp(orderPlaced.plusDays(random.nextInt(2)).plusHours(random.nextInt(5)));
+			history.add(item);
+
+			if (order.getState() == OrderState.PROBLEM) {
+				item = new HistoryItem(baker, "Can't make it. Did not get any ingredients this morning");
+				item.setNewState(OrderState.PROBLEM);
+				item.setTimestamp(order.getDueDate().atTime(random.nextInt(4) + 4, 0));
+				history.add(item);
+			} else if (order.getState() == OrderState.READY || order.getState() == OrderState.DELIVERED) {
+				item = new HistoryItem(baker, "Order ready for pickup");
+				item.setNewState(OrderState.READY);
+				item.setTimestamp(order.getDueDate().atTime(random.nextInt(2) + 8, random.nextBoolean() ? 0 : 30));
+				history.add(item);
+				if (order.getState() == OrderState.DELIVERED) {
+					item = new HistoryItem(baker, "Order delivered");
+					item.setNewState(OrderState.DELIVERED);
+					item.setTimestamp(order.getDueDate().atTime(order.getDueTime().minusMinutes(random.nextInt(120))));
+					history.add(item);
+				}
+			}
+		}
+
+		return history;
+	}
+
+	/**
+	 * Checks if the given list of {@link OrderItem} already contains
+	 * a specific {@link Product}.
+	 *
+	 * @param items   the list of order items to check
+	 * @param product the product to search for
+	 * @return {@code true} if the product is already present in the list; {@code false} otherwise
+	 */
+	private boolean containsProduct(List<OrderItem> items, Product product) {
+		for (OrderItem item : items) {
+			if (item.getProduct() == product) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Generates a random due time for an order.
+	 * <p>
+	 * The time is chosen between 8:00 and 20:00 in 4-hour intervals.
+	 *
+	 * @return a random {@link LocalTime} representing the due time
+	 */
+	private LocalTime getRandomDueTime() {
+		int time = 8 + 4 * random.nextInt(3);
+
+		return LocalTime.of(time, 0);
+	}
+
+	/**
+	 * Determines a random {@link OrderState} for an order based on its due date.
+	 * <p>
+	 * Past dates are more likely to be delivered or cancelled,
+	 * while future dates are more likely to be new or have problems.
+	 *
+	 * @param due the due date of the order
+	 * @return a randomly selected {@link OrderState}
+	 */
+	private OrderState getRandomState(LocalDate due) {
+		LocalDate today = LocalDate.now();
+		LocalDate tomorrow = today.plusDays(1);
+		LocalDate twoDays = today.plusDays(2);
+
+		if (due.isBefore(today)) {
+			if (random.nextDouble() < 0.9) {
+				return OrderState.DELIVERED;
+			} else {
+				return OrderState.CANCELLED;
+			}
+		} else {
+			if (due.isAfter(twoDays)) {
+				return OrderState.NEW;
+			} else if (due.isAfter(tomorrow)) {
+				// in 1-2 days
+				double resolution = random.nextDouble();
+				if (resolution < 0.8) {
+					return OrderState.NEW;
+				} else if (resolution < 0.9) {
+					return OrderState.PROBLEM;
+				} else {
+					return OrderState.CANCELLED;
+				}
+			} else {
+				double resolution = random.nextDouble();
+				if (resolution < 0.6) {
+					return OrderState.READY;
+				} else if (resolution < 0.8) {
+					return OrderState.DELIVERED;
+				} else if (resolution < 0.9) {
+					return OrderState.PROBLEM;
+				} else {
+					return OrderState.CANCELLED;
+				}
+			}
+
+		}
+	}
+
+	/**
+	 * Returns a random element from the provided array.
+	 *
+	 * @param <T>   the type of elements in the array
+	 * @param array the array to pick from
+	 * @return a randomly selected element
+	 */
+	private <T> T getRandom(T[] array) {
+		return array[random.nextInt(array.length)];
+	}
+}
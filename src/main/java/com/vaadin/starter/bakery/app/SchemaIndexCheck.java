@@ -0,0 +1,88 @@
+package com.vaadin.starter.bakery.app;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import com.vaadin.flow.spring.annotation.SpringComponent;
+
+/**
+ * Warns at startup when an index the order queries rely on is missing, e.g.
+ * because the database was created outside of the Flyway migrations.
+ * <p>
+ * Indexes are matched by table and leading columns rather than by name, as
+ * databases may rename them.
+ */
+@SpringComponent
+public class SchemaIndexCheck implements HasLogger {
+
+	private static final String[][] EXPECTED_INDEXES = {
+			{ "order_info", "due_date", "state" },
+			{ "order_info", "state", "due_date" },
+			{ "order_item", "items_id" },
+			{ "history_item", "history_id" },
+			{ "order_rollup", "state", "due_date" },
+			{ "order_rollup", "due_date", "state", "pickup_location_id", "product_key" },
+	};
+
+	private final DataSource dataSource;
+
+	@Autowired
+	public SchemaIndexCheck(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkIndexes() {
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			for (String[] expected : EXPECTED_INDEXES) {
+				String table = expected[0];
+				List<String> columns = Arrays.asList(expected).subList(1, expected.length);
+				if (!hasIndex(metaData, table, columns)) {
+					getLogger().warn("Missing index on {} ({}), order queries will be slow", table,
+							String.join(", ", columns));
+				}
+			}
+		} catch (SQLException e) {
+			getLogger().warn("Could not check database indexes", e);
+		}
+	}
+
+	private boolean hasIndex(DatabaseMetaData metaData, String table, List<String> columns) throws SQLException {
+		String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ENGLISH) : table;
+		// Index name -> columns by position
+		Map<String, Map<Integer, String>> indexes = new TreeMap<>();
+		try (ResultSet result = metaData.getIndexInfo(null, null, tableName, false, true)) {
+			while (result.next()) {
+				String indexName = result.getString("INDEX_NAME");
+				String column = result.getString("COLUMN_NAME");
+				if (indexName == null || column == null) {
+					continue;
+				}
+				indexes.computeIfAbsent(indexName, k -> new TreeMap<>()).put((int) result.getShort("ORDINAL_POSITION"),
+						column.toLowerCase(Locale.ENGLISH));
+			}
+		}
+		for (Map<Integer, String> index : indexes.values()) {
+			List<String> indexColumns = new ArrayList<>(index.values());
+			if (indexColumns.size() >= columns.size() && indexColumns.subList(0, columns.size()).equals(columns)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
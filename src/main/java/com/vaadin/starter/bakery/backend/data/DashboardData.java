@@ -41,6 +41,10 @@ public class DashboardData {
 		this.salesPerMonth = salesPerMonth;
 	}
 
+	public Number[][] getSalesPerMonth() {
+		return salesPerMonth;
+	}
+
 	public Number[] getSalesPerMonth(int i) {
 		return salesPerMonth[i];
 	}
@@ -0,0 +1,33 @@
+package com.vaadin.starter.bakery.backend.data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The due date, due time and state of an order, read with a constructor
+ * expression instead of loading the order entity.
+ */
+public class OrderDueInfo {
+
+	private final LocalDate dueDate;
+	private final LocalTime dueTime;
+	private final OrderState state;
+
+	public OrderDueInfo(LocalDate dueDate, LocalTime dueTime, OrderState state) {
+		this.dueDate = dueDate;
+		this.dueTime = dueTime;
+		this.state = state;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public LocalTime getDueTime() {
+		return dueTime;
+	}
+
+	public OrderState getState() {
+		return state;
+	}
+}
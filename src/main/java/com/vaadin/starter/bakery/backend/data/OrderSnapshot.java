@@ -0,0 +1,208 @@
+package com.vaadin.starter.bakery.backend.data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.starter.bakery.backend.data.entity.Customer;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+
+/**
+ * Immutable copy of the figures an order contributes to the order rollups:
+ * its due date, state, pickup location and the quantity and revenue per
+ * product. It also holds the due time and the customer name and phone number,
+ * which the order listings sort and search by but the rollups do not count.
+ */
+public final class OrderSnapshot {
+
+	public static final OrderSnapshot EMPTY = new OrderSnapshot(null, null, null, Collections.emptyMap(), null, null,
+			null);
+
+	public static final class Line {
+		private final long quantity;
+		private final long revenue;
+
+		Line(long quantity, long revenue) {
+			this.quantity = quantity;
+			this.revenue = revenue;
+		}
+
+		public long getQuantity() {
+			return quantity;
+		}
+
+		public long getRevenue() {
+			return revenue;
+		}
+
+		Line plus(long quantity, long revenue) {
+			return new Line(this.quantity + quantity, this.revenue + revenue);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Line that = (Line) o;
+			return quantity == that.quantity && revenue == that.revenue;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(quantity, revenue);
+		}
+	}
+
+	private final LocalDate dueDate;
+	private final OrderState state;
+	private final Long pickupLocationId;
+	private final Map<Long, Line> lines;
+	private final LocalTime dueTime;
+	private final String customerName;
+	private final String customerPhoneNumber;
+
+	private OrderSnapshot(LocalDate dueDate, OrderState state, Long pickupLocationId, Map<Long, Line> lines,
+			LocalTime dueTime, String customerName, String customerPhoneNumber) {
+		this.dueDate = dueDate;
+		this.state = state;
+		this.pickupLocationId = pickupLocationId;
+		this.lines = Collections.unmodifiableMap(lines);
+		this.dueTime = dueTime;
+		this.customerName = customerName;
+		this.customerPhoneNumber = customerPhoneNumber;
+	}
+
+	/**
+	 * Takes a snapshot of the given order as it is in memory.
+	 *
+	 * @param order the order, may be {@code null}
+	 * @return the snapshot, {@link #EMPTY} if the order does not count in the rollups
+	 */
+	public static OrderSnapshot of(Order order) {
+		if (order == null || order.getDueDate() == null || order.getState() == null
+				|| order.getPickupLocation() == null || order.getItems() == null) {
+			return EMPTY;
+		}
+		Map<Long, Line> lines = new HashMap<>();
+		for (OrderItem item : order.getItems()) {
+			if (item.getProduct() == null || item.getQuantity() == null) {
+				continue;
+			}
+			lines.merge(item.getProduct().getId(), new Line(item.getQuantity(), item.getTotalPrice()),
+					(a, b) -> a.plus(b.quantity, b.revenue));
+		}
+		Customer customer = order.getCustomer();
+		return new OrderSnapshot(order.getDueDate(), order.getState(), order.getPickupLocation().getId(), lines,
+				order.getDueTime(), customer == null ? null : customer.getFullName(),
+				customer == null ? null : customer.getPhoneNumber());
+	}
+
+	/**
+	 * Builds a snapshot from the rows of
+	 * {@code OrderRepository.findSnapshotRows}, i.e. from the order as it is
+	 * stored in the database.
+	 *
+	 * @param rows the rows: due date, state, pickup location id, product id, quantity, unit price, due time,
+	 *             customer name, customer phone number
+	 * @return the snapshot, {@link #EMPTY} if there are no rows
+	 */
+	public static OrderSnapshot of(List<Object[]> rows) {
+		if (rows.isEmpty()) {
+			return EMPTY;
+		}
+		Object[] first = rows.get(0);
+		Map<Long, Line> lines = new HashMap<>();
+		for (Object[] row : rows) {
+			long quantity = ((Number) row[4]).longValue();
+			long price = ((Number) row[5]).longValue();
+			lines.merge((Long) row[3], new Line(quantity, quantity * price), (a, b) -> a.plus(b.quantity, b.revenue));
+		}
+		return new OrderSnapshot((LocalDate) first[0], (OrderState) first[1], (Long) first[2], lines,
+				(LocalTime) first[6], (String) first[7], (String) first[8]);
+	}
+
+	public boolean isEmpty() {
+		return dueDate == null;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public OrderState getState() {
+		return state;
+	}
+
+	public Long getPickupLocationId() {
+		return pickupLocationId;
+	}
+
+	/**
+	 * Gets the order lines summed up per product id.
+	 *
+	 * @return the lines per product id
+	 */
+	public Map<Long, Line> getLines() {
+		return lines;
+	}
+
+	public long getTotalQuantity() {
+		return lines.values().stream().mapToLong(Line::getQuantity).sum();
+	}
+
+	public long getTotalRevenue() {
+		return lines.values().stream().mapToLong(Line::getRevenue).sum();
+	}
+
+	public LocalTime getDueTime() {
+		return dueTime;
+	}
+
+	public String getCustomerName() {
+		return customerName;
+	}
+
+	public String getCustomerPhoneNumber() {
+		return customerPhoneNumber;
+	}
+
+	/**
+	 * Tells whether the order contributes the same figures to the same rollup
+	 * buckets as in the given snapshot, ignoring the due time and customer.
+	 *
+	 * @param other the other snapshot
+	 * @return {@code true} if the rollups are the same for both
+	 */
+	public boolean hasSameFigures(OrderSnapshot other) {
+		return Objects.equals(dueDate, other.dueDate) && state == other.state
+				&& Objects.equals(pickupLocationId, other.pickupLocationId) && lines.equals(other.lines);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		OrderSnapshot that = (OrderSnapshot) o;
+		return hasSameFigures(that) && Objects.equals(dueTime, that.dueTime)
+				&& Objects.equals(customerName, that.customerName)
+				&& Objects.equals(customerPhoneNumber, that.customerPhoneNumber);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(dueDate, state, pickupLocationId, lines, dueTime, customerName, customerPhoneNumber);
+	}
+}
@@ -0,0 +1,40 @@
+package com.vaadin.starter.bakery.backend.data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+
+/**
+ * Position of an order in the default storefront sort order
+ * ({@code dueDate, dueTime, id}), used to continue a listing after a given
+ * order without an offset.
+ */
+public final class OrderSortKey {
+
+	private final LocalDate dueDate;
+	private final LocalTime dueTime;
+	private final Long id;
+
+	public OrderSortKey(LocalDate dueDate, LocalTime dueTime, Long id) {
+		this.dueDate = dueDate;
+		this.dueTime = dueTime;
+		this.id = id;
+	}
+
+	public static OrderSortKey of(Order order) {
+		return new OrderSortKey(order.getDueDate(), order.getDueTime(), order.getId());
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public LocalTime getDueTime() {
+		return dueTime;
+	}
+
+	public Long getId() {
+		return id;
+	}
+}
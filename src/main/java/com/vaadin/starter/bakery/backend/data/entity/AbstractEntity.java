@@ -4,15 +4,26 @@ import java.io.Serializable;
 import java.util.Objects;
 
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 @MappedSuperclass
 public abstract class AbstractEntity implements Serializable {
 
+	public static final int ID_ALLOCATION_SIZE = 50;
+
+	// One sequence call per ID_ALLOCATION_SIZE ids, the sequence value is the first id of the block (pooled-lo)
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled_lo_sequence")
+	@GenericGenerator(name = "pooled_lo_sequence", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "hibernate_sequence"),
+			@Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
 	private Long id;
 
 	@Version
@@ -3,7 +3,11 @@ package com.vaadin.starter.bakery.backend.data.entity;
 import java.time.LocalDateTime;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -11,6 +15,7 @@ import javax.validation.constraints.Size;
 import com.vaadin.starter.bakery.backend.data.OrderState;
 
 @Entity
+@Table(indexes = @Index(name = "idx_history_item_order_timestamp", columnList = "history_id, timestamp"))
 public class HistoryItem extends AbstractEntity {
 
 	private OrderState newState;
@@ -25,6 +30,11 @@ public class HistoryItem extends AbstractEntity {
 	@NotNull
 	private User createdBy;
 
+	// The history is an append-only log owned by its items, so adding one never touches the order row
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "history_id", nullable = false)
+	private Order order;
+
 	HistoryItem() {
 		// Empty constructor is needed by Spring Data / JPA
 	}
@@ -67,4 +77,8 @@ public class HistoryItem extends AbstractEntity {
 		this.createdBy = createdBy;
 	}
 
+	void setOrder(Order order) {
+		this.order = order;
+	}
+
 }
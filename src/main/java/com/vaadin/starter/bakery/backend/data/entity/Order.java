@@ -3,7 +3,6 @@ package com.vaadin.starter.bakery.backend.data.entity;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.persistence.CascadeType;
@@ -18,7 +17,10 @@ import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.OrderColumn;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
@@ -34,15 +36,19 @@ import com.vaadin.starter.bakery.backend.data.OrderState;
 }),@NamedEntityGraph(name = Order.ENTITY_GRAPTH_FULL, attributeNodes = {
 		@NamedAttributeNode("customer"),
 		@NamedAttributeNode("pickupLocation"),
-		@NamedAttributeNode("items"),
-		@NamedAttributeNode("history")
+		@NamedAttributeNode("items")
 })})
-@Table(indexes = @Index(columnList = "dueDate"))
+@Table(indexes = {
+		@Index(name = "idx_order_info_due_date_state", columnList = "dueDate, state"),
+		@Index(name = "idx_order_info_state_due_date", columnList = "state, dueDate")
+})
 public class Order extends AbstractEntity implements OrderSummary {
 
 	public static final String ENTITY_GRAPTH_BRIEF = "Order.brief";
 	public static final String ENTITY_GRAPTH_FULL = "Order.full";
 
+	public static final String ORDER_PLACED_MESSAGE = "Order placed";
+
 	@NotNull(message = "{bakery.due.date.required}")
 	private LocalDate dueDate;
 
@@ -67,16 +73,19 @@ public class Order extends AbstractEntity implements OrderSummary {
 	@NotNull(message = "{bakery.status.required}")
 	private OrderState state;
 
+	// Sum of the item prices, kept up to date by updateTotalPrice()
+	private Integer totalPrice = 0;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-	@OrderColumn
-	@JoinColumn
-	private List<HistoryItem> history;
+
+	// Only the history entries added to this instance and not saved yet. The saved history is an
+	// append-only log that is read page by page and never rewritten with the order, see OrderService
+	@Transient
+	private List<HistoryItem> history = new ArrayList<>();
 
 	public Order(User createdBy) {
 		this.state = OrderState.NEW;
 		setCustomer(new Customer());
-		addHistoryItem(createdBy, "Order placed");
+		addHistoryItem(createdBy, ORDER_PLACED_MESSAGE);
 		this.items = new ArrayList<>();
 	}
 
@@ -85,12 +94,14 @@ public class Order extends AbstractEntity implements OrderSummary {
 	}
 
 	public void addHistoryItem(User createdBy, String comment) {
+		history.add(createHistoryItem(createdBy, comment));
+	}
+
+	public HistoryItem createHistoryItem(User createdBy, String comment) {
 		HistoryItem item = new HistoryItem(createdBy, comment);
 		item.setNewState(state);
-		if (history == null) {
-			history = new LinkedList<>();
-		}
-		history.add(item);
+		item.setOrder(this);
+		return item;
 	}
 
 	@Override
@@ -143,6 +154,7 @@ public class Order extends AbstractEntity implements OrderSummary {
 	}
 
 	public void setHistory(List<HistoryItem> history) {
+		history.forEach(item -> item.setOrder(this));
 		this.history = history;
 	}
 
@@ -167,6 +179,22 @@ public class Order extends AbstractEntity implements OrderSummary {
 
 	@Override
 	public Integer getTotalPrice() {
-		return items.stream().map(i -> i.getTotalPrice()).reduce(0, Integer::sum);
+		return totalPrice;
+	}
+
+	/**
+	 * Recomputes the stored total price from the items. Called before the order
+	 * is written, and after the items are edited in memory.
+	 */
+	@PrePersist
+	@PreUpdate
+	public void updateTotalPrice() {
+		int total = 0;
+		if (items != null) {
+			for (OrderItem item : items) {
+				total += item.getTotalPrice();
+			}
+		}
+		totalPrice = total;
 	}
 }
@@ -1,5 +1,7 @@
 package com.vaadin.starter.bakery.backend.data.entity;
 
+import java.util.Objects;
+
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.validation.constraints.Min;
@@ -17,6 +19,9 @@ public class OrderItem extends AbstractEntity {
 	@NotNull
 	private Integer quantity = 1;
 
+	// Price of the product when it was added to the order, see Product.price
+	private Integer unitPrice;
+
 	@Size(max = 255)
 	private String comment;
 
@@ -25,6 +30,11 @@ public class OrderItem extends AbstractEntity {
 	}
 
 	public void setProduct(Product product) {
+		if (this.product == null || product == null || unitPrice == null
+				|| !Objects.equals(this.product.getId(), product.getId())) {
+			// Keep the price of the order time unless the product is replaced
+			unitPrice = product == null ? null : product.getPrice();
+		}
 		this.product = product;
 	}
 
@@ -44,7 +54,11 @@ public class OrderItem extends AbstractEntity {
 		this.comment = comment;
 	}
 
+	public Integer getUnitPrice() {
+		return unitPrice;
+	}
+
 	public int getTotalPrice() {
-		return quantity == null || product == null ? 0 : quantity * product.getPrice();
+		return quantity == null || unitPrice == null ? 0 : quantity * unitPrice;
 	}
 }
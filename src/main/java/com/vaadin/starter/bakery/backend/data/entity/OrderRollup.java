@@ -0,0 +1,94 @@
+package com.vaadin.starter.bakery.backend.data.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+/**
+ * Pre-aggregated order figures for one (due date, state, pickup location,
+ * product) bucket.
+ * <p>
+ * Rows without a product hold the order level totals of the bucket, rows with
+ * a product hold the figures of the order lines for that product. The
+ * {@code orderCount} of a product row is the number of orders containing the
+ * product. There is at most one row per bucket, enforced by a unique index in
+ * the database.
+ */
+@Entity
+@Table(indexes = {
+		@Index(name = "idx_order_rollup_due_date", columnList = "dueDate"),
+		@Index(name = "idx_order_rollup_state_due_date", columnList = "state, dueDate")
+})
+public class OrderRollup extends AbstractEntity {
+
+	@NotNull
+	private LocalDate dueDate;
+
+	@NotNull
+	private OrderState state;
+
+	@NotNull
+	@ManyToOne
+	private PickupLocation pickupLocation;
+
+	@ManyToOne
+	private Product product;
+
+	private long orderCount;
+
+	private long quantity;
+
+	// Real revenue * 100 to avoid rounding errors, like Product.price
+	private long revenue;
+
+	OrderRollup() {
+		// Empty constructor is needed by Spring Data / JPA
+	}
+
+	public OrderRollup(LocalDate dueDate, OrderState state, PickupLocation pickupLocation, Product product) {
+		this.dueDate = dueDate;
+		this.state = state;
+		this.pickupLocation = pickupLocation;
+		this.product = product;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public OrderState getState() {
+		return state;
+	}
+
+	public PickupLocation getPickupLocation() {
+		return pickupLocation;
+	}
+
+	public Product getProduct() {
+		return product;
+	}
+
+	public long getOrderCount() {
+		return orderCount;
+	}
+
+	public long getQuantity() {
+		return quantity;
+	}
+
+	public long getRevenue() {
+		return revenue;
+	}
+
+	public void add(long orderCount, long quantity, long revenue) {
+		this.orderCount += orderCount;
+		this.quantity += quantity;
+		this.revenue += revenue;
+	}
+}
@@ -1,5 +1,6 @@
 package com.vaadin.starter.bakery.backend.data.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.validation.constraints.Max;
@@ -8,7 +9,12 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import java.util.Objects;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product extends AbstractEntity {
 
 	@NotBlank(message = "{bakery.name.required}")
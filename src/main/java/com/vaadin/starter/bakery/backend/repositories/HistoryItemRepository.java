@@ -1,8 +1,24 @@
 package com.vaadin.starter.bakery.backend.repositories;
 
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
 
 public interface HistoryItemRepository extends JpaRepository<HistoryItem, Long> {
+
+	@Query("SELECT h FROM HistoryItem h WHERE h.order.id = ?1 ORDER BY h.timestamp DESC, h.id DESC")
+	Slice<HistoryItem> findLatestByOrderId(Long orderId, Pageable pageable);
+
+	/**
+	 * History entries before the entry (?2, ?3) in the (timestamp, id) order,
+	 * so that comments added meanwhile do not shift the pages.
+	 */
+	@Query("SELECT h FROM HistoryItem h WHERE h.order.id = ?1 AND (h.timestamp < ?2 OR (h.timestamp = ?2 AND h.id < ?3))"
+			+ " ORDER BY h.timestamp DESC, h.id DESC")
+	Slice<HistoryItem> findLatestByOrderIdBefore(Long orderId, LocalDateTime timestamp, Long id, Pageable pageable);
 }
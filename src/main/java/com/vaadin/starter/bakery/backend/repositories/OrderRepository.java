@@ -1,6 +1,8 @@
 package com.vaadin.starter.bakery.backend.repositories;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -12,20 +14,137 @@ import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import com.vaadin.starter.bakery.backend.data.OrderDueInfo;
 import com.vaadin.starter.bakery.backend.data.OrderState;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.OrderSummary;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+	/**
+	 * Orders after the key (?1, ?2, ?3) in the (dueDate, dueTime, id) order. The
+	 * leading range on dueDate lets the database seek in the due date index.
+	 */
+	String AFTER_SORT_KEY = "o.dueDate >= ?1 AND (o.dueDate > ?1 OR o.dueTime > ?2 OR (o.dueTime = ?2 AND o.id > ?3))";
+
+	String BY_SORT_KEY = " ORDER BY o.dueDate, o.dueTime, o.id";
+
+	/**
+	 * The six due date ranges delimited by the ascending dates ?1 to ?5, in the
+	 * native queries selecting the first order of each range. Every range is a
+	 * branch of its own that stops at the first match in the due date index.
+	 */
+	String DUE_DATE_RANGE_0 = " o.due_date < ?1";
+	String DUE_DATE_RANGE_1 = " o.due_date >= ?1 AND o.due_date < ?2";
+	String DUE_DATE_RANGE_2 = " o.due_date >= ?2 AND o.due_date < ?3";
+	String DUE_DATE_RANGE_3 = " o.due_date >= ?3 AND o.due_date < ?4";
+	String DUE_DATE_RANGE_4 = " o.due_date >= ?4 AND o.due_date < ?5";
+	String DUE_DATE_RANGE_5 = " o.due_date >= ?5";
+
+	String FIRST_BY_SORT_KEY = " ORDER BY o.due_date, o.due_time, o.id LIMIT 1)";
+
+	String FROM_ORDERS = " FROM order_info o WHERE";
+
+	String FROM_ORDERS_WITH_CUSTOMER = " FROM order_info o JOIN customer c ON c.id = o.customer_id WHERE";
+
+	String BY_ID_IN = " AND o.id IN (?6)";
+
+	/**
+	 * Orders whose lowercase customer name or phone number matches the pattern
+	 * of {@link com.vaadin.starter.bakery.backend.service.CustomerSearchIndex#toLikePattern(String)},
+	 * the same rule the index resolves longer filters with. The pattern is ?1,
+	 * ?4 or ?6.
+	 */
+	String CUSTOMER_MATCHING_1 = " (lower(o.customer.fullName) LIKE ?1 ESCAPE '\\'"
+			+ " OR lower(o.customer.phoneNumber) LIKE ?1 ESCAPE '\\')";
+
+	String CUSTOMER_MATCHING_4 = " (lower(o.customer.fullName) LIKE ?4 ESCAPE '\\'"
+			+ " OR lower(o.customer.phoneNumber) LIKE ?4 ESCAPE '\\')";
+
+	String BY_CUSTOMER_MATCHING = " AND (lower(c.full_name) LIKE ?6 ESCAPE '\\' OR lower(c.phone_number) LIKE ?6 ESCAPE '\\')";
+
 	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
 	Page<Order> findByDueDateAfter(LocalDate filterDate, Pageable pageable);
 
 	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
-	Page<Order> findByCustomerFullNameContainingIgnoreCase(String searchQuery, Pageable pageable);
+	@Query("SELECT o FROM OrderInfo o WHERE" + CUSTOMER_MATCHING_1)
+	Page<Order> findByCustomerMatching(String pattern, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE" + CUSTOMER_MATCHING_1 + " AND o.dueDate > ?2")
+	Page<Order> findByCustomerMatchingAndDueDateAfter(String pattern, LocalDate dueDate, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	Page<Order> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_FULL, type = EntityGraphType.LOAD)
+	List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	Page<Order> findByIdInAndDueDateAfter(Collection<Long> ids, LocalDate dueDate, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + BY_SORT_KEY)
+	List<Order> findAfterSortKey(LocalDate dueDate, LocalTime dueTime, Long id, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + " AND o.dueDate > ?4" + BY_SORT_KEY)
+	List<Order> findAfterSortKeyAndDueDateAfter(LocalDate dueDate, LocalTime dueTime, Long id,
+			LocalDate filterDate, Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + " AND o.id IN ?4" + BY_SORT_KEY)
+	List<Order> findAfterSortKeyAndIdIn(LocalDate dueDate, LocalTime dueTime, Long id, Collection<Long> ids,
+			Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + " AND o.id IN ?4 AND o.dueDate > ?5" + BY_SORT_KEY)
+	List<Order> findAfterSortKeyAndIdInAndDueDateAfter(LocalDate dueDate, LocalTime dueTime, Long id,
+			Collection<Long> ids, LocalDate filterDate, Pageable pageable);
 
 	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
-	Page<Order> findByCustomerFullNameContainingIgnoreCaseAndDueDateAfter(String searchQuery, LocalDate dueDate, Pageable pageable);
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + " AND" + CUSTOMER_MATCHING_4 + BY_SORT_KEY)
+	List<Order> findAfterSortKeyAndCustomerMatching(LocalDate dueDate, LocalTime dueTime, Long id, String pattern,
+			Pageable pageable);
+
+	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
+	@Query("SELECT o FROM OrderInfo o WHERE " + AFTER_SORT_KEY + " AND" + CUSTOMER_MATCHING_4 + " AND o.dueDate > ?5"
+			+ BY_SORT_KEY)
+	List<Order> findAfterSortKeyAndCustomerMatchingAndDueDateAfter(LocalDate dueDate, LocalTime dueTime, Long id,
+			String pattern, LocalDate filterDate, Pageable pageable);
+
+	@Query(nativeQuery = true, value = "(SELECT 0, o.id" + FROM_ORDERS + DUE_DATE_RANGE_0 + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 1, o.id" + FROM_ORDERS + DUE_DATE_RANGE_1 + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 2, o.id" + FROM_ORDERS + DUE_DATE_RANGE_2 + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 3, o.id" + FROM_ORDERS + DUE_DATE_RANGE_3 + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 4, o.id" + FROM_ORDERS + DUE_DATE_RANGE_4 + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 5, o.id" + FROM_ORDERS + DUE_DATE_RANGE_5 + FIRST_BY_SORT_KEY)
+	List<Object[]> findFirstIdPerDueDateRange(LocalDate bound1, LocalDate bound2, LocalDate bound3,
+			LocalDate bound4, LocalDate bound5);
+
+	@Query(nativeQuery = true, value = "(SELECT 0, o.id" + FROM_ORDERS + DUE_DATE_RANGE_0 + BY_ID_IN
+			+ FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 1, o.id" + FROM_ORDERS + DUE_DATE_RANGE_1 + BY_ID_IN + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 2, o.id" + FROM_ORDERS + DUE_DATE_RANGE_2 + BY_ID_IN + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 3, o.id" + FROM_ORDERS + DUE_DATE_RANGE_3 + BY_ID_IN + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 4, o.id" + FROM_ORDERS + DUE_DATE_RANGE_4 + BY_ID_IN + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 5, o.id" + FROM_ORDERS + DUE_DATE_RANGE_5 + BY_ID_IN + FIRST_BY_SORT_KEY)
+	List<Object[]> findFirstIdPerDueDateRangeAndIdIn(LocalDate bound1, LocalDate bound2, LocalDate bound3,
+			LocalDate bound4, LocalDate bound5, Collection<Long> ids);
+
+	@Query(nativeQuery = true, value = "(SELECT 0, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_0
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 1, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_1
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 2, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_2
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 3, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_3
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 4, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_4
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY
+			+ " UNION ALL (SELECT 5, o.id" + FROM_ORDERS_WITH_CUSTOMER + DUE_DATE_RANGE_5
+			+ BY_CUSTOMER_MATCHING + FIRST_BY_SORT_KEY)
+	List<Object[]> findFirstIdPerDueDateRangeAndCustomerMatching(LocalDate bound1, LocalDate bound2,
+			LocalDate bound3, LocalDate bound4, LocalDate bound5, String pattern);
 
 	@Override
 	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
@@ -35,8 +154,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
 	Page<Order> findAll(Pageable pageable);
 
-	@EntityGraph(value = Order.ENTITY_GRAPTH_BRIEF, type = EntityGraphType.LOAD)
-	List<OrderSummary> findByDueDateGreaterThanEqual(LocalDate dueDate);
+	@Query("SELECT new com.vaadin.starter.bakery.backend.data.OrderDueInfo(o.dueDate, o.dueTime, o.state) FROM OrderInfo o WHERE o.dueDate >= ?1 ORDER BY o.dueDate, o.dueTime")
+	List<OrderDueInfo> findDueInfoByDueDateGreaterThanEqual(LocalDate dueDate);
+
+	@Query("SELECT max(h.timestamp) FROM HistoryItem h WHERE h.order.dueDate >= ?1 AND h.message = ?2")
+	LocalDateTime findLastHistoryTimestampByDueDateGreaterThanEqual(LocalDate dueDate, String message);
 
 	@Override
 	@EntityGraph(value = Order.ENTITY_GRAPTH_FULL, type = EntityGraphType.LOAD)
@@ -44,9 +166,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
 	long countByDueDateAfter(LocalDate dueDate);
 
-	long countByCustomerFullNameContainingIgnoreCase(String searchQuery);
+	@Query("SELECT count(o) FROM OrderInfo o WHERE" + CUSTOMER_MATCHING_1)
+	long countByCustomerMatching(String pattern);
 
-	long countByCustomerFullNameContainingIgnoreCaseAndDueDateAfter(String searchQuery, LocalDate dueDate);
+	@Query("SELECT count(o) FROM OrderInfo o WHERE" + CUSTOMER_MATCHING_1 + " AND o.dueDate > ?2")
+	long countByCustomerMatchingAndDueDateAfter(String pattern, LocalDate dueDate);
+
+	long countByIdInAndDueDateAfter(Collection<Long> ids, LocalDate dueDate);
 
 	long countByDueDate(LocalDate dueDate);
 
@@ -54,16 +180,32 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
 	long countByState(OrderState state);
 
-	@Query("SELECT month(dueDate) as month, count(*) as deliveries FROM OrderInfo o where o.state=?1 and year(dueDate)=?2 group by month(dueDate)")
-	List<Object[]> countPerMonth(OrderState orderState, int year);
-
-	@Query("SELECT year(o.dueDate) as y, month(o.dueDate) as m, sum(oi.quantity*p.price) as deliveries FROM OrderInfo o JOIN o.items oi JOIN oi.product p where o.state=?1 and year(o.dueDate)<=?2 AND year(o.dueDate)>=(?2-3) group by year(o.dueDate), month(o.dueDate) order by y desc, month(o.dueDate)")
-	List<Object[]> sumPerMonthLastThreeYears(OrderState orderState, int year);
-
-	@Query("SELECT day(dueDate) as day, count(*) as deliveries FROM OrderInfo o where o.state=?1 and year(dueDate)=?2 and month(dueDate)=?3 group by day(dueDate)")
-	List<Object[]> countPerDay(OrderState orderState, int year, int month);
-
-	@Query("SELECT sum(oi.quantity), p FROM OrderInfo o JOIN o.items oi JOIN oi.product p WHERE o.state=?1 AND year(o.dueDate)=?2 AND month(o.dueDate)=?3 GROUP BY p.id ORDER BY p.id")
-	List<Object[]> countPerProduct(OrderState orderState, int year, int month);
+	/**
+	 * Counts the figures of {@link com.vaadin.starter.bakery.backend.data.DeliveryStats} in one pass: due today,
+	 * due tomorrow, delivered today, not available today and in the "new" state.
+	 */
+	@Query("SELECT coalesce(sum(case when o.dueDate = ?1 then 1 else 0 end), 0), "
+			+ "coalesce(sum(case when o.dueDate = ?2 then 1 else 0 end), 0), "
+			+ "coalesce(sum(case when o.dueDate = ?1 and o.state = ?3 then 1 else 0 end), 0), "
+			+ "coalesce(sum(case when o.dueDate = ?1 and o.state in ?4 then 1 else 0 end), 0), "
+			+ "coalesce(sum(case when o.state = ?5 then 1 else 0 end), 0) "
+			+ "FROM OrderInfo o WHERE o.dueDate = ?1 OR o.dueDate = ?2 OR o.state = ?5")
+	List<Object[]> countDeliveryStats(LocalDate today, LocalDate tomorrow, OrderState deliveredState,
+			Collection<OrderState> notAvailableStates, OrderState newState);
+
+	@Query("SELECT o.dueDate, o.state, count(o) FROM OrderInfo o WHERE o.dueDate >= ?1 GROUP BY o.dueDate, o.state")
+	List<Object[]> countPerDueDateAndStateFrom(LocalDate dueDate);
+
+	@Query("SELECT o.state, count(o) FROM OrderInfo o GROUP BY o.state")
+	List<Object[]> countPerState();
+
+	@Query("SELECT o.dueDate, o.state, o.pickupLocation.id, p.id, oi.quantity, oi.unitPrice, o.dueTime, c.fullName, c.phoneNumber FROM OrderInfo o JOIN o.customer c JOIN o.items oi JOIN oi.product p WHERE o.id = ?1")
+	List<Object[]> findSnapshotRows(Long id);
+
+	@Query("SELECT o.id, c.fullName, c.phoneNumber FROM OrderInfo o JOIN o.customer c WHERE o.id = ?1")
+	List<Object[]> findCustomerSearchRows(Long id);
+
+	@Query("SELECT o.id, c.fullName, c.phoneNumber FROM OrderInfo o JOIN o.customer c")
+	List<Object[]> findAllCustomerSearchRows();
 
 }
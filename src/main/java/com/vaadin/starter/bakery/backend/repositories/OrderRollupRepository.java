@@ -0,0 +1,51 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.OrderRollup;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+
+	@Modifying
+	@Query("UPDATE OrderRollup r SET r.orderCount = r.orderCount + ?5, r.quantity = r.quantity + ?6, r.revenue = r.revenue + ?7 WHERE r.dueDate = ?1 AND r.state = ?2 AND r.pickupLocation.id = ?3 AND r.product.id = ?4")
+	int incrementProductLine(LocalDate dueDate, OrderState state, Long pickupLocationId, Long productId,
+			long orderCount, long quantity, long revenue);
+
+	@Modifying
+	@Query("UPDATE OrderRollup r SET r.orderCount = r.orderCount + ?4, r.quantity = r.quantity + ?5, r.revenue = r.revenue + ?6 WHERE r.dueDate = ?1 AND r.state = ?2 AND r.pickupLocation.id = ?3 AND r.product IS NULL")
+	int incrementOrderTotals(LocalDate dueDate, OrderState state, Long pickupLocationId, long orderCount,
+			long quantity, long revenue);
+
+	@Modifying
+	@Query("DELETE FROM OrderRollup r WHERE r.dueDate = ?1 AND r.state = ?2 AND r.pickupLocation.id = ?3 AND r.product.id = ?4 AND r.orderCount = 0")
+	int deleteEmptyProductLine(LocalDate dueDate, OrderState state, Long pickupLocationId, Long productId);
+
+	@Modifying
+	@Query("DELETE FROM OrderRollup r WHERE r.dueDate = ?1 AND r.state = ?2 AND r.pickupLocation.id = ?3 AND r.product IS NULL AND r.orderCount = 0")
+	int deleteEmptyOrderTotals(LocalDate dueDate, OrderState state, Long pickupLocationId);
+
+	@Query("SELECT o.dueDate, o.state, o.pickupLocation.id, count(distinct o.id), sum(oi.quantity), sum(oi.quantity*oi.unitPrice) FROM OrderInfo o JOIN o.items oi GROUP BY o.dueDate, o.state, o.pickupLocation.id")
+	List<Object[]> aggregateOrderTotals();
+
+	@Query("SELECT o.dueDate, o.state, o.pickupLocation.id, p.id, count(distinct o.id), sum(oi.quantity), sum(oi.quantity*oi.unitPrice) FROM OrderInfo o JOIN o.items oi JOIN oi.product p GROUP BY o.dueDate, o.state, o.pickupLocation.id, p.id")
+	List<Object[]> aggregateProductLines();
+
+	@Query("SELECT month(r.dueDate) as month, sum(r.orderCount) as deliveries FROM OrderRollup r where r.product is null and r.state=?1 and r.dueDate >= ?2 and r.dueDate < ?3 group by month(r.dueDate)")
+	List<Object[]> countPerMonth(OrderState orderState, LocalDate from, LocalDate to);
+
+	@Query("SELECT year(r.dueDate) as y, month(r.dueDate) as m, sum(r.revenue) as deliveries FROM OrderRollup r where r.product is null and r.state=?1 and r.dueDate >= ?2 and r.dueDate < ?3 group by year(r.dueDate), month(r.dueDate) order by y desc, month(r.dueDate)")
+	List<Object[]> sumPerMonth(OrderState orderState, LocalDate from, LocalDate to);
+
+	@Query("SELECT day(r.dueDate) as day, sum(r.orderCount) as deliveries FROM OrderRollup r where r.product is null and r.state=?1 and r.dueDate >= ?2 and r.dueDate < ?3 group by day(r.dueDate)")
+	List<Object[]> countPerDay(OrderState orderState, LocalDate from, LocalDate to);
+
+	@Query("SELECT sum(r.quantity), p FROM OrderRollup r JOIN r.product p WHERE r.state=?1 AND r.dueDate >= ?2 AND r.dueDate < ?3 GROUP BY p.id ORDER BY p.id")
+	List<Object[]> countPerProduct(OrderState orderState, LocalDate from, LocalDate to);
+
+}
@@ -1,14 +1,23 @@
 package com.vaadin.starter.bakery.backend.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
 
 public interface PickupLocationRepository extends JpaRepository<PickupLocation, Long> {
 
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Page<PickupLocation> findAll(Pageable pageable);
+
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Page<PickupLocation> findByNameLikeIgnoreCase(String nameFilter, Pageable pageable);
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	int countByNameLikeIgnoreCase(String nameFilter);
 }
@@ -1,17 +1,23 @@
 package com.vaadin.starter.bakery.backend.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.vaadin.starter.bakery.backend.data.entity.Product;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Page<Product> findBy(Pageable page);
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Page<Product> findByNameLikeIgnoreCase(String name, Pageable page);
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	int countByNameLikeIgnoreCase(String name);
 
 }
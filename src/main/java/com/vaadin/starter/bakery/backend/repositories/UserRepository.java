@@ -1,13 +1,17 @@
 package com.vaadin.starter.bakery.backend.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.vaadin.starter.bakery.backend.data.entity.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	User findByEmailIgnoreCase(String email);
 
 	Page<User> findBy(Pageable pageable);
@@ -11,8 +11,19 @@ public interface CrudService<T extends AbstractEntity> {
 
 	JpaRepository<T, Long> getRepository();
 
+	/**
+	 * Gets the second-level cache the entities are kept in.
+	 *
+	 * @return the cache, or {@code null} if the entities are not cached
+	 */
+	default ReferenceDataCache getCache() {
+		return null;
+	}
+
 	default T save(User currentUser, T entity) {
-		return getRepository().saveAndFlush(entity);
+		T saved = getRepository().saveAndFlush(entity);
+		evictFromCache(saved);
+		return saved;
 	}
 
 	default void delete(User currentUser, T entity) {
@@ -20,6 +31,14 @@ public interface CrudService<T extends AbstractEntity> {
 			throw new EntityNotFoundException();
 		}
 		getRepository().delete(entity);
+		evictFromCache(entity);
+	}
+
+	default void evictFromCache(T entity) {
+		ReferenceDataCache cache = getCache();
+		if (cache != null) {
+			cache.evict(entity);
+		}
 	}
 
 	default void delete(User currentUser, long id) {
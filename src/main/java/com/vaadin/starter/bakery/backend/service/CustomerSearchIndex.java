@@ -0,0 +1,317 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
+
+/**
+ * In-memory trigram index over the customer name and phone number of every
+ * order, used to resolve a storefront search filter to order ids without a
+ * {@code LIKE '%x%'} scan.
+ * <p>
+ * The index is built on first use and kept up to date from committed
+ * {@link OrderChangedEvent}s. Filters shorter than {@link #MIN_FILTER_LENGTH}
+ * have no trigrams and cannot be resolved by the index. They are matched by
+ * the database with {@link #toLikePattern(String)}, which follows the same
+ * rule: the lowercase name or phone number contains the lowercase filter.
+ */
+@Service
+public class CustomerSearchIndex implements HasLogger {
+
+	public static final int MIN_FILTER_LENGTH = 3;
+
+	// Separates the name from the phone number in the indexed text, never part of a resolved filter
+	private static final char FIELD_SEPARATOR = '\n';
+
+	/**
+	 * The ids of the orders whose text contains a trigram, sorted in an array
+	 * with spare room at the end. New orders get the highest ids, so most
+	 * additions append.
+	 */
+	private static final class Postings {
+
+		private long[] ids = new long[4];
+		private int size;
+
+		void add(long id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index >= 0) {
+				return;
+			}
+			index = -index - 1;
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			ids[index] = id;
+			size++;
+		}
+
+		void remove(long id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index >= 0) {
+				System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+				size--;
+			}
+		}
+	}
+
+	private final OrderRepository orderRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	// Trigram -> ids of the orders whose text contains it
+	private final Map<String, Postings> postings = new HashMap<>();
+	// Order id -> indexed text, used to drop stale postings and to filter out false positives
+	private final Map<Long, String> texts = new HashMap<>();
+	// Ids of the orders removed since the build started reading them, null when no build is running
+	private Set<Long> removedWhileBuilding;
+	private volatile boolean built;
+
+	/**
+	 * Creates a new {@code CustomerSearchIndex}.
+	 *
+	 * @param orderRepository the repository used to read the customers of orders
+	 */
+	@Autowired
+	public CustomerSearchIndex(OrderRepository orderRepository) {
+		this.orderRepository = orderRepository;
+	}
+
+	/**
+	 * Checks whether the given filter can be resolved by the index.
+	 *
+	 * @param filter the search filter
+	 * @return {@code true} if the filter is long enough to have trigrams
+	 */
+	public static boolean canResolve(String filter) {
+		return filter != null && normalize(filter).length() >= MIN_FILTER_LENGTH
+				&& filter.indexOf(FIELD_SEPARATOR) < 0;
+	}
+
+	/**
+	 * Converts a search filter to the pattern of a {@code LIKE} query with
+	 * {@code ESCAPE '\'}, matching a lowercase column that contains the
+	 * filter like the index does.
+	 *
+	 * @param filter the search filter
+	 * @return the lowercase pattern with the wildcards of the filter escaped
+	 */
+	public static String toLikePattern(String filter) {
+		String needle = normalize(filter);
+		StringBuilder pattern = new StringBuilder(needle.length() + 2).append('%');
+		for (int i = 0; i < needle.length(); i++) {
+			char c = needle.charAt(i);
+			if (c == '%' || c == '_' || c == '\\') {
+				pattern.append('\\');
+			}
+			pattern.append(c);
+		}
+		return pattern.append('%').toString();
+	}
+
+	/**
+	 * Finds the ids of all orders whose customer name or phone number contains
+	 * the given filter, ignoring case.
+	 *
+	 * @param filter the search filter, see {@link #canResolve(String)}
+	 * @return the matching order ids, in ascending order
+	 */
+	public List<Long> findOrderIds(String filter) {
+		if (!canResolve(filter)) {
+			throw new IllegalArgumentException("Filter cannot be resolved by the trigram index: " + filter);
+		}
+		String needle = normalize(filter);
+		ensureBuilt();
+
+		lock.readLock().lock();
+		try {
+			List<Postings> lists = new ArrayList<>();
+			for (String trigram : trigrams(needle)) {
+				Postings ids = postings.get(trigram);
+				if (ids == null) {
+					return Collections.emptyList();
+				}
+				lists.add(ids);
+			}
+			lists.sort(Comparator.comparingInt(ids -> ids.size));
+			// Walk the shortest list, seek each id in the others and verify the candidates left
+			Postings smallest = lists.get(0);
+			int[] starts = new int[lists.size()];
+			List<Long> result = new ArrayList<>();
+			candidates:
+			for (int i = 0; i < smallest.size; i++) {
+				long id = smallest.ids[i];
+				for (int list = 1; list < lists.size(); list++) {
+					Postings other = lists.get(list);
+					int index = Arrays.binarySearch(other.ids, starts[list], other.size, id);
+					if (index < 0) {
+						starts[list] = -index - 1;
+						continue candidates;
+					}
+					starts[list] = index + 1;
+				}
+				if (texts.get(id).contains(needle)) {
+					result.add(id);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Re-indexes the customer of the changed order once the change is
+	 * committed.
+	 *
+	 * @param event the order change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderChanged(OrderChangedEvent event) {
+		if (event.getOrderId() == null) {
+			return;
+		}
+		List<Object[]> rows = orderRepository.findCustomerSearchRows(event.getOrderId());
+		if (rows.isEmpty()) {
+			remove(event.getOrderId());
+		} else {
+			Object[] row = rows.get(0);
+			put(event.getOrderId(), (String) row[1], (String) row[2]);
+		}
+	}
+
+	/**
+	 * Adds or replaces the indexed customer of an order.
+	 *
+	 * @param orderId     the id of the order
+	 * @param fullName    the customer name
+	 * @param phoneNumber the customer phone number
+	 */
+	void put(Long orderId, String fullName, String phoneNumber) {
+		put(orderId, fullName, phoneNumber, true);
+	}
+
+	private void put(Long orderId, String fullName, String phoneNumber, boolean replace) {
+		String text = normalize(fullName) + FIELD_SEPARATOR + normalize(phoneNumber);
+		lock.writeLock().lock();
+		try {
+			if (!replace && (texts.containsKey(orderId) || removedWhileBuilding.contains(orderId))) {
+				return;
+			}
+			String old = texts.put(orderId, text);
+			if (old != null) {
+				if (old.equals(text)) {
+					return;
+				}
+				removePostings(orderId, old);
+			}
+			for (String trigram : trigrams(text)) {
+				postings.computeIfAbsent(trigram, k -> new Postings()).add(orderId);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes an order from the index.
+	 *
+	 * @param orderId the id of the order
+	 */
+	void remove(Long orderId) {
+		lock.writeLock().lock();
+		try {
+			if (removedWhileBuilding != null) {
+				removedWhileBuilding.add(orderId);
+			}
+			String old = texts.remove(orderId);
+			if (old != null) {
+				removePostings(orderId, old);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the index as built without loading anything, for tests.
+	 */
+	void markBuilt() {
+		built = true;
+	}
+
+	private void ensureBuilt() {
+		if (built) {
+			return;
+		}
+		synchronized (this) {
+			if (built) {
+				return;
+			}
+			long start = System.currentTimeMillis();
+			setRemovedWhileBuilding(new HashSet<>());
+			List<Object[]> rows;
+			try {
+				rows = orderRepository.findAllCustomerSearchRows();
+				for (Object[] row : rows) {
+					// Orders indexed or removed from an event are at least as recent as this load
+					put((Long) row[0], (String) row[1], (String) row[2], false);
+				}
+			} finally {
+				setRemovedWhileBuilding(null);
+			}
+			built = true;
+			getLogger().info("Indexed customers of {} orders ({} trigrams) in {} ms", rows.size(), postings.size(),
+					System.currentTimeMillis() - start);
+		}
+	}
+
+	private void setRemovedWhileBuilding(Set<Long> removed) {
+		lock.writeLock().lock();
+		try {
+			removedWhileBuilding = removed;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void removePostings(Long orderId, String text) {
+		for (String trigram : trigrams(text)) {
+			Postings ids = postings.get(trigram);
+			if (ids != null) {
+				ids.remove(orderId);
+				if (ids.size == 0) {
+					postings.remove(trigram);
+				}
+			}
+		}
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static Set<String> trigrams(String text) {
+		Set<String> result = new HashSet<>();
+		for (int i = 0; i + MIN_FILTER_LENGTH <= text.length(); i++) {
+			result.add(text.substring(i, i + MIN_FILTER_LENGTH));
+		}
+		return result;
+	}
+}
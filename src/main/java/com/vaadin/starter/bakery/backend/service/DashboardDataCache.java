@@ -0,0 +1,221 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.data.DashboardData;
+
+/**
+ * Application wide cache of {@link DashboardData} snapshots, keyed by month and
+ * year.
+ * <p>
+ * Concurrent misses for the same key share a single computation. Snapshots
+ * expire after a configurable time to live ({@code bakery.dashboard.cache-ttl})
+ * and are dropped as soon as an {@link OrderChangedEvent} is committed. The
+ * returned data is shared between all UIs and must not be modified.
+ */
+@Service
+public class DashboardDataCache implements HasLogger {
+
+	private static final class Entry {
+		private final CompletableFuture<DashboardData> data = new CompletableFuture<>();
+		private volatile long expiresAt;
+		private volatile boolean loaded;
+
+		boolean isExpired(long now) {
+			// Entries still loading never expire
+			return loaded && now - expiresAt >= 0;
+		}
+	}
+
+	private final OrderService orderService;
+	private final long ttlNanos;
+	private final ConcurrentMap<YearMonth, Entry> entries = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong rebuilds = new AtomicLong();
+	private final AtomicLong rebuildNanos = new AtomicLong();
+	private final AtomicLong generation = new AtomicLong();
+	private volatile long lastRebuildNanos;
+
+	/**
+	 * Creates a new {@code DashboardDataCache}.
+	 *
+	 * @param orderService the service computing the dashboard data
+	 * @param ttl          how long a snapshot may be served
+	 */
+	@Autowired
+	public DashboardDataCache(OrderService orderService,
+			@Value("${bakery.dashboard.cache-ttl:30s}") Duration ttl) {
+		this.orderService = orderService;
+		this.ttlNanos = ttl.toNanos();
+	}
+
+	/**
+	 * Gets the dashboard data for the given month, computing it if there is no
+	 * valid snapshot.
+	 *
+	 * @param month the month to retrieve data for
+	 * @param year  the year to retrieve data for
+	 * @return the shared dashboard data
+	 */
+	public DashboardData get(int month, int year) {
+		YearMonth key = YearMonth.of(year, month);
+		long now = System.nanoTime();
+		Entry entry = entries.get(key);
+		if (entry != null && !entry.isExpired(now)) {
+			hits.incrementAndGet();
+			return join(entry);
+		}
+
+		Entry created = new Entry();
+		Entry current = entries.compute(key, (k, old) -> old == null || old.isExpired(now) ? created : old);
+		if (current != created) {
+			// Another thread is already loading
+			hits.incrementAndGet();
+			return join(current);
+		}
+
+		misses.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			created.data.complete(orderService.getDashboardData(month, year));
+		} catch (RuntimeException e) {
+			entries.remove(key, created);
+			created.data.completeExceptionally(e);
+			throw e;
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			created.expiresAt = System.nanoTime() + ttlNanos;
+			created.loaded = true;
+			lastRebuildNanos = elapsed;
+			rebuilds.incrementAndGet();
+			rebuildNanos.addAndGet(elapsed);
+			getLogger().debug("Dashboard data for {} rebuilt in {} ms", key, elapsed / 1_000_000);
+		}
+		return join(created);
+	}
+
+	/**
+	 * Gets the dashboard data for the given month if a valid snapshot has been
+	 * loaded, without computing or waiting for it.
+	 *
+	 * @param month the month to retrieve data for
+	 * @param year  the year to retrieve data for
+	 * @return the shared dashboard data, or empty if it has to be loaded
+	 */
+	public Optional<DashboardData> getIfPresent(int month, int year) {
+		Entry entry = entries.get(YearMonth.of(year, month));
+		if (entry == null || !entry.loaded || entry.isExpired(System.nanoTime())
+				|| entry.data.isCompletedExceptionally()) {
+			misses.incrementAndGet();
+			return Optional.empty();
+		}
+		hits.incrementAndGet();
+		return Optional.of(entry.data.join());
+	}
+
+	/**
+	 * Gets the number of times the snapshots have been dropped, to be passed to
+	 * {@link #put(int, int, DashboardData, long)} by callers loading the data
+	 * themselves.
+	 *
+	 * @return the current generation of the cache
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Stores dashboard data loaded by the caller, unless a valid snapshot is
+	 * already cached or the snapshots have been dropped since the load started.
+	 *
+	 * @param month      the month of the data
+	 * @param year       the year of the data
+	 * @param data       the data, not to be modified afterwards
+	 * @param generation the {@link #getGeneration() generation} read before the
+	 *                   load started
+	 */
+	public void put(int month, int year, DashboardData data, long generation) {
+		long now = System.nanoTime();
+		Entry loaded = new Entry();
+		loaded.data.complete(data);
+		loaded.expiresAt = now + ttlNanos;
+		loaded.loaded = true;
+		// Checked while holding the lock of the key, so that a concurrent invalidation either sees the new entry or
+		// the entry sees the new generation
+		entries.compute(YearMonth.of(year, month), (key, old) -> this.generation.get() != generation
+				|| old != null && !old.isExpired(now) ? old : loaded);
+	}
+
+	/**
+	 * Drops all snapshots once an order change has been committed.
+	 *
+	 * @param event the order change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderChanged(OrderChangedEvent event) {
+		invalidateAll();
+	}
+
+	/**
+	 * Drops all snapshots. Loads in progress still complete for the threads
+	 * waiting for them, but are not served to later callers.
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the share of requests served without a computation of their own.
+	 *
+	 * @return the hit rate between 0 and 1, or 0 if there were no requests
+	 */
+	public double getHitRate() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	public Duration getLastRebuildDuration() {
+		return Duration.ofNanos(lastRebuildNanos);
+	}
+
+	public Duration getAverageRebuildDuration() {
+		long count = rebuilds.get();
+		return count == 0 ? Duration.ZERO : Duration.ofNanos(rebuildNanos.get() / count);
+	}
+
+	private DashboardData join(Entry entry) {
+		try {
+			return entry.data.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads the sections of the dashboard on a bounded pool of background threads,
+ * so that the views can be shown without holding the session lock while the
+ * data is read.
+ * <p>
+ * The pool has {@code bakery.dashboard.loader-threads} threads and queues up
+ * to {@code bakery.dashboard.loader-queue} sections. When the queue is full, a
+ * section is rejected and submitted again after
+ * {@code bakery.dashboard.loader-retry-delay}. It is never loaded by the
+ * calling thread, which usually holds the session lock of a UI.
+ */
+@Service
+public class DashboardLoader {
+
+	private final ThreadPoolExecutor executor;
+	private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "dashboard-loader-retry");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final Duration retryDelay;
+	private final LongAdder rejectedCount = new LongAdder();
+
+	/**
+	 * Creates a new {@code DashboardLoader}.
+	 *
+	 * @param threads    the number of threads loading sections
+	 * @param queueSize  the maximum number of sections waiting for a thread
+	 * @param retryDelay how long to wait before submitting a rejected section
+	 *                   again
+	 */
+	@Autowired
+	public DashboardLoader(@Value("${bakery.dashboard.loader-threads:4}") int threads,
+			@Value("${bakery.dashboard.loader-queue:64}") int queueSize,
+			@Value("${bakery.dashboard.loader-retry-delay:200ms}") Duration retryDelay) {
+		this.retryDelay = retryDelay;
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+				runnable -> {
+					Thread thread = new Thread(runnable, "dashboard-loader-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Loads a section in the background.
+	 *
+	 * @param <T>     the type of the section data
+	 * @param section the function reading the section data
+	 * @return the future completed with the section data
+	 */
+	public <T> CompletableFuture<T> load(Supplier<T> section) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		submit(section, future);
+		return future;
+	}
+
+	private <T> void submit(Supplier<T> section, CompletableFuture<T> future) {
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(section.get());
+				} catch (RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (executor.isShutdown()) {
+				future.completeExceptionally(e);
+				return;
+			}
+			rejectedCount.increment();
+			retryExecutor.schedule(() -> submit(section, future), retryDelay.toNanos(), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Gets the number of sections waiting for a thread.
+	 *
+	 * @return the queue length
+	 */
+	public int getQueuedCount() {
+		return executor.getQueue().size();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * Gets how often a section was rejected because the queue was full.
+	 *
+	 * @return the number of rejections
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		retryExecutor.shutdownNow();
+		executor.shutdownNow();
+	}
+}
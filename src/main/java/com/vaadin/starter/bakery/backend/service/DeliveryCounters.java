@@ -0,0 +1,402 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.data.DeliveryStats;
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
+
+/**
+ * In-memory count of orders per state and due date, from which the
+ * {@link DeliveryStats} of the dashboard are read without querying the
+ * database.
+ * <p>
+ * The counters are loaded from the database once the application is ready and
+ * then kept up to date with the {@link OrderEvent}s of the
+ * {@link OrderEventBus}. Orders are counted per day from the day of the last
+ * load on, earlier ones only in the totals per state. Every
+ * {@code bakery.dashboard.reconcile-interval} the counters are compared with
+ * the database, differences are logged and corrected. They are loaded again
+ * whenever events have been lost.
+ * <p>
+ * The database is read on the thread applying the events, and the counters are
+ * compared with it once the events claimed in the event buffer by the end of
+ * the read have been applied. The database may or may not reflect an event
+ * claimed during the read, so it is read again when that happens. If it keeps
+ * happening, the counters such an event moved an order between are left out
+ * of the comparison until the next one.
+ */
+@Service
+public class DeliveryCounters implements HasLogger {
+
+	/**
+	 * The counts read from the database, to compare with once the events up to
+	 * the position at the end of the read have been applied.
+	 */
+	private static final class DatabaseCounts {
+		private final long readFrom;
+		private final LocalDate today;
+		private final Map<LocalDate, long[]> perDay = new HashMap<>();
+		private final long[] totals = new long[STATES];
+		private final CompletableFuture<Void> compared;
+		private long position;
+		// The events claimed while the database was read, added on the subscriber thread
+		private final List<OrderEvent> unsettled = new ArrayList<>();
+
+		private DatabaseCounts(long readFrom, LocalDate today, CompletableFuture<Void> compared) {
+			this.readFrom = readFrom;
+			this.today = today;
+			this.compared = compared;
+		}
+
+		private boolean isUnsettled(long sequence) {
+			return sequence > readFrom && sequence <= position;
+		}
+	}
+
+	private static final int STATES = OrderState.values().length;
+	private static final int MAX_READS = 3;
+	private static final OrderState[] NOT_AVAILABLE_STATES = OrderService.notAvailableStates
+			.toArray(new OrderState[0]);
+
+	private final OrderRepository orderRepository;
+	private final OrderEventBus.Subscription busSubscription;
+	private final Duration reconcileInterval;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "delivery-counters");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ConcurrentMap<LocalDate, LongAdder[]> perDay = new ConcurrentHashMap<>();
+	private final LongAdder[] totals = newCounters();
+	private volatile LocalDate countedFrom = LocalDate.MAX;
+	private volatile boolean loaded;
+	// Only replaced on the subscriber thread
+	private volatile DatabaseCounts pendingCounts;
+
+	private final AtomicLong reconciliations = new AtomicLong();
+	private final AtomicLong driftCount = new AtomicLong();
+
+	/**
+	 * Creates a new {@code DeliveryCounters}.
+	 *
+	 * @param orderRepository   the repository the counters are loaded from
+	 * @param eventBus          the bus delivering the committed order events
+	 * @param reconcileInterval how often to compare the counters with the
+	 *                          database
+	 */
+	@Autowired
+	public DeliveryCounters(OrderRepository orderRepository, OrderEventBus eventBus,
+			@Value("${bakery.dashboard.reconcile-interval:5m}") Duration reconcileInterval) {
+		this.orderRepository = orderRepository;
+		this.reconcileInterval = reconcileInterval;
+		// A buffer of its own, so that a stalled push listener does not force a reload
+		this.busSubscription = eventBus.subscribe("delivery-counters", new OrderEventConsumer() {
+			@Override
+			public void accept(List<OrderEvent> events) {
+				applyBatch(events);
+			}
+
+			@Override
+			public void eventsLost(long count) {
+				resync();
+			}
+		}, true);
+	}
+
+	/**
+	 * Loads the counters once the demo data has been generated and starts the
+	 * periodic reconciliation.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		resync().join();
+		loaded = true;
+		long intervalNanos = reconcileInterval.toNanos();
+		executor.scheduleWithFixedDelay(this::resyncPeriodically, intervalNanos, intervalNanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Tells whether the counters have been loaded and can be read.
+	 *
+	 * @return {@code true} once the application is ready
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Reads the delivery statistics of the given day from the counters.
+	 *
+	 * @param today the day to read the statistics for, not before the last load
+	 * @return the delivery statistics
+	 */
+	public DeliveryStats getDeliveryStats(LocalDate today) {
+		LongAdder[] dueToday = perDay.get(today);
+		LongAdder[] dueTomorrow = perDay.get(today.plusDays(1));
+		DeliveryStats stats = new DeliveryStats();
+		stats.setDueToday(sum(dueToday, OrderState.values()));
+		stats.setDueTomorrow(sum(dueTomorrow, OrderState.values()));
+		stats.setDeliveredToday(sum(dueToday, OrderState.DELIVERED));
+		stats.setNotAvailableToday(sum(dueToday, NOT_AVAILABLE_STATES));
+		stats.setNewOrders(sum(totals, OrderState.NEW));
+		return stats;
+	}
+
+	/**
+	 * Gets how often the counters were compared with the database.
+	 *
+	 * @return the number of reconciliations, including the initial load
+	 */
+	public long getReconciliationCount() {
+		return reconciliations.get();
+	}
+
+	/**
+	 * Gets how often the counters differed from the database when they were
+	 * compared.
+	 *
+	 * @return the number of reconciliations that found a difference
+	 */
+	public long getDriftCount() {
+		return driftCount.get();
+	}
+
+	/**
+	 * Moves an order from the counters of its previous state and due date to
+	 * those of its current ones.
+	 *
+	 * @param event the order event
+	 */
+	void apply(OrderEvent event) {
+		add(event.getPreviousState(), event.getPreviousDueDate(), -1);
+		add(event.getState(), event.getDueDate(), 1);
+	}
+
+	/**
+	 * Applies a batch of events, keeps those claimed while the database was
+	 * read for the pending comparison and compares once caught up.
+	 */
+	private void applyBatch(List<OrderEvent> events) {
+		DatabaseCounts counts = pendingCounts;
+		// The read position is already past the batch
+		long sequence = busSubscription.getReadPosition() - events.size();
+		for (OrderEvent event : events) {
+			sequence++;
+			apply(event);
+			if (counts != null && counts.isUnsettled(sequence)) {
+				counts.unsettled.add(event);
+			}
+		}
+		reconcileIfCaughtUp();
+	}
+
+	private void add(OrderState state, LocalDate dueDate, int delta) {
+		if (state == null || dueDate == null) {
+			return;
+		}
+		totals[state.ordinal()].add(delta);
+		if (!dueDate.isBefore(countedFrom)) {
+			perDay.computeIfAbsent(dueDate, date -> newCounters())[state.ordinal()].add(delta);
+		}
+	}
+
+	private void resyncPeriodically() {
+		try {
+			resync().join();
+		} catch (RuntimeException e) {
+			getLogger().warn("Delivery counter reconciliation failed", e);
+		}
+	}
+
+	/**
+	 * Reads the counts from the database on the thread applying the events,
+	 * and compares the counters with them once the events claimed by the end
+	 * of the read have been applied. The database is read again, up to
+	 * {@value #MAX_READS} times in all, while events are claimed during the
+	 * read.
+	 *
+	 * @return the future completed once the counters have been compared
+	 */
+	CompletableFuture<Void> resync() {
+		CompletableFuture<Void> compared = new CompletableFuture<>();
+		busSubscription.execute(() -> {
+			DatabaseCounts counts = read(compared);
+			for (int reads = 1; reads < MAX_READS && counts.position != counts.readFrom; reads++) {
+				counts = read(compared);
+			}
+			DatabaseCounts replaced = pendingCounts;
+			if (replaced != null) {
+				compared.whenComplete((result, error) -> replaced.compared.complete(null));
+			}
+			pendingCounts = counts;
+			reconcileIfCaughtUp();
+		}).whenComplete((result, error) -> {
+			if (error != null) {
+				compared.completeExceptionally(error);
+			}
+		});
+		return compared;
+	}
+
+	private DatabaseCounts read(CompletableFuture<Void> compared) {
+		DatabaseCounts counts = new DatabaseCounts(busSubscription.getPosition(), LocalDate.now(), compared);
+		for (Object[] row : countPerDueDateAndState(counts.today)) {
+			long[] dayCounts = counts.perDay.computeIfAbsent((LocalDate) row[0], date -> new long[STATES]);
+			dayCounts[((OrderState) row[1]).ordinal()] = ((Number) row[2]).longValue();
+		}
+		for (Object[] row : countPerState()) {
+			counts.totals[((OrderState) row[0]).ordinal()] = ((Number) row[1]).longValue();
+		}
+		// Events claimed after this were committed after the read
+		counts.position = busSubscription.getPosition();
+		return counts;
+	}
+
+	private void reconcileIfCaughtUp() {
+		DatabaseCounts counts = pendingCounts;
+		if (counts != null && busSubscription.getReadPosition() >= counts.position) {
+			pendingCounts = null;
+			reconcile(counts);
+			counts.compared.complete(null);
+		}
+	}
+
+	/**
+	 * Compares the counters with the database and corrects them. Counters of
+	 * days before the day of the counts are dropped.
+	 * <p>
+	 * The counters are corrected by adding the difference instead of being
+	 * replaced, so that events applied meanwhile are kept. The counters an
+	 * unsettled event moved an order between are not compared.
+	 *
+	 * @param counts the counts read from the database
+	 */
+	private synchronized void reconcile(DatabaseCounts counts) {
+		LocalDate today = counts.today;
+		Map<LocalDate, long[]> expectedPerDay = counts.perDay;
+		long[] expectedTotals = counts.totals;
+		Map<LocalDate, boolean[]> unsettledPerDay = new HashMap<>();
+		boolean[] unsettledTotals = new boolean[STATES];
+		for (OrderEvent event : counts.unsettled) {
+			markUnsettled(event.getPreviousState(), event.getPreviousDueDate(), unsettledPerDay, unsettledTotals);
+			markUnsettled(event.getState(), event.getDueDate(), unsettledPerDay, unsettledTotals);
+		}
+
+		countedFrom = today;
+		perDay.keySet().removeIf(date -> date.isBefore(today));
+		Set<LocalDate> days = new HashSet<>(perDay.keySet());
+		days.addAll(expectedPerDay.keySet());
+		List<String> drift = new ArrayList<>();
+		for (LocalDate day : days) {
+			correct(perDay.computeIfAbsent(day, date -> newCounters()),
+					expectedPerDay.getOrDefault(day, new long[STATES]),
+					unsettledPerDay.getOrDefault(day, new boolean[STATES]), day.toString(), drift);
+		}
+		correct(totals, expectedTotals, unsettledTotals, "total", drift);
+
+		reconciliations.incrementAndGet();
+		if (!drift.isEmpty() && loaded) {
+			driftCount.incrementAndGet();
+			getLogger().warn("Delivery counters differed from the database and were corrected: {}", drift);
+		}
+	}
+
+	private static void markUnsettled(OrderState state, LocalDate dueDate, Map<LocalDate, boolean[]> perDay,
+			boolean[] totals) {
+		if (state == null || dueDate == null) {
+			return;
+		}
+		totals[state.ordinal()] = true;
+		perDay.computeIfAbsent(dueDate, date -> new boolean[STATES])[state.ordinal()] = true;
+	}
+
+	private static void correct(LongAdder[] counters, long[] expected, boolean[] unsettled, String label,
+			List<String> drift) {
+		for (OrderState state : OrderState.values()) {
+			if (unsettled[state.ordinal()]) {
+				continue;
+			}
+			LongAdder counter = counters[state.ordinal()];
+			long difference = expected[state.ordinal()] - counter.sum();
+			if (difference != 0) {
+				counter.add(difference);
+				drift.add(label + " " + state + (difference > 0 ? " +" : " ") + difference);
+			}
+		}
+	}
+
+	/**
+	 * Counts the orders per due date and state from the given day on.
+	 *
+	 * @param from the first due date to count
+	 * @return rows of due date, state and count
+	 */
+	List<Object[]> countPerDueDateAndState(LocalDate from) {
+		return orderRepository.countPerDueDateAndStateFrom(from);
+	}
+
+	/**
+	 * Counts all orders per state.
+	 *
+	 * @return rows of state and count
+	 */
+	List<Object[]> countPerState() {
+		return orderRepository.countPerState();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		busSubscription.remove();
+		executor.shutdownNow();
+		DatabaseCounts counts = pendingCounts;
+		if (counts != null) {
+			counts.compared.cancel(false);
+		}
+	}
+
+	private static LongAdder[] newCounters() {
+		LongAdder[] counters = new LongAdder[STATES];
+		for (int i = 0; i < STATES; i++) {
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}
+
+	private static int sum(LongAdder[] counters, OrderState... states) {
+		if (counters == null) {
+			return 0;
+		}
+		long sum = 0;
+		for (OrderState state : states) {
+			sum += counters[state.ordinal()].sum();
+		}
+		return (int) sum;
+	}
+}
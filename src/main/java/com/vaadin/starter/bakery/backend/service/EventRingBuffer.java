@@ -0,0 +1,153 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer ring buffer read by any number of independent
+ * consumers, each with a cursor of its own.
+ * <p>
+ * Producers claim a sequence number with a compare-and-set and never wait: an
+ * event that would overwrite a slot not yet read by every consumer is dropped
+ * and counted instead. A slot is visible to consumers once its sequence number
+ * has been written to {@code published}.
+ */
+final class EventRingBuffer<E> {
+
+	/**
+	 * The position of one consumer: the sequence number of the last event it
+	 * has read.
+	 */
+	static final class Cursor {
+		private final AtomicLong sequence;
+
+		private Cursor(long sequence) {
+			this.sequence = new AtomicLong(sequence);
+		}
+
+		long get() {
+			return sequence.get();
+		}
+	}
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<E> entries;
+	private final AtomicLongArray published;
+	private final AtomicLong claimed = new AtomicLong(-1);
+	private final List<Cursor> cursors = new CopyOnWriteArrayList<>();
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * Creates a new buffer.
+	 *
+	 * @param minimumCapacity the minimum number of events the buffer holds,
+	 *                        rounded up to a power of two
+	 */
+	EventRingBuffer(int minimumCapacity) {
+		if (minimumCapacity < 1 || minimumCapacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity " + minimumCapacity);
+		}
+		capacity = minimumCapacity == 1 ? 1 : Integer.highestOneBit(minimumCapacity - 1) << 1;
+		mask = capacity - 1;
+		entries = new AtomicReferenceArray<>(capacity);
+		published = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			published.set(i, -1);
+		}
+	}
+
+	/**
+	 * Adds an event if there is room for it.
+	 *
+	 * @param event the event
+	 * @return {@code false} if the buffer was full and the event was dropped
+	 */
+	boolean offer(E event) {
+		long sequence;
+		do {
+			long current = claimed.get();
+			sequence = current + 1;
+			if (sequence - capacity > slowestCursor(current)) {
+				dropped.increment();
+				return false;
+			}
+		} while (!claimed.compareAndSet(sequence - 1, sequence));
+		int index = (int) sequence & mask;
+		entries.lazySet(index, event);
+		published.set(index, sequence);
+		return true;
+	}
+
+	/**
+	 * Adds a consumer that reads the events offered from now on.
+	 *
+	 * @return the cursor of the consumer
+	 */
+	Cursor addCursor() {
+		Cursor cursor = new Cursor(claimed.get());
+		cursors.add(cursor);
+		// Events claimed meanwhile may already be overwritten, start after them
+		cursor.sequence.set(claimed.get());
+		return cursor;
+	}
+
+	void removeCursor(Cursor cursor) {
+		cursors.remove(cursor);
+	}
+
+	/**
+	 * Moves the published events following the cursor to the batch and
+	 * advances the cursor past them.
+	 *
+	 * @param cursor   the cursor of the consumer, used by one thread only
+	 * @param batch    the list to add the events to
+	 * @param maxBatch the maximum number of events to move
+	 * @return the number of events moved
+	 */
+	int drainTo(Cursor cursor, List<E> batch, int maxBatch) {
+		long next = cursor.sequence.get() + 1;
+		int count = 0;
+		while (count < maxBatch) {
+			int index = (int) (next + count) & mask;
+			if (published.get(index) != next + count) {
+				break;
+			}
+			batch.add(entries.get(index));
+			count++;
+		}
+		if (count > 0) {
+			cursor.sequence.set(next + count - 1);
+		}
+		return count;
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the sequence number of the last claimed event.
+	 *
+	 * @return the sequence number, -1 before the first event
+	 */
+	long getClaimed() {
+		return claimed.get();
+	}
+
+	long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	private long slowestCursor(long claimed) {
+		long slowest = claimed;
+		for (Cursor cursor : cursors) {
+			slowest = Math.min(slowest, cursor.sequence.get());
+		}
+		return slowest;
+	}
+}
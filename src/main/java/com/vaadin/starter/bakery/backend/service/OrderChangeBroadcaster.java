@@ -0,0 +1,160 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.starter.bakery.app.HasLogger;
+
+/**
+ * Passes the order changes delivered by the {@link OrderEventBus} on to
+ * registered listeners, such as the open storefront views.
+ * <p>
+ * Changes are coalesced per listener: the first change starts a delay
+ * ({@code bakery.storefront.change-delay}) and everything committed meanwhile
+ * is delivered as one {@link OrderChanges} notice. Listeners are called on a
+ * background thread and have to hand the work over themselves, e.g. with
+ * {@code UI.access}. Comments do not change the rows and are not passed on.
+ */
+@Service
+public class OrderChangeBroadcaster implements HasLogger {
+
+	private final long delayNanos;
+	private final OrderEventBus.Subscription busSubscription;
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "order-change-broadcaster");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Creates a new {@code OrderChangeBroadcaster}.
+	 *
+	 * @param eventBus the bus delivering the committed order events
+	 * @param delay    how long to collect changes before notifying a listener
+	 */
+	@Autowired
+	public OrderChangeBroadcaster(OrderEventBus eventBus,
+			@Value("${bakery.storefront.change-delay:300ms}") Duration delay) {
+		this.delayNanos = delay.toNanos();
+		this.busSubscription = eventBus.subscribe("broadcaster", new OrderEventConsumer() {
+			@Override
+			public void accept(List<OrderEvent> events) {
+				onOrderEvents(events);
+			}
+
+			@Override
+			public void eventsLost(long count) {
+				subscriptions.forEach(Subscription::addIncomplete);
+			}
+		});
+	}
+
+	/**
+	 * Registers a listener for committed order changes.
+	 *
+	 * @param listener the listener, called on a background thread
+	 * @return the registration to remove the listener with
+	 */
+	public Registration register(Consumer<OrderChanges> listener) {
+		Subscription subscription = new Subscription(listener);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Queues committed order events for all listeners.
+	 *
+	 * @param events the order events
+	 */
+	private void onOrderEvents(List<OrderEvent> events) {
+		for (OrderEvent event : events) {
+			if (event.getType() == OrderEvent.Type.COMMENTED) {
+				continue;
+			}
+			// Listings are sorted by due date and time, a changed one moves the order
+			boolean structural = event.getType() == OrderEvent.Type.CREATED
+					|| event.getType() == OrderEvent.Type.DELETED
+					|| !Objects.equals(event.getPreviousDueDate(), event.getDueDate())
+					|| !Objects.equals(event.getPreviousDueTime(), event.getDueTime());
+			subscriptions.forEach(subscription -> subscription.add(event.getOrderId(), structural,
+					event.isCustomerChanged()));
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		busSubscription.remove();
+		executor.shutdownNow();
+	}
+
+	private final class Subscription implements Registration {
+
+		private final Consumer<OrderChanges> listener;
+		private Set<Long> orderIds = new LinkedHashSet<>();
+		private boolean structural;
+		private boolean customerChanged;
+		private boolean incomplete;
+		private boolean scheduled;
+
+		private Subscription(Consumer<OrderChanges> listener) {
+			this.listener = listener;
+		}
+
+		private synchronized void add(Long orderId, boolean structural, boolean customerChanged) {
+			orderIds.add(orderId);
+			this.structural |= structural;
+			this.customerChanged |= customerChanged;
+			schedule();
+		}
+
+		private synchronized void addIncomplete() {
+			incomplete = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (!scheduled) {
+				scheduled = true;
+				executor.schedule(this::deliver, delayNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		private void deliver() {
+			OrderChanges changes;
+			synchronized (this) {
+				changes = new OrderChanges(orderIds, structural, customerChanged, incomplete);
+				orderIds = new LinkedHashSet<>();
+				structural = false;
+				customerChanged = false;
+				incomplete = false;
+				scheduled = false;
+			}
+			try {
+				listener.accept(changes);
+			} catch (RuntimeException e) {
+				getLogger().warn("Unable to deliver order changes", e);
+			}
+		}
+
+		@Override
+		public void remove() {
+			subscriptions.remove(this);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import com.vaadin.starter.bakery.backend.data.OrderSnapshot;
+
+/**
+ * Published by {@link OrderService} whenever an order is saved or deleted.
+ * Listeners that depend on committed data should use
+ * {@code @TransactionalEventListener} to receive it after the commit.
+ */
+public class OrderChangedEvent {
+
+	private final Long orderId;
+	private final OrderSnapshot before;
+	private final OrderSnapshot after;
+
+	public OrderChangedEvent(Long orderId, OrderSnapshot before, OrderSnapshot after) {
+		this.orderId = orderId;
+		this.before = before;
+		this.after = after;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	/**
+	 * Gets the rollup figures of the order before the change.
+	 *
+	 * @return the snapshot, {@link OrderSnapshot#EMPTY} for a new order
+	 */
+	public OrderSnapshot getBefore() {
+		return before;
+	}
+
+	/**
+	 * Gets the rollup figures of the order after the change.
+	 *
+	 * @return the snapshot, {@link OrderSnapshot#EMPTY} for a deleted order
+	 */
+	public OrderSnapshot getAfter() {
+		return after;
+	}
+}
@@ -0,0 +1,66 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The orders changed since the previous notice of an
+ * {@link OrderChangeBroadcaster} listener.
+ */
+public final class OrderChanges {
+
+	private final Set<Long> orderIds;
+	private final boolean structural;
+	private final boolean customerChanged;
+	private final boolean incomplete;
+
+	OrderChanges(Set<Long> orderIds, boolean structural, boolean customerChanged, boolean incomplete) {
+		this.orderIds = Collections.unmodifiableSet(new LinkedHashSet<>(orderIds));
+		this.structural = structural;
+		this.customerChanged = customerChanged;
+		this.incomplete = incomplete;
+	}
+
+	/**
+	 * Gets the ids of the changed orders, including created and deleted ones.
+	 *
+	 * @return the order ids
+	 */
+	public Set<Long> getOrderIds() {
+		return orderIds;
+	}
+
+	/**
+	 * Tells whether any order was created, deleted or moved to another due
+	 * date or time, so that listings may have to be fetched again instead of
+	 * refreshing the changed rows in place.
+	 *
+	 * @return {@code true} if the changes affect the rows of a listing
+	 */
+	public boolean isStructural() {
+		return structural;
+	}
+
+	/**
+	 * Tells whether the customer name or phone number of any order changed,
+	 * so that listings filtered by customer may have to be fetched again.
+	 *
+	 * @return {@code true} if the changes may affect the rows of a filtered
+	 *         listing
+	 */
+	public boolean isCustomerChanged() {
+		return customerChanged;
+	}
+
+	/**
+	 * Tells whether order events were dropped because the listener fell behind,
+	 * so that the changed orders are not all known and anything shown may be
+	 * out of date.
+	 *
+	 * @return {@code true} if changes may be missing from this notice
+	 */
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+}
@@ -0,0 +1,101 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+/**
+ * A write to an order, published by {@link OrderService} and delivered to the
+ * subscribers of the {@link OrderEventBus} after the transaction has
+ * committed.
+ * <p>
+ * The previous state, due date and due time are those stored before the
+ * write, {@code null} for created orders. For deleted orders the current ones
+ * are {@code null}.
+ */
+public final class OrderEvent {
+
+	public enum Type {
+		CREATED, UPDATED, STATE_CHANGED, COMMENTED, DELETED
+	}
+
+	private final Type type;
+	private final Long orderId;
+	private final OrderState previousState;
+	private final OrderState state;
+	private final LocalDate previousDueDate;
+	private final LocalDate dueDate;
+	private final LocalTime previousDueTime;
+	private final LocalTime dueTime;
+	private final boolean customerChanged;
+
+	/**
+	 * Creates an event for a write that changes neither the due time nor the
+	 * customer of the order.
+	 */
+	public OrderEvent(Type type, Long orderId, OrderState previousState, OrderState state, LocalDate previousDueDate,
+			LocalDate dueDate) {
+		this(type, orderId, previousState, state, previousDueDate, dueDate, null, null, false);
+	}
+
+	public OrderEvent(Type type, Long orderId, OrderState previousState, OrderState state, LocalDate previousDueDate,
+			LocalDate dueDate, LocalTime previousDueTime, LocalTime dueTime, boolean customerChanged) {
+		this.type = type;
+		this.orderId = orderId;
+		this.previousState = previousState;
+		this.state = state;
+		this.previousDueDate = previousDueDate;
+		this.dueDate = dueDate;
+		this.previousDueTime = previousDueTime;
+		this.dueTime = dueTime;
+		this.customerChanged = customerChanged;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public OrderState getPreviousState() {
+		return previousState;
+	}
+
+	public OrderState getState() {
+		return state;
+	}
+
+	public LocalDate getPreviousDueDate() {
+		return previousDueDate;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public LocalTime getPreviousDueTime() {
+		return previousDueTime;
+	}
+
+	public LocalTime getDueTime() {
+		return dueTime;
+	}
+
+	/**
+	 * Tells whether the name or phone number of the customer, which the
+	 * storefront searches orders by, was changed.
+	 *
+	 * @return {@code true} if the customer was changed
+	 */
+	public boolean isCustomerChanged() {
+		return customerChanged;
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + orderId;
+	}
+}
@@ -0,0 +1,386 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.starter.bakery.app.HasLogger;
+
+/**
+ * Delivers {@link OrderEvent}s to subscribers asynchronously once the
+ * transaction that published them has committed.
+ * <p>
+ * Committed events are put in a bounded lock-free {@link EventRingBuffer}
+ * ({@code bakery.events.buffer-size}), which never makes the committing thread
+ * wait: when a subscriber falls so far behind that the buffer is full, new
+ * events are dropped and counted, and the subscribers of the buffer are told
+ * about the loss with {@link OrderEventConsumer#eventsLost(long)}. Each
+ * subscriber reads its buffer on a thread of its own, in batches of up to
+ * {@code bakery.events.max-batch} events.
+ * <p>
+ * Subscribers share one buffer by default, so a single slow subscriber makes
+ * the events be dropped for all of them. Subscribers that must not lose events
+ * to others, like {@link DeliveryCounters}, subscribe with a buffer of their
+ * own, which only they can fill up.
+ * <p>
+ * The published and dropped counts and the lag of every subscriber are logged
+ * every {@code bakery.events.metrics-interval} while events are published.
+ */
+@Service
+public class OrderEventBus implements HasLogger {
+
+	private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final int bufferSize;
+	private final int maxBatch;
+	private final Duration metricsInterval;
+	private final EventRingBuffer<OrderEvent> sharedBuffer;
+	private final List<EventRingBuffer<OrderEvent>> buffers = new CopyOnWriteArrayList<>();
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+	private final AtomicLong published = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	private final ScheduledExecutorService metricsExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "order-events-metrics");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private long lastLoggedPublished;
+
+	/**
+	 * Creates a new {@code OrderEventBus}.
+	 *
+	 * @param bufferSize      the minimum number of events buffered for slow
+	 *                        subscribers, per buffer
+	 * @param maxBatch        the maximum number of events passed to a subscriber
+	 *                        at once
+	 * @param metricsInterval how often to log the metrics of the bus
+	 */
+	@Autowired
+	public OrderEventBus(@Value("${bakery.events.buffer-size:4096}") int bufferSize,
+			@Value("${bakery.events.max-batch:256}") int maxBatch,
+			@Value("${bakery.events.metrics-interval:1m}") Duration metricsInterval) {
+		this.bufferSize = bufferSize;
+		this.maxBatch = maxBatch;
+		this.metricsInterval = metricsInterval;
+		this.sharedBuffer = new EventRingBuffer<>(bufferSize);
+		buffers.add(sharedBuffer);
+	}
+
+	/**
+	 * Starts logging the metrics of the bus.
+	 */
+	@PostConstruct
+	void startMetricsLog() {
+		long intervalNanos = metricsInterval.toNanos();
+		metricsExecutor.scheduleWithFixedDelay(this::logMetrics, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Puts a committed event in every buffer.
+	 *
+	 * @param event the event
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderEvent(OrderEvent event) {
+		published.incrementAndGet();
+		for (EventRingBuffer<OrderEvent> buffer : buffers) {
+			if (!buffer.offer(event)) {
+				dropped.increment();
+			}
+		}
+	}
+
+	/**
+	 * Subscribes to the events committed from now on, reading them from the
+	 * buffer shared with the other subscribers.
+	 *
+	 * @param name     the name of the subscriber, used for its thread and in logs
+	 * @param consumer the consumer of the events
+	 * @return the subscription, to read its metrics and to unsubscribe with
+	 */
+	public Subscription subscribe(String name, OrderEventConsumer consumer) {
+		return subscribe(name, consumer, false);
+	}
+
+	/**
+	 * Subscribes to the events committed from now on.
+	 *
+	 * @param name      the name of the subscriber, used for its thread and in
+	 *                  logs
+	 * @param consumer  the consumer of the events
+	 * @param ownBuffer {@code true} to read the events from a buffer of its own,
+	 *                  so that other subscribers falling behind do not make this
+	 *                  one lose events
+	 * @return the subscription, to read its metrics and to unsubscribe with
+	 */
+	public Subscription subscribe(String name, OrderEventConsumer consumer, boolean ownBuffer) {
+		EventRingBuffer<OrderEvent> buffer = sharedBuffer;
+		if (ownBuffer) {
+			buffer = new EventRingBuffer<>(bufferSize);
+			buffers.add(buffer);
+		}
+		Subscription subscription = new Subscription(name, consumer, buffer, ownBuffer);
+		subscriptions.add(subscription);
+		subscription.thread.start();
+		return subscription;
+	}
+
+	/**
+	 * Gets the number of events each buffer holds.
+	 *
+	 * @return the capacity of a buffer
+	 */
+	public int getCapacity() {
+		return sharedBuffer.getCapacity();
+	}
+
+	/**
+	 * Gets the number of events committed since the start, including dropped
+	 * ones.
+	 *
+	 * @return the number of events
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/**
+	 * Gets the number of times an event was dropped because a buffer was full.
+	 *
+	 * @return the number of events, counted once per buffer
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Logs the published and dropped counts and the metrics of every
+	 * subscriber, unless no event was published since the last time.
+	 */
+	synchronized void logMetrics() {
+		long publishedCount = getPublishedCount();
+		if (publishedCount == lastLoggedPublished) {
+			return;
+		}
+		lastLoggedPublished = publishedCount;
+		StringJoiner subscribers = new StringJoiner(", ");
+		for (Subscription subscription : subscriptions) {
+			subscribers.add(subscription.getName() + (subscription.ownBuffer ? " (own buffer)" : "") + ": lag "
+					+ subscription.getLag() + ", delivered " + subscription.getDeliveredCount() + " in "
+					+ subscription.getBatchCount() + " batches, largest " + subscription.getLargestBatch()
+					+ ", dropped " + subscription.getDroppedCount());
+		}
+		getLogger().info("Order events: {} published, {} dropped, buffer capacity {}; {}", publishedCount,
+				getDroppedCount(), getCapacity(), subscribers);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		metricsExecutor.shutdownNow();
+		subscriptions.forEach(Subscription::remove);
+	}
+
+	/**
+	 * A subscriber of the bus with its delivery metrics.
+	 * <p>
+	 * A subscriber that compares its state with the database can do so at a
+	 * known position in its buffer: it reads the database on its own thread
+	 * with {@link #execute(Runnable)}, after taking the
+	 * {@link #getPosition() position} of the last committed event, and
+	 * compares once its {@link #getReadPosition() read position} has caught up
+	 * with it.
+	 */
+	public final class Subscription implements Registration {
+
+		private final class Task {
+			private final Runnable runnable;
+			private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+			private Task(Runnable runnable) {
+				this.runnable = runnable;
+			}
+		}
+
+		private final String name;
+		private final OrderEventConsumer consumer;
+		private final EventRingBuffer<OrderEvent> buffer;
+		private final boolean ownBuffer;
+		private final EventRingBuffer.Cursor cursor;
+		private final Thread thread;
+		private final AtomicLong delivered = new AtomicLong();
+		private final AtomicLong batches = new AtomicLong();
+		private volatile int largestBatch;
+		private volatile boolean running = true;
+		private final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+		private Subscription(String name, OrderEventConsumer consumer, EventRingBuffer<OrderEvent> buffer,
+				boolean ownBuffer) {
+			this.name = name;
+			this.consumer = consumer;
+			this.buffer = buffer;
+			this.ownBuffer = ownBuffer;
+			this.cursor = buffer.addCursor();
+			this.thread = new Thread(this::run, "order-events-" + name);
+			thread.setDaemon(true);
+		}
+
+		private void run() {
+			List<OrderEvent> batch = new ArrayList<>(maxBatch);
+			long seenDropped = buffer.getDroppedCount();
+			long idleParkNanos = 1;
+			while (running) {
+				long dropped = buffer.getDroppedCount();
+				if (dropped != seenDropped) {
+					long lost = dropped - seenDropped;
+					getLogger().warn("{} order events dropped, {} is {} events behind", lost, name, getLag());
+					deliver(() -> consumer.eventsLost(lost));
+					seenDropped = dropped;
+				}
+				runTasks();
+				int count = buffer.drainTo(cursor, batch, maxBatch);
+				if (count == 0) {
+					LockSupport.parkNanos(idleParkNanos);
+					idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+					continue;
+				}
+				idleParkNanos = 1;
+				deliver(() -> consumer.accept(batch));
+				batch.clear();
+				delivered.addAndGet(count);
+				batches.incrementAndGet();
+				if (count > largestBatch) {
+					largestBatch = count;
+				}
+			}
+			for (Task task = tasks.poll(); task != null; task = tasks.poll()) {
+				task.future.completeExceptionally(new CancellationException(name + " was removed"));
+			}
+		}
+
+		private void runTasks() {
+			for (Task task = tasks.poll(); task != null; task = tasks.poll()) {
+				try {
+					task.runnable.run();
+					task.future.complete(null);
+				} catch (RuntimeException e) {
+					task.future.completeExceptionally(e);
+				}
+			}
+		}
+
+		private void deliver(Runnable delivery) {
+			try {
+				delivery.run();
+			} catch (RuntimeException e) {
+				getLogger().error("Order event subscriber {} failed", name, e);
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Runs a task on the thread of this subscriber, before the next batch.
+		 *
+		 * @param task the task
+		 * @return the future completed once the task has run, or exceptionally
+		 *         if it failed or the subscription was removed first
+		 */
+		public CompletableFuture<Void> execute(Runnable task) {
+			Task queued = new Task(task);
+			tasks.add(queued);
+			if (!running && tasks.remove(queued)) {
+				queued.future.completeExceptionally(new CancellationException(name + " was removed"));
+			}
+			LockSupport.unpark(thread);
+			return queued.future;
+		}
+
+		/**
+		 * Gets the position of the last event put in the buffer of this
+		 * subscriber. The events up to it have all been committed.
+		 *
+		 * @return the position
+		 */
+		public long getPosition() {
+			return buffer.getClaimed();
+		}
+
+		/**
+		 * Gets the position of the last event read by this subscriber. While
+		 * a batch is passed on, it is the position of the last event of the
+		 * batch.
+		 *
+		 * @return the position
+		 */
+		public long getReadPosition() {
+			return cursor.get();
+		}
+
+		/**
+		 * Gets the number of committed events this subscriber has not read yet.
+		 *
+		 * @return the number of events
+		 */
+		public long getLag() {
+			return buffer.getClaimed() - cursor.get();
+		}
+
+		public long getDeliveredCount() {
+			return delivered.get();
+		}
+
+		public long getBatchCount() {
+			return batches.get();
+		}
+
+		public int getLargestBatch() {
+			return largestBatch;
+		}
+
+		/**
+		 * Gets the number of events dropped because the buffer of this
+		 * subscriber was full, including those a subscriber sharing the buffer
+		 * was too slow for.
+		 *
+		 * @return the number of events
+		 */
+		public long getDroppedCount() {
+			return buffer.getDroppedCount();
+		}
+
+		@Override
+		public void remove() {
+			running = false;
+			LockSupport.unpark(thread);
+			if (ownBuffer) {
+				buffers.remove(buffer);
+			}
+			buffer.removeCursor(cursor);
+			subscriptions.remove(this);
+		}
+	}
+}
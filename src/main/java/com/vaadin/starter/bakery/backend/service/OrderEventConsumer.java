@@ -0,0 +1,28 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.List;
+
+/**
+ * A subscriber of the {@link OrderEventBus}. Each consumer is called on a
+ * thread of its own, with the events in the order they were committed.
+ */
+@FunctionalInterface
+public interface OrderEventConsumer {
+
+	/**
+	 * Handles the next events.
+	 *
+	 * @param events one or more events, not to be kept after the call
+	 */
+	void accept(List<OrderEvent> events);
+
+	/**
+	 * Called before the next batch when events had to be dropped because the
+	 * buffer was full, so that state derived from the events can be rebuilt.
+	 *
+	 * @param count the number of events dropped since the previous call
+	 */
+	default void eventsLost(long count) {
+		// Ignored by default
+	}
+}
@@ -0,0 +1,76 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.LocalDate;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.OrderRollup;
+import com.vaadin.starter.bakery.backend.repositories.OrderRollupRepository;
+import com.vaadin.starter.bakery.backend.repositories.PickupLocationRepository;
+import com.vaadin.starter.bakery.backend.repositories.ProductRepository;
+
+/**
+ * Creates the {@link OrderRollup} rows of new buckets for the
+ * {@link OrderRollupService}.
+ * <p>
+ * Each row is inserted empty in a transaction of its own, so that when two
+ * order writes create the same bucket concurrently, the one losing on the
+ * unique bucket index fails without rolling back its order write. Both then
+ * add their figures to the one committed row.
+ */
+@Service
+public class OrderRollupBuckets {
+
+	private final OrderRollupRepository rollupRepository;
+	private final ProductRepository productRepository;
+	private final PickupLocationRepository pickupLocationRepository;
+
+	/**
+	 * Creates a new {@code OrderRollupBuckets}.
+	 *
+	 * @param rollupRepository         the repository used to insert the rollups
+	 * @param productRepository        the repository used to reference products
+	 * @param pickupLocationRepository the repository used to reference pickup locations
+	 */
+	@Autowired
+	public OrderRollupBuckets(OrderRollupRepository rollupRepository, ProductRepository productRepository,
+			PickupLocationRepository pickupLocationRepository) {
+		this.rollupRepository = rollupRepository;
+		this.productRepository = productRepository;
+		this.pickupLocationRepository = pickupLocationRepository;
+	}
+
+	/**
+	 * Inserts and commits an empty rollup row for a bucket.
+	 *
+	 * @param dueDate          the due date of the bucket
+	 * @param state            the order state of the bucket
+	 * @param pickupLocationId the pickup location of the bucket
+	 * @param productId        the product of the bucket, {@code null} for the
+	 *                         order totals
+	 * @throws org.springframework.dao.DataIntegrityViolationException if the bucket already exists
+	 */
+	@Transactional(Transactional.TxType.REQUIRES_NEW)
+	public void create(LocalDate dueDate, OrderState state, Long pickupLocationId, Long productId) {
+		rollupRepository.saveAndFlush(newRollup(dueDate, state, pickupLocationId, productId));
+	}
+
+	/**
+	 * Creates a rollup row for a bucket without saving it.
+	 *
+	 * @param dueDate          the due date of the bucket
+	 * @param state            the order state of the bucket
+	 * @param pickupLocationId the pickup location of the bucket
+	 * @param productId        the product of the bucket, {@code null} for the
+	 *                         order totals
+	 * @return the empty rollup
+	 */
+	OrderRollup newRollup(LocalDate dueDate, OrderState state, Long pickupLocationId, Long productId) {
+		return new OrderRollup(dueDate, state, pickupLocationRepository.getReferenceById(pickupLocationId),
+				productId == null ? null : productRepository.getReferenceById(productId));
+	}
+}
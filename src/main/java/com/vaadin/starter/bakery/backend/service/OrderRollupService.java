@@ -0,0 +1,199 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.data.OrderSnapshot;
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderRollup;
+import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
+import com.vaadin.starter.bakery.backend.repositories.OrderRollupRepository;
+
+/**
+ * Service class for maintaining the {@link OrderRollup} table.
+ * <p>
+ * Order writes take a snapshot of the order before and after the change and
+ * apply the difference to the affected rollup rows in the same transaction, so
+ * the dashboard aggregates never need to scan the order tables. Buckets that
+ * do not exist yet are created by {@link OrderRollupBuckets}.
+ */
+@Service
+public class OrderRollupService implements HasLogger {
+
+	private final OrderRollupRepository rollupRepository;
+	private final OrderRepository orderRepository;
+	private final OrderRollupBuckets rollupBuckets;
+
+	/**
+	 * Creates a new {@code OrderRollupService}.
+	 *
+	 * @param rollupRepository the repository used to access the rollups
+	 * @param orderRepository  the repository used to read stored orders
+	 * @param rollupBuckets    the service creating missing rollup buckets
+	 */
+	@Autowired
+	public OrderRollupService(OrderRollupRepository rollupRepository, OrderRepository orderRepository,
+			OrderRollupBuckets rollupBuckets) {
+		this.rollupRepository = rollupRepository;
+		this.orderRepository = orderRepository;
+		this.rollupBuckets = rollupBuckets;
+	}
+
+	/**
+	 * Takes a snapshot of an order as it is stored in the database.
+	 * <p>
+	 * Must be called before the order is modified in the current persistence
+	 * context, as the query would otherwise see the flushed changes.
+	 *
+	 * @param orderId the id of the order, or {@code null} for a new order
+	 * @return the snapshot, {@link OrderSnapshot#EMPTY} if the order is not stored
+	 */
+	public OrderSnapshot capture(Long orderId) {
+		if (orderId == null) {
+			return OrderSnapshot.EMPTY;
+		}
+		return OrderSnapshot.of(orderRepository.findSnapshotRows(orderId));
+	}
+
+	/**
+	 * Takes a snapshot of an order as it is in memory.
+	 *
+	 * @param order the order
+	 * @return the snapshot
+	 */
+	public OrderSnapshot capture(Order order) {
+		return OrderSnapshot.of(order);
+	}
+
+	/**
+	 * Moves the contribution of an order from its previous to its current
+	 * rollup buckets.
+	 *
+	 * @param before the snapshot taken before the change
+	 * @param after  the snapshot taken after the change
+	 */
+	@Transactional
+	public void apply(OrderSnapshot before, OrderSnapshot after) {
+		if (before.hasSameFigures(after)) {
+			return;
+		}
+		add(before, -1);
+		add(after, 1);
+		deleteEmpty(before);
+	}
+
+	/**
+	 * Checks whether the rollup table is empty, e.g. for a database created
+	 * before the rollups were introduced.
+	 *
+	 * @return {@code true} if there are no rollups
+	 */
+	public boolean isEmpty() {
+		return rollupRepository.count() == 0L;
+	}
+
+	/**
+	 * Recomputes all rollups from the order tables.
+	 */
+	@Transactional
+	public void rebuild() {
+		getLogger().info("Rebuilding order rollups");
+		rollupRepository.deleteAllInBatch();
+		List<OrderRollup> rollups = new ArrayList<>();
+		for (Object[] row : rollupRepository.aggregateOrderTotals()) {
+			OrderRollup rollup = rollupBuckets.newRollup((LocalDate) row[0], (OrderState) row[1], (Long) row[2],
+					null);
+			rollup.add((Long) row[3], (Long) row[4], (Long) row[5]);
+			rollups.add(rollup);
+		}
+		for (Object[] row : rollupRepository.aggregateProductLines()) {
+			OrderRollup rollup = rollupBuckets.newRollup((LocalDate) row[0], (OrderState) row[1], (Long) row[2],
+					(Long) row[3]);
+			rollup.add((Long) row[4], (Long) row[5], (Long) row[6]);
+			rollups.add(rollup);
+		}
+		rollupRepository.saveAll(rollups);
+	}
+
+	private void add(OrderSnapshot snapshot, int sign) {
+		if (snapshot.isEmpty()) {
+			return;
+		}
+		increment(snapshot, null, sign, sign * snapshot.getTotalQuantity(), sign * snapshot.getTotalRevenue());
+		for (Map.Entry<Long, OrderSnapshot.Line> line : snapshot.getLines().entrySet()) {
+			increment(snapshot, line.getKey(), sign, sign * line.getValue().getQuantity(),
+					sign * line.getValue().getRevenue());
+		}
+	}
+
+	/**
+	 * Deletes the buckets of a snapshot that no order is counted in anymore.
+	 * <p>
+	 * Only the buckets this transaction decremented are deleted, by key. It
+	 * holds their row locks since the decrement, so no other order write can
+	 * have created or filled them meanwhile.
+	 *
+	 * @param snapshot the snapshot whose figures were removed
+	 */
+	private void deleteEmpty(OrderSnapshot snapshot) {
+		if (snapshot.isEmpty()) {
+			return;
+		}
+		rollupRepository.deleteEmptyOrderTotals(snapshot.getDueDate(), snapshot.getState(),
+				snapshot.getPickupLocationId());
+		for (Long productId : snapshot.getLines().keySet()) {
+			rollupRepository.deleteEmptyProductLine(snapshot.getDueDate(), snapshot.getState(),
+					snapshot.getPickupLocationId(), productId);
+		}
+	}
+
+	/**
+	 * Adds figures to a bucket, creating the bucket first if it does not exist.
+	 *
+	 * @param snapshot   the snapshot of the order, giving the bucket
+	 * @param productId  the product of the bucket, {@code null} for the order totals
+	 * @param orderCount the number of orders to add
+	 * @param quantity   the quantity to add
+	 * @param revenue    the revenue to add
+	 */
+	private void increment(OrderSnapshot snapshot, Long productId, long orderCount, long quantity, long revenue) {
+		if (update(snapshot, productId, orderCount, quantity, revenue) != 0) {
+			return;
+		}
+		if (orderCount < 0) {
+			getLogger().warn("Missing order rollup for {} {} {}, rollups are out of sync", snapshot.getDueDate(),
+					snapshot.getState(), productId);
+		}
+		try {
+			rollupBuckets.create(snapshot.getDueDate(), snapshot.getState(), snapshot.getPickupLocationId(),
+					productId);
+		} catch (DataIntegrityViolationException e) {
+			// Created concurrently by another order write, which has committed it
+			getLogger().debug("Order rollup for {} {} {} created concurrently", snapshot.getDueDate(),
+					snapshot.getState(), productId);
+		}
+		if (update(snapshot, productId, orderCount, quantity, revenue) == 0) {
+			throw new IllegalStateException("Order rollup for " + snapshot.getDueDate() + " " + snapshot.getState()
+					+ " " + productId + " could not be created");
+		}
+	}
+
+	private int update(OrderSnapshot snapshot, Long productId, long orderCount, long quantity, long revenue) {
+		if (productId == null) {
+			return rollupRepository.incrementOrderTotals(snapshot.getDueDate(), snapshot.getState(),
+					snapshot.getPickupLocationId(), orderCount, quantity, revenue);
+		}
+		return rollupRepository.incrementProductLine(snapshot.getDueDate(), snapshot.getState(),
+				snapshot.getPickupLocationId(), productId, orderCount, quantity, revenue);
+	}
+}
@@ -1,13 +1,17 @@
 package com.vaadin.starter.bakery.backend.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -15,19 +19,27 @@ import java.util.function.BiConsumer;
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 import com.vaadin.starter.bakery.backend.data.DashboardData;
 import com.vaadin.starter.bakery.backend.data.DeliveryStats;
+import com.vaadin.starter.bakery.backend.data.OrderDueInfo;
+import com.vaadin.starter.bakery.backend.data.OrderSnapshot;
+import com.vaadin.starter.bakery.backend.data.OrderSortKey;
 import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.OrderSummary;
 import com.vaadin.starter.bakery.backend.data.entity.Product;
 import com.vaadin.starter.bakery.backend.data.entity.User;
+import com.vaadin.starter.bakery.backend.repositories.HistoryItemRepository;
 import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
+import com.vaadin.starter.bakery.backend.repositories.OrderRollupRepository;
 
 /**
  * Service class for managing {@link Order} entities.
@@ -37,22 +49,57 @@ import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
 public class OrderService implements CrudService<Order> {
 
 	private final OrderRepository orderRepository;
+	private final HistoryItemRepository historyItemRepository;
+	private final OrderRollupRepository orderRollupRepository;
+	private final OrderRollupService orderRollupService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final CustomerSearchIndex customerSearchIndex;
+	private final DeliveryCounters deliveryCounters;
 
 	/**
 	 * Creates a new {@code OrderService}.
 	 *
-	 * @param orderRepository the repository used to access orders
+	 * @param orderRepository       the repository used to access orders
+	 * @param historyItemRepository the repository used to append to the order history
+	 * @param orderRollupRepository the repository used to read the dashboard aggregates
+	 * @param orderRollupService    the service keeping the dashboard aggregates up to date
+	 * @param eventPublisher        the publisher for {@link OrderChangedEvent}s and {@link OrderEvent}s
+	 * @param customerSearchIndex   the index used to resolve customer search filters
+	 * @param deliveryCounters      the counters the delivery statistics are read from
 	 */
 	@Autowired
-	public OrderService(OrderRepository orderRepository) {
+	public OrderService(OrderRepository orderRepository, HistoryItemRepository historyItemRepository,
+			OrderRollupRepository orderRollupRepository, OrderRollupService orderRollupService,
+			ApplicationEventPublisher eventPublisher, CustomerSearchIndex customerSearchIndex,
+			DeliveryCounters deliveryCounters) {
 		super();
 		this.orderRepository = orderRepository;
+		this.historyItemRepository = historyItemRepository;
+		this.orderRollupRepository = orderRollupRepository;
+		this.orderRollupService = orderRollupService;
+		this.eventPublisher = eventPublisher;
+		this.customerSearchIndex = customerSearchIndex;
+		this.deliveryCounters = deliveryCounters;
 	}
 
+	/**
+	 * Maximum number of order ids resolved by the {@link CustomerSearchIndex}
+	 * that are passed to the database as an {@code IN} list. Broader filters
+	 * fall back to a {@code LIKE} query on the customer name and phone number,
+	 * which matches the same orders as the index.
+	 */
+	private static final int MAX_SEARCH_IDS = 1000;
+
+	/**
+	 * Number of dates delimiting the due date ranges of
+	 * {@link #findFirstIdPerDueDateRange(Optional, List)}.
+	 */
+	public static final int DUE_DATE_RANGE_BOUNDS = 5;
+
 	/**
 	 * States in which orders are not available for delivery.
 	 */
-	private static final Set<OrderState> notAvailableStates = Collections.unmodifiableSet(
+	static final Set<OrderState> notAvailableStates = Collections.unmodifiableSet(
 			EnumSet.complementOf(EnumSet.of(OrderState.DELIVERED, OrderState.READY, OrderState.CANCELLED)));
 
 	/**
@@ -66,13 +113,14 @@ public class OrderService implements CrudService<Order> {
 	@Transactional(rollbackOn = Exception.class)
 	public Order saveOrder(User currentUser, Long id, BiConsumer<User, Order> orderFiller) {
 		Order order;
+		OrderSnapshot before = orderRollupService.capture(id);
 		if (id == null) {
 			order = new Order(currentUser);
 		} else {
 			order = load(id);
 		}
 		orderFiller.accept(currentUser, order);
-		return orderRepository.save(order);
+		return saveOrder(order, before);
 	}
 
 	/**
@@ -83,27 +131,141 @@ public class OrderService implements CrudService<Order> {
 	 */
 	@Transactional(rollbackOn = Exception.class)
 	public Order saveOrder(Order order) {
-		return orderRepository.save(order);
+		return saveOrder(order, orderRollupService.capture(order.getId()));
+	}
+
+	/**
+	 * Saves the given order, moves its contribution in the rollups from the
+	 * given snapshot to the saved state and publishes an {@link OrderChangedEvent}
+	 * and an {@link OrderEvent}.
+	 *
+	 * @param order  the order to save
+	 * @param before the snapshot of the order as stored before the change
+	 * @return the saved order
+	 */
+	private Order saveOrder(Order order, OrderSnapshot before) {
+		// Item changes alone do not make the order dirty, so @PreUpdate would not run
+		order.updateTotalPrice();
+		Order saved = orderRepository.save(order);
+		// The history is not mapped on the order, the new entries are appended on their own
+		historyItemRepository.saveAll(order.getHistory());
+		order.getHistory().clear();
+		OrderSnapshot after = orderRollupService.capture(saved);
+		orderRollupService.apply(before, after);
+		eventPublisher.publishEvent(new OrderChangedEvent(saved.getId(), before, after));
+		OrderEvent.Type type;
+		if (before.isEmpty()) {
+			type = OrderEvent.Type.CREATED;
+		} else if (before.getState() != after.getState()) {
+			type = OrderEvent.Type.STATE_CHANGED;
+		} else {
+			type = OrderEvent.Type.UPDATED;
+		}
+		publishOrderEvent(type, saved.getId(), before, after);
+		return saved;
+	}
+
+	/**
+	 * Publishes an {@link OrderEvent}, delivered by the {@link OrderEventBus}
+	 * once the transaction commits.
+	 *
+	 * @param type    the type of the write
+	 * @param orderId the id of the order
+	 * @param before  the snapshot of the order as stored before the write
+	 * @param after   the snapshot of the order after the write
+	 */
+	private void publishOrderEvent(OrderEvent.Type type, Long orderId, OrderSnapshot before, OrderSnapshot after) {
+		boolean customerChanged = !before.isEmpty() && !after.isEmpty()
+				&& (!Objects.equals(before.getCustomerName(), after.getCustomerName())
+						|| !Objects.equals(before.getCustomerPhoneNumber(), after.getCustomerPhoneNumber()));
+		eventPublisher.publishEvent(new OrderEvent(type, orderId, before.getState(), after.getState(),
+				before.getDueDate(), after.getDueDate(), before.getDueTime(), after.getDueTime(), customerChanged));
+	}
+
+	/**
+	 * Saves the given order, keeping the dashboard rollups up to date.
+	 *
+	 * @param currentUser the user performing the operation
+	 * @param entity      the order to save
+	 * @return the saved order
+	 */
+	@Override
+	@Transactional(rollbackOn = Exception.class)
+	public Order save(User currentUser, Order entity) {
+		Order saved = saveOrder(entity);
+		orderRepository.flush();
+		return saved;
 	}
 
 	/**
-	 * Adds a comment to an order’s history and saves it.
+	 * Deletes the given order and removes its contribution from the rollups.
+	 *
+	 * @param currentUser the user performing the operation
+	 * @param entity      the order to delete
+	 */
+	@Override
+	@Transactional(rollbackOn = Exception.class)
+	public void delete(User currentUser, Order entity) {
+		OrderSnapshot before = entity == null ? OrderSnapshot.EMPTY : orderRollupService.capture(entity.getId());
+		CrudService.super.delete(currentUser, entity);
+		orderRollupService.apply(before, OrderSnapshot.EMPTY);
+		eventPublisher.publishEvent(new OrderChangedEvent(entity.getId(), before, OrderSnapshot.EMPTY));
+		publishOrderEvent(OrderEvent.Type.DELETED, entity.getId(), before, OrderSnapshot.EMPTY);
+	}
+
+	/**
+	 * Adds a comment to an order’s history.
+	 * <p>
+	 * The comment is inserted on its own without saving the order, so it does
+	 * not change the order version and cannot conflict with someone editing
+	 * the same order.
 	 *
 	 * @param currentUser the user adding the comment
-	 * @param order       the order being updated
+	 * @param order       the order being commented
 	 * @param comment     the comment text
-	 * @return the updated order
+	 * @return the order
 	 */
 	@Transactional(rollbackOn = Exception.class)
 	public Order addComment(User currentUser, Order order, String comment) {
-		order.addHistoryItem(currentUser, comment);
-		return orderRepository.save(order);
+		historyItemRepository.save(order.createHistoryItem(currentUser, comment));
+		eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.COMMENTED, order.getId(), order.getState(),
+				order.getState(), order.getDueDate(), order.getDueDate()));
+		return order;
+	}
+
+	/**
+	 * Finds the latest history entries of an order.
+	 *
+	 * @param orderId the id of the order
+	 * @param count   the maximum number of entries to return
+	 * @return the entries, newest first
+	 */
+	public Slice<HistoryItem> findLatestHistory(Long orderId, int count) {
+		return historyItemRepository.findLatestByOrderId(orderId, PageRequest.of(0, count));
 	}
 
 	/**
-	 * Finds orders that match a name filter and have a due date after a given date.
+	 * Finds the history entries of an order that are older than a given entry.
 	 *
-	 * @param optionalFilter     optional customer name filter
+	 * @param orderId the id of the order
+	 * @param before  the oldest entry already shown
+	 * @param count   the maximum number of entries to return
+	 * @return the entries, newest first
+	 */
+	public Slice<HistoryItem> findHistoryBefore(Long orderId, HistoryItem before, int count) {
+		return historyItemRepository.findLatestByOrderIdBefore(orderId, before.getTimestamp(), before.getId(),
+				PageRequest.of(0, count));
+	}
+
+	/**
+	 * Finds orders that match a customer filter and have a due date after a given date.
+	 * <p>
+	 * The filter matches the customer name or phone number. Filters of at
+	 * least {@link CustomerSearchIndex#MIN_FILTER_LENGTH} characters are
+	 * resolved to order ids by the {@link CustomerSearchIndex}, others are
+	 * matched by the database with the same rule.
+	 *
+	 * @param optionalFilter     optional customer name or phone number filter
 	 * @param optionalFilterDate optional date filter
 	 * @param pageable           pagination information
 	 * @return a page of matching orders
@@ -111,11 +273,23 @@ public class OrderService implements CrudService<Order> {
 	public Page<Order> findAnyMatchingAfterDueDate(Optional<String> optionalFilter,
 												   Optional<LocalDate> optionalFilterDate, Pageable pageable) {
 		if (optionalFilter.isPresent() && !optionalFilter.get().isEmpty()) {
+			List<Long> ids = findSearchIds(optionalFilter.get());
+			if (ids != null) {
+				if (ids.isEmpty()) {
+					return Page.empty(pageable);
+				}
+				if (optionalFilterDate.isPresent()) {
+					return orderRepository.findByIdInAndDueDateAfter(ids, optionalFilterDate.get(), pageable);
+				} else {
+					return orderRepository.findByIdIn(ids, pageable);
+				}
+			}
+			String pattern = CustomerSearchIndex.toLikePattern(optionalFilter.get());
 			if (optionalFilterDate.isPresent()) {
-				return orderRepository.findByCustomerFullNameContainingIgnoreCaseAndDueDateAfter(
-						optionalFilter.get(), optionalFilterDate.get(), pageable);
+				return orderRepository.findByCustomerMatchingAndDueDateAfter(pattern, optionalFilterDate.get(),
+						pageable);
 			} else {
-				return orderRepository.findByCustomerFullNameContainingIgnoreCase(optionalFilter.get(), pageable);
+				return orderRepository.findByCustomerMatching(pattern, pageable);
 			}
 		} else {
 			if (optionalFilterDate.isPresent()) {
@@ -127,28 +301,166 @@ public class OrderService implements CrudService<Order> {
 	}
 
 	/**
-	 * Finds all orders starting from today onwards.
+	 * Finds the next orders after the given sort key that match a customer filter
+	 * and have a due date after a given date, in the default
+	 * {@code dueDate, dueTime, id} order.
+	 * <p>
+	 * Unlike offset paging, the cost does not depend on how many orders
+	 * precede the key.
 	 *
-	 * @return a list of order summaries starting today
+	 * @param optionalFilter     optional customer name or phone number filter
+	 * @param optionalFilterDate optional date filter
+	 * @param after              the key of the last order already fetched
+	 * @param limit              the maximum number of orders to return
+	 * @return the matching orders after the key
 	 */
-	@Transactional
-	public List<OrderSummary> findAnyMatchingStartingToday() {
-		return orderRepository.findByDueDateGreaterThanEqual(LocalDate.now());
+	public List<Order> findAnyMatchingAfterDueDateAndSortKey(Optional<String> optionalFilter,
+			Optional<LocalDate> optionalFilterDate, OrderSortKey after, int limit) {
+		Pageable first = PageRequest.of(0, limit);
+		LocalDate dueDate = after.getDueDate();
+		LocalTime dueTime = after.getDueTime();
+		Long id = after.getId();
+		if (optionalFilter.isPresent() && !optionalFilter.get().isEmpty()) {
+			List<Long> ids = findSearchIds(optionalFilter.get());
+			if (ids != null) {
+				if (ids.isEmpty()) {
+					return Collections.emptyList();
+				}
+				if (optionalFilterDate.isPresent()) {
+					return orderRepository.findAfterSortKeyAndIdInAndDueDateAfter(dueDate, dueTime, id, ids,
+							optionalFilterDate.get(), first);
+				} else {
+					return orderRepository.findAfterSortKeyAndIdIn(dueDate, dueTime, id, ids, first);
+				}
+			}
+			String pattern = CustomerSearchIndex.toLikePattern(optionalFilter.get());
+			if (optionalFilterDate.isPresent()) {
+				return orderRepository.findAfterSortKeyAndCustomerMatchingAndDueDateAfter(dueDate, dueTime, id,
+						pattern, optionalFilterDate.get(), first);
+			} else {
+				return orderRepository.findAfterSortKeyAndCustomerMatching(dueDate, dueTime, id, pattern, first);
+			}
+		} else {
+			if (optionalFilterDate.isPresent()) {
+				return orderRepository.findAfterSortKeyAndDueDateAfter(dueDate, dueTime, id,
+						optionalFilterDate.get(), first);
+			} else {
+				return orderRepository.findAfterSortKey(dueDate, dueTime, id, first);
+			}
+		}
+	}
+
+	/**
+	 * Loads orders with their items, so that they can be rendered without
+	 * lazy loading, also outside of a request such as in a server push.
+	 *
+	 * @param ids the ids of the orders
+	 * @return the orders that still exist, in no particular order
+	 */
+	public List<Order> findAllWithItems(Collection<Long> ids) {
+		return ids.isEmpty() ? Collections.emptyList() : orderRepository.findWithItemsByIdIn(ids);
+	}
+
+	/**
+	 * Finds the first order, in the default {@code dueDate, dueTime, id}
+	 * order, of each of the due date ranges delimited by the given dates:
+	 * before the first date, from each date until the next one, and from the
+	 * last date on. Everything is read with one query, each range with a seek
+	 * in the due date index.
+	 *
+	 * @param optionalFilter optional customer name or phone number filter
+	 * @param bounds         {@value #DUE_DATE_RANGE_BOUNDS} ascending dates
+	 * @return the id of the first order in each of the
+	 *         {@value #DUE_DATE_RANGE_BOUNDS} + 1 ranges, {@code null} for
+	 *         ranges without matching orders
+	 */
+	public List<Long> findFirstIdPerDueDateRange(Optional<String> optionalFilter, List<LocalDate> bounds) {
+		if (bounds.size() != DUE_DATE_RANGE_BOUNDS) {
+			throw new IllegalArgumentException("Expected " + DUE_DATE_RANGE_BOUNDS + " bounds, got " + bounds);
+		}
+		LocalDate bound1 = bounds.get(0);
+		LocalDate bound2 = bounds.get(1);
+		LocalDate bound3 = bounds.get(2);
+		LocalDate bound4 = bounds.get(3);
+		LocalDate bound5 = bounds.get(4);
+		Long[] firstIds = new Long[DUE_DATE_RANGE_BOUNDS + 1];
+		List<Object[]> rows;
+		if (optionalFilter.isPresent() && !optionalFilter.get().isEmpty()) {
+			List<Long> ids = findSearchIds(optionalFilter.get());
+			if (ids != null && ids.isEmpty()) {
+				return Arrays.asList(firstIds);
+			} else if (ids != null) {
+				rows = orderRepository.findFirstIdPerDueDateRangeAndIdIn(bound1, bound2, bound3, bound4, bound5, ids);
+			} else {
+				rows = orderRepository.findFirstIdPerDueDateRangeAndCustomerMatching(bound1, bound2, bound3, bound4,
+						bound5, CustomerSearchIndex.toLikePattern(optionalFilter.get()));
+			}
+		} else {
+			rows = orderRepository.findFirstIdPerDueDateRange(bound1, bound2, bound3, bound4, bound5);
+		}
+		for (Object[] row : rows) {
+			firstIds[((Number) row[0]).intValue()] = ((Number) row[1]).longValue();
+		}
+		return Arrays.asList(firstIds);
+	}
+
+	/**
+	 * Resolves a search filter to order ids using the {@link CustomerSearchIndex}.
+	 *
+	 * @param filter the search filter
+	 * @return the matching order ids, or {@code null} if the filter is too short
+	 *         or too broad and has to be evaluated by the database
+	 */
+	private List<Long> findSearchIds(String filter) {
+		if (!CustomerSearchIndex.canResolve(filter)) {
+			return null;
+		}
+		List<Long> ids = customerSearchIndex.findOrderIds(filter);
+		return ids.size() > MAX_SEARCH_IDS ? null : ids;
+	}
+
+	/**
+	 * Finds the due date, due time and state of all orders starting from today
+	 * onwards, without loading the orders themselves.
+	 *
+	 * @return the due information sorted by due date and time
+	 */
+	public List<OrderDueInfo> findDueInfoStartingToday() {
+		return orderRepository.findDueInfoByDueDateGreaterThanEqual(LocalDate.now());
+	}
+
+	/**
+	 * Finds when the most recent order due today or later was placed.
+	 *
+	 * @return the timestamp of the latest "Order placed" history item, or empty
+	 *         if there are no orders due from today on
+	 */
+	public Optional<LocalDateTime> findLastOrderPlacedStartingToday() {
+		return Optional.ofNullable(orderRepository.findLastHistoryTimestampByDueDateGreaterThanEqual(LocalDate.now(),
+				Order.ORDER_PLACED_MESSAGE));
 	}
 
 	/**
-	 * Counts orders that match the given name filter and due date filter.
+	 * Counts orders that match the given customer filter and due date filter.
 	 *
-	 * @param optionalFilter     optional customer name filter
+	 * @param optionalFilter     optional customer name or phone number filter
 	 * @param optionalFilterDate optional due date filter
 	 * @return the number of matching orders
 	 */
 	public long countAnyMatchingAfterDueDate(Optional<String> optionalFilter, Optional<LocalDate> optionalFilterDate) {
+		optionalFilter = optionalFilter.filter(filter -> !filter.isEmpty());
+		List<Long> ids = optionalFilter.map(this::findSearchIds).orElse(null);
+		if (ids != null) {
+			if (ids.isEmpty() || !optionalFilterDate.isPresent()) {
+				return ids.size();
+			}
+			return orderRepository.countByIdInAndDueDateAfter(ids, optionalFilterDate.get());
+		}
 		if (optionalFilter.isPresent() && optionalFilterDate.isPresent()) {
-			return orderRepository.countByCustomerFullNameContainingIgnoreCaseAndDueDateAfter(optionalFilter.get(),
-					optionalFilterDate.get());
+			return orderRepository.countByCustomerMatchingAndDueDateAfter(
+					CustomerSearchIndex.toLikePattern(optionalFilter.get()), optionalFilterDate.get());
 		} else if (optionalFilter.isPresent()) {
-			return orderRepository.countByCustomerFullNameContainingIgnoreCase(optionalFilter.get());
+			return orderRepository.countByCustomerMatching(CustomerSearchIndex.toLikePattern(optionalFilter.get()));
 		} else if (optionalFilterDate.isPresent()) {
 			return orderRepository.countByDueDateAfter(optionalFilterDate.get());
 		} else {
@@ -158,25 +470,36 @@ public class OrderService implements CrudService<Order> {
 
 	/**
 	 * Builds and returns delivery statistics for the dashboard.
+	 * <p>
+	 * The figures are read from the {@link DeliveryCounters}. Until these
+	 * have been loaded at startup, they are counted with a single conditional
+	 * aggregation query.
 	 *
 	 * @return the delivery statistics
 	 */
-	private DeliveryStats getDeliveryStats() {
-		DeliveryStats stats = new DeliveryStats();
+	public DeliveryStats getDeliveryStats() {
 		LocalDate today = LocalDate.now();
-		stats.setDueToday((int) orderRepository.countByDueDate(today));
-		stats.setDueTomorrow((int) orderRepository.countByDueDate(today.plusDays(1)));
-		stats.setDeliveredToday((int) orderRepository.countByDueDateAndStateIn(today,
-				Collections.singleton(OrderState.DELIVERED)));
-
-		stats.setNotAvailableToday((int) orderRepository.countByDueDateAndStateIn(today, notAvailableStates));
-		stats.setNewOrders((int) orderRepository.countByState(OrderState.NEW));
+		if (deliveryCounters.isLoaded()) {
+			return deliveryCounters.getDeliveryStats(today);
+		}
+		DeliveryStats stats = new DeliveryStats();
+		Object[] counts = orderRepository.countDeliveryStats(today, today.plusDays(1), OrderState.DELIVERED,
+				notAvailableStates, OrderState.NEW).get(0);
+		stats.setDueToday(((Number) counts[0]).intValue());
+		stats.setDueTomorrow(((Number) counts[1]).intValue());
+		stats.setDeliveredToday(((Number) counts[2]).intValue());
+		stats.setNotAvailableToday(((Number) counts[3]).intValue());
+		stats.setNewOrders(((Number) counts[4]).intValue());
 
 		return stats;
 	}
 
 	/**
 	 * Retrieves dashboard data including delivery statistics, sales, and product deliveries.
+	 * <p>
+	 * The charts are read from the {@link com.vaadin.starter.bakery.backend.data.entity.OrderRollup}
+	 * table, so their cost depends on the number of days shown rather than the number of orders.
+	 * Each part can also be read on its own, so that a view can load them concurrently.
 	 *
 	 * @param month the month to retrieve data for
 	 * @param year  the year to retrieve data for
@@ -187,10 +510,24 @@ public class OrderService implements CrudService<Order> {
 		data.setDeliveryStats(getDeliveryStats());
 		data.setDeliveriesThisMonth(getDeliveriesPerDay(month, year));
 		data.setDeliveriesThisYear(getDeliveriesPerMonth(year));
+		data.setSalesPerMonth(getSalesPerMonth(month, year));
+		data.setProductDeliveries(getProductDeliveries(month, year));
+		return data;
+	}
 
+	/**
+	 * Retrieves the sales per month of the last three years.
+	 *
+	 * @param month the current month, which is left out as its data is incomplete
+	 * @param year  the current year
+	 * @return the sales, indexed by years before the given one and by month, with
+	 *         {@code null} for months without sales
+	 */
+	public Number[][] getSalesPerMonth(int month, int year) {
 		Number[][] salesPerMonth = new Number[3][12];
-		data.setSalesPerMonth(salesPerMonth);
-		List<Object[]> sales = orderRepository.sumPerMonthLastThreeYears(OrderState.DELIVERED, year);
+		// The current year and the three before it
+		List<Object[]> sales = orderRollupRepository.sumPerMonth(OrderState.DELIVERED,
+				LocalDate.of(year - 3, 1, 1), LocalDate.of(year + 1, 1, 1));
 
 		for (Object[] salesData : sales) {
 			// year, month, deliveries
@@ -203,16 +540,26 @@ public class OrderService implements CrudService<Order> {
 			long count = (long) salesData[2];
 			salesPerMonth[y][m] = count;
 		}
+		return salesPerMonth;
+	}
 
+	/**
+	 * Retrieves the number of deliveries per product in a given month.
+	 *
+	 * @param month the month
+	 * @param year  the year
+	 * @return the number of deliveries per product
+	 */
+	public LinkedHashMap<Product, Integer> getProductDeliveries(int month, int year) {
+		LocalDate monthStart = LocalDate.of(year, month, 1);
 		LinkedHashMap<Product, Integer> productDeliveries = new LinkedHashMap<>();
-		data.setProductDeliveries(productDeliveries);
-		for (Object[] result : orderRepository.countPerProduct(OrderState.DELIVERED, year, month)) {
+		for (Object[] result : orderRollupRepository.countPerProduct(OrderState.DELIVERED, monthStart,
+				monthStart.plusMonths(1))) {
 			int sum = ((Long) result[0]).intValue();
 			Product p = (Product) result[1];
 			productDeliveries.put(p, sum);
 		}
-
-		return data;
+		return productDeliveries;
 	}
 
 	/**
@@ -222,10 +569,10 @@ public class OrderService implements CrudService<Order> {
 	 * @param year  the year
 	 * @return a list of deliveries per day, with {@code null} for days without deliveries
 	 */
-	private List<Number> getDeliveriesPerDay(int month, int year) {
-		int daysInMonth = YearMonth.of(year, month).lengthOfMonth();
-		return flattenAndReplaceMissingWithNull(daysInMonth,
-				orderRepository.countPerDay(OrderState.DELIVERED, year, month));
+	public List<Number> getDeliveriesPerDay(int month, int year) {
+		YearMonth yearMonth = YearMonth.of(year, month);
+		return flattenAndReplaceMissingWithNull(yearMonth.lengthOfMonth(), orderRollupRepository
+				.countPerDay(OrderState.DELIVERED, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
 	}
 
 	/**
@@ -234,8 +581,9 @@ public class OrderService implements CrudService<Order> {
 	 * @param year the year
 	 * @return a list of deliveries per month, with {@code null} for months without deliveries
 	 */
-	private List<Number> getDeliveriesPerMonth(int year) {
-		return flattenAndReplaceMissingWithNull(12, orderRepository.countPerMonth(OrderState.DELIVERED, year));
+	public List<Number> getDeliveriesPerMonth(int year) {
+		return flattenAndReplaceMissingWithNull(12, orderRollupRepository.countPerMonth(OrderState.DELIVERED,
+				LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1)));
 	}
 
 	/**
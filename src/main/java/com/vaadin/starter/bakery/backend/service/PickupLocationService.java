@@ -21,15 +21,19 @@ import com.vaadin.starter.bakery.backend.repositories.PickupLocationRepository;
 public class PickupLocationService implements FilterableCrudService<PickupLocation> {
 
 	private final PickupLocationRepository pickupLocationRepository;
+	private final ReferenceDataCache referenceDataCache;
 
 	/**
 	 * Creates a new {@code PickupLocationService}.
 	 *
 	 * @param pickupLocationRepository the repository used for managing pickup locations
+	 * @param referenceDataCache       the cache to evict saved and deleted pickup locations from
 	 */
 	@Autowired
-	public PickupLocationService(PickupLocationRepository pickupLocationRepository) {
+	public PickupLocationService(PickupLocationRepository pickupLocationRepository,
+			ReferenceDataCache referenceDataCache) {
 		this.pickupLocationRepository = pickupLocationRepository;
+		this.referenceDataCache = referenceDataCache;
 	}
 
 	/**
@@ -84,6 +88,11 @@ public class PickupLocationService implements FilterableCrudService<PickupLocati
 		return pickupLocationRepository;
 	}
 
+	@Override
+	public ReferenceDataCache getCache() {
+		return referenceDataCache;
+	}
+
 	/**
 	 * Creates a new {@link PickupLocation}.
 	 *
@@ -0,0 +1,194 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.repositories.ProductRepository;
+
+/**
+ * Application wide, immutable snapshot of all products, searched in memory by
+ * the product pickers of the order editors instead of with a
+ * {@code LIKE '%x%'} query per keystroke.
+ * <p>
+ * The snapshot is loaded on first use and replaced as a whole once a
+ * {@link ProductChangedEvent} is committed, so a reader always sees one
+ * consistent version. The products of a snapshot are shared between all UIs
+ * and must not be modified.
+ */
+@Service
+public class ProductCatalog implements HasLogger {
+
+	/**
+	 * One version of the catalog with its search index.
+	 * <p>
+	 * The index is a suffix array over the lowercase product names: every
+	 * position in every name, sorted by the rest of the name from that
+	 * position. The names containing a filter are those with a suffix starting
+	 * with it, which form one run in the array found by binary search.
+	 */
+	public static final class Snapshot {
+
+		private final long version;
+		private final List<Product> products;
+		private final String[] names;
+		// Suffixes as product index and start position, sorted by the suffix text
+		private final int[] suffixProducts;
+		private final int[] suffixStarts;
+
+		Snapshot(long version, List<Product> products) {
+			this.version = version;
+			this.products = Collections.unmodifiableList(new ArrayList<>(products));
+			this.names = new String[products.size()];
+			List<int[]> suffixes = new ArrayList<>();
+			for (int i = 0; i < names.length; i++) {
+				names[i] = normalize(products.get(i).getName());
+				for (int start = 0; start < names[i].length(); start++) {
+					suffixes.add(new int[] { i, start });
+				}
+			}
+			suffixes.sort(Comparator.comparing(suffix -> names[suffix[0]].substring(suffix[1])));
+			suffixProducts = new int[suffixes.size()];
+			suffixStarts = new int[suffixes.size()];
+			for (int i = 0; i < suffixes.size(); i++) {
+				suffixProducts[i] = suffixes.get(i)[0];
+				suffixStarts[i] = suffixes.get(i)[1];
+			}
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * Gets all products, sorted by id.
+		 *
+		 * @return the products
+		 */
+		public List<Product> getProducts() {
+			return products;
+		}
+
+		/**
+		 * Finds the products whose name contains the given filter, ignoring
+		 * case.
+		 *
+		 * @param filter the filter, {@code null} or empty to match all products
+		 * @return the matching products, sorted by id
+		 */
+		public List<Product> find(String filter) {
+			String needle = normalize(filter);
+			if (needle.isEmpty()) {
+				return products;
+			}
+			BitSet matches = new BitSet(products.size());
+			for (int i = firstSuffixNotBefore(needle); i < suffixProducts.length
+					&& names[suffixProducts[i]].startsWith(needle, suffixStarts[i]); i++) {
+				matches.set(suffixProducts[i]);
+			}
+			List<Product> result = new ArrayList<>(matches.cardinality());
+			for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+				result.add(products.get(i));
+			}
+			return result;
+		}
+
+		private int firstSuffixNotBefore(String needle) {
+			int low = 0;
+			int high = suffixProducts.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (compareSuffix(middle, needle) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		private int compareSuffix(int suffix, String needle) {
+			String name = names[suffixProducts[suffix]];
+			int start = suffixStarts[suffix];
+			int length = Math.min(name.length() - start, needle.length());
+			for (int i = 0; i < length; i++) {
+				int difference = name.charAt(start + i) - needle.charAt(i);
+				if (difference != 0) {
+					return difference;
+				}
+			}
+			return (name.length() - start) - needle.length();
+		}
+	}
+
+	private final ProductRepository productRepository;
+	private final AtomicLong versions = new AtomicLong();
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Creates a new {@code ProductCatalog}.
+	 *
+	 * @param productRepository the repository the products are loaded from
+	 */
+	@Autowired
+	public ProductCatalog(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	/**
+	 * Gets the current version of the catalog, loading it on first use.
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = reload();
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Replaces the catalog once a product change has been committed.
+	 *
+	 * @param event the product change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		reload();
+	}
+
+	/**
+	 * Loads all products and replaces the snapshot with them.
+	 *
+	 * @return the new snapshot
+	 */
+	synchronized Snapshot reload() {
+		long start = System.currentTimeMillis();
+		Snapshot loaded = new Snapshot(versions.incrementAndGet(), productRepository.findAll(Sort.by("id")));
+		snapshot = loaded;
+		getLogger().debug("Loaded product catalog version {} with {} products in {} ms", loaded.getVersion(),
+				loaded.getProducts().size(), System.currentTimeMillis() - start);
+		return loaded;
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+}
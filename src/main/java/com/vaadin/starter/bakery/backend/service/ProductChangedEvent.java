@@ -0,0 +1,19 @@
+package com.vaadin.starter.bakery.backend.service;
+
+/**
+ * Published by {@link ProductService} whenever a product is saved or deleted.
+ * Listeners that depend on committed data should use
+ * {@code @TransactionalEventListener} to receive it after the commit.
+ */
+public class ProductChangedEvent {
+
+	private final Long productId;
+
+	public ProductChangedEvent(Long productId) {
+		this.productId = productId;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+}
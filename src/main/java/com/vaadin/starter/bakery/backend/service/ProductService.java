@@ -3,6 +3,7 @@ package com.vaadin.starter.bakery.backend.service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,14 +26,25 @@ public class ProductService implements FilterableCrudService<Product> {
     /** Repository for accessing {@link Product} data. */
     private final ProductRepository productRepository;
 
+    /** Second-level cache the products are kept in. */
+    private final ReferenceDataCache referenceDataCache;
+
+    /** Publisher of the {@link ProductChangedEvent}s that refresh the {@link ProductCatalog}. */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Creates a new {@link ProductService} with the given {@link ProductRepository}.
      *
-     * @param productRepository the product repository
+     * @param productRepository  the product repository
+     * @param referenceDataCache the cache to evict saved and deleted products from
+     * @param eventPublisher     the publisher for {@link ProductChangedEvent}s
      */
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ReferenceDataCache referenceDataCache,
+            ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -88,6 +100,11 @@ public class ProductService implements FilterableCrudService<Product> {
         return productRepository;
     }
 
+    @Override
+    public ReferenceDataCache getCache() {
+        return referenceDataCache;
+    }
+
     /**
      * Creates a new {@link Product} instance.
      *
@@ -112,11 +129,26 @@ public class ProductService implements FilterableCrudService<Product> {
      */
     @Override
     public Product save(User currentUser, Product entity) {
+        Product saved;
         try {
-            return FilterableCrudService.super.save(currentUser, entity);
+            saved = FilterableCrudService.super.save(currentUser, entity);
         } catch (DataIntegrityViolationException e) {
             throw new UserFriendlyDataException(
                     "There is already a product with that name. Please select a unique name for the product.");
         }
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Deletes a product and publishes a {@link ProductChangedEvent}.
+     *
+     * @param currentUser the user performing the action
+     * @param entity      the product to delete
+     */
+    @Override
+    public void delete(User currentUser, Product entity) {
+        FilterableCrudService.super.delete(currentUser, entity);
+        eventPublisher.publishEvent(new ProductChangedEvent(entity.getId()));
     }
 }
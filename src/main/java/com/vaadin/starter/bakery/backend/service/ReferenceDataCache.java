@@ -0,0 +1,93 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.vaadin.starter.bakery.app.HasLogger;
+import com.vaadin.starter.bakery.backend.data.entity.AbstractEntity;
+
+/**
+ * Access to the Hibernate second-level cache of the rarely changing reference
+ * entities ({@code Product}, {@code PickupLocation} and {@code User}).
+ * <p>
+ * Hibernate keeps the cached entities up to date on its own writes. The
+ * services evict explicitly on save and delete so cached query results never
+ * outlive a change, and this class reports the hit and miss counts of the
+ * cache regions.
+ */
+@Service
+public class ReferenceDataCache implements HasLogger {
+
+	private final SessionFactory sessionFactory;
+
+	/**
+	 * Creates a new {@code ReferenceDataCache}.
+	 *
+	 * @param entityManagerFactory the entity manager factory owning the cache
+	 */
+	@Autowired
+	public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+	}
+
+	/**
+	 * Evicts an entity and all cached query results.
+	 *
+	 * @param entity the saved or deleted entity
+	 */
+	public void evict(AbstractEntity entity) {
+		if (entity == null || entity.getId() == null) {
+			return;
+		}
+		sessionFactory.getCache().evictEntityData(Hibernate.getClass(entity), entity.getId());
+		sessionFactory.getCache().evictDefaultQueryRegion();
+		getLogger().debug("Evicted {} {} from the second-level cache", Hibernate.getClass(entity).getSimpleName(),
+				entity.getId());
+	}
+
+	/**
+	 * Gets the number of times an entity of the given type was found in the
+	 * cache.
+	 *
+	 * @param entityType the cached entity type
+	 * @return the hit count since startup
+	 */
+	public long getHitCount(Class<? extends AbstractEntity> entityType) {
+		CacheRegionStatistics region = getRegionStatistics(entityType);
+		return region == null ? 0 : region.getHitCount();
+	}
+
+	/**
+	 * Gets the number of times an entity of the given type was looked up in
+	 * the cache but had to be loaded from the database.
+	 *
+	 * @param entityType the cached entity type
+	 * @return the miss count since startup
+	 */
+	public long getMissCount(Class<? extends AbstractEntity> entityType) {
+		CacheRegionStatistics region = getRegionStatistics(entityType);
+		return region == null ? 0 : region.getMissCount();
+	}
+
+	public long getQueryHitCount() {
+		return getStatistics().getQueryCacheHitCount();
+	}
+
+	public long getQueryMissCount() {
+		return getStatistics().getQueryCacheMissCount();
+	}
+
+	private CacheRegionStatistics getRegionStatistics(Class<? extends AbstractEntity> entityType) {
+		return getStatistics().getDomainDataRegionStatistics(entityType.getName());
+	}
+
+	private Statistics getStatistics() {
+		return sessionFactory.getStatistics();
+	}
+}
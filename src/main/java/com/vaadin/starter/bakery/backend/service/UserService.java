@@ -29,14 +29,19 @@ public class UserService implements FilterableCrudService<User> {
     /** Repository for accessing {@link User} data. */
     private final UserRepository userRepository;
 
+    /** Second-level cache the users are kept in. */
+    private final ReferenceDataCache referenceDataCache;
+
     /**
      * Creates a new {@link UserService} with the given {@link UserRepository}.
      *
-     * @param userRepository the user repository
+     * @param userRepository     the user repository
+     * @param referenceDataCache the cache to evict saved and deleted users from
      */
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ReferenceDataCache referenceDataCache) {
         this.userRepository = userRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -84,6 +89,11 @@ public class UserService implements FilterableCrudService<User> {
         return userRepository;
     }
 
+    @Override
+    public ReferenceDataCache getCache() {
+        return referenceDataCache;
+    }
+
     /**
      * Finds all users with pagination.
      *
@@ -105,7 +115,7 @@ public class UserService implements FilterableCrudService<User> {
     @Override
     public User save(User currentUser, User entity) {
         throwIfUserLocked(entity);
-        return getRepository().saveAndFlush(entity);
+        return FilterableCrudService.super.save(currentUser, entity);
     }
 
     /**
@@ -14,6 +14,7 @@ import com.vaadin.starter.bakery.backend.data.entity.AbstractEntity;
 import com.vaadin.starter.bakery.backend.data.entity.util.EntityUtil;
 import com.vaadin.starter.bakery.backend.service.FilterableCrudService;
 import com.vaadin.starter.bakery.ui.components.SearchBar;
+import com.vaadin.starter.bakery.ui.utils.GridUtil;
 import com.vaadin.starter.bakery.ui.utils.TemplateUtil;
 import com.vaadin.starter.bakery.ui.views.HasNotifications;
 
@@ -37,6 +38,16 @@ public abstract class AbstractBakeryCrudView<E extends AbstractEntity> extends V
 
     public AbstractBakeryCrudView(Class<E> beanType, FilterableCrudService<E> service,
                                   Grid<E> grid, CrudEditor<E> editor, CurrentUser currentUser) {
+        this(beanType, service, grid, editor, currentUser, false);
+    }
+
+    /**
+     * @param undefinedGridSize {@code true} to let the grid estimate its size
+     *                          instead of counting the matching entities
+     */
+    public AbstractBakeryCrudView(Class<E> beanType, FilterableCrudService<E> service,
+                                  Grid<E> grid, CrudEditor<E> editor, CurrentUser currentUser,
+                                  boolean undefinedGridSize) {
         setHeightFull();
         setPadding(false);
         setSpacing(false);
@@ -58,7 +69,7 @@ public abstract class AbstractBakeryCrudView<E extends AbstractEntity> extends V
         crud.setHeightFull();
 
         CrudEntityDataProvider<E> dataProvider = new CrudEntityDataProvider<>(service);
-        grid.setDataProvider(dataProvider);
+        GridUtil.setDataProvider(grid, dataProvider, undefinedGridSize);
         setupGrid(grid);
         Crud.addEditColumn(grid);
 
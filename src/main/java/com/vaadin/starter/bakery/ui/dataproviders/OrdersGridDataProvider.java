@@ -3,11 +3,15 @@ package com.vaadin.starter.bakery.ui.dataproviders;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.vaadin.artur.spring.dataprovider.FilterablePageableDataProvider;
@@ -17,12 +21,25 @@ import com.vaadin.flow.data.provider.QuerySortOrder;
 import com.vaadin.flow.data.provider.QuerySortOrderBuilder;
 import com.vaadin.flow.spring.annotation.SpringComponent;
 import com.vaadin.flow.spring.annotation.UIScope;
+import com.vaadin.starter.bakery.backend.data.OrderSortKey;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
 import com.vaadin.starter.bakery.backend.service.OrderService;
 import com.vaadin.starter.bakery.ui.utils.BakeryConst;
+import com.vaadin.starter.bakery.ui.views.storefront.OrderCardRenderContext;
 
 /**
  * A pageable order data provider.
+ * <p>
+ * In keyset mode (the default) the provider remembers the sort key of the
+ * last order of every fetched page. A page starting at or shortly after such a
+ * boundary is fetched by seeking past the key instead of skipping rows by
+ * offset, so scrolling deep into the list costs the same as the first page.
+ * Random jumps and other sort orders fall back to offset paging.
+ * <p>
+ * Every listing captures a new {@link OrderCardRenderContext} when it starts,
+ * that is when its size is counted or, if the size is not counted, when its
+ * first page is fetched. The count, the pages and the cards of the listing all
+ * use the cut-off date and the day of that context.
  */
 @SpringComponent
 @UIScope
@@ -48,12 +65,38 @@ public class OrdersGridDataProvider extends FilterablePageableDataProvider<Order
 		public static OrderFilter getEmptyFilter() {
 			return new OrderFilter("", false);
 		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			OrderFilter that = (OrderFilter) o;
+			return showPrevious == that.showPrevious && Objects.equals(filter, that.filter);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(filter, showPrevious);
+		}
 	}
 
 	private final OrderService orderService;
 	private List<QuerySortOrder> defaultSortOrders;
-	private Consumer<Page<Order>> pageObserver;
-	
+
+	private boolean keysetPaging = true;
+	private final Sort keysetSort = Sort.by(BakeryConst.DEFAULT_SORT_DIRECTION, BakeryConst.ORDER_SORT_FIELDS);
+	// Offset of the first order after a fetched page -> sort key of the last order of that page
+	private final NavigableMap<Long, OrderSortKey> pageBoundaries = new TreeMap<>();
+	private OrderFilter boundaryFilter;
+	private Optional<LocalDate> boundaryFilterDate;
+	private OrderCardRenderContext renderContext = OrderCardRenderContext.now();
+	// Whether the size was counted since the first page was last fetched, with the context of the listing
+	private boolean sizeCounted;
+
 	@Autowired
 	public OrdersGridDataProvider(OrderService orderService) {
 		this.orderService = orderService;
@@ -74,15 +117,76 @@ public class OrdersGridDataProvider extends FilterablePageableDataProvider<Order
 
 	@Override
 	protected Page<Order> fetchFromBackEnd(Query<Order, OrderFilter> query, Pageable pageable) {
+		if (pageable.getOffset() == 0) {
+			if (!sizeCounted) {
+				renderContext = OrderCardRenderContext.now();
+			}
+			sizeCounted = false;
+		}
 		OrderFilter filter = query.getFilter().orElse(OrderFilter.getEmptyFilter());
-		Page<Order> page = orderService.findAnyMatchingAfterDueDate(Optional.ofNullable(filter.getFilter()),
-				getFilterDate(filter.isShowPrevious()), pageable);
-		if (pageObserver != null) {
-			pageObserver.accept(page);
+		Optional<String> filterText = Optional.ofNullable(filter.getFilter());
+		Optional<LocalDate> filterDate = getFilterDate(filter.isShowPrevious(), renderContext.getToday());
+		boolean keyset = keysetPaging && keysetSort.equals(pageable.getSort());
+		Page<Order> page = null;
+		if (keyset) {
+			if (!filter.equals(boundaryFilter) || !filterDate.equals(boundaryFilterDate)) {
+				pageBoundaries.clear();
+				boundaryFilter = filter;
+				boundaryFilterDate = filterDate;
+			}
+			page = seek(filterText, filterDate, pageable);
+		}
+		if (page == null) {
+			page = orderService.findAnyMatchingAfterDueDate(filterText, filterDate, pageable);
+		}
+		if (keyset && page.hasContent()) {
+			List<Order> content = page.getContent();
+			pageBoundaries.put(pageable.getOffset() + content.size(), OrderSortKey.of(content.get(content.size() - 1)));
 		}
 		return page;
 	}
 
+	/**
+	 * Fetches a page by seeking from the nearest remembered page boundary.
+	 *
+	 * @return the page, or {@code null} if there is no boundary close enough
+	 *         before the requested offset
+	 */
+	private Page<Order> seek(Optional<String> filterText, Optional<LocalDate> filterDate, Pageable pageable) {
+		if (pageable.getOffset() == 0) {
+			return null;
+		}
+		Map.Entry<Long, OrderSortKey> boundary = pageBoundaries.floorEntry(pageable.getOffset());
+		if (boundary == null) {
+			return null;
+		}
+		int skip = (int) (pageable.getOffset() - boundary.getKey());
+		if (skip > pageable.getPageSize()) {
+			return null;
+		}
+		List<Order> orders = orderService.findAnyMatchingAfterDueDateAndSortKey(filterText, filterDate,
+				boundary.getValue(), skip + pageable.getPageSize());
+		List<Order> content = orders.subList(Math.min(skip, orders.size()), orders.size());
+		return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+	}
+
+	@Override
+	public void refreshAll() {
+		pageBoundaries.clear();
+		super.refreshAll();
+	}
+
+	/**
+	 * Enables or disables keyset paging. When disabled, every page is fetched
+	 * by offset.
+	 *
+	 * @param keysetPaging {@code true} to seek from remembered page boundaries
+	 */
+	public void setKeysetPaging(boolean keysetPaging) {
+		this.keysetPaging = keysetPaging;
+		pageBoundaries.clear();
+	}
+
 	@Override
 	protected List<QuerySortOrder> getDefaultSortOrders() {
 		return defaultSortOrders;
@@ -90,21 +194,29 @@ public class OrdersGridDataProvider extends FilterablePageableDataProvider<Order
 
 	@Override
 	protected int sizeInBackEnd(Query<Order, OrderFilter> query) {
+		renderContext = OrderCardRenderContext.now();
+		sizeCounted = true;
 		OrderFilter filter = query.getFilter().orElse(OrderFilter.getEmptyFilter());
-		return (int) orderService
-				.countAnyMatchingAfterDueDate(Optional.ofNullable(filter.getFilter()), getFilterDate(filter.isShowPrevious()));
+		return (int) orderService.countAnyMatchingAfterDueDate(Optional.ofNullable(filter.getFilter()),
+				getFilterDate(filter.isShowPrevious(), renderContext.getToday()));
+	}
+
+	/**
+	 * Gets the dates the orders of the current listing are to be rendered
+	 * against.
+	 *
+	 * @return the render context captured when the listing started
+	 */
+	public OrderCardRenderContext getRenderContext() {
+		return renderContext;
 	}
 
-	private Optional<LocalDate> getFilterDate(boolean showPrevious) {
+	private Optional<LocalDate> getFilterDate(boolean showPrevious, LocalDate today) {
 		if (showPrevious) {
 			return Optional.empty();
 		}
 
-		return Optional.of(LocalDate.now().minusDays(1));
-	}
-
-	public void setPageObserver(Consumer<Page<Order>> pageObserver) {
-		this.pageObserver = pageObserver;
+		return Optional.of(today.minusDays(1));
 	}
 
 	@Override
@@ -0,0 +1,34 @@
+package com.vaadin.starter.bakery.ui.dataproviders;
+
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.service.ProductCatalog;
+
+/**
+ * A product data provider filtering the shared {@link ProductCatalog} in
+ * memory, for the product pickers of the order editor. Every query reads the
+ * current version of the catalog, so changed products show up the next time a
+ * picker is opened or filtered.
+ */
+public class ProductCatalogDataProvider extends AbstractBackEndDataProvider<Product, String> {
+
+	private final ProductCatalog catalog;
+
+	public ProductCatalogDataProvider(ProductCatalog catalog) {
+		this.catalog = catalog;
+	}
+
+	@Override
+	protected Stream<Product> fetchFromBackEnd(Query<Product, String> query) {
+		return catalog.getSnapshot().find(query.getFilter().orElse(null)).stream().skip(query.getOffset())
+				.limit(query.getLimit());
+	}
+
+	@Override
+	protected int sizeInBackEnd(Query<Product, String> query) {
+		return catalog.getSnapshot().find(query.getFilter().orElse(null)).size();
+	}
+}
@@ -33,6 +33,12 @@ public class BakeryConst {
 	public static final String[] ORDER_SORT_FIELDS = {"dueDate", "dueTime", "id"};
 	public static final Sort.Direction DEFAULT_SORT_DIRECTION = Sort.Direction.ASC;
 
+	// Initial item count and increase step of grids in undefined size mode
+	public static final int GRID_ITEM_COUNT_ESTIMATE = 200;
+
+	// Number of order history entries shown at first and loaded per "Show older" click
+	public static final int ORDER_HISTORY_PAGE_SIZE = 20;
+
 	public static final String VIEWPORT = "width=device-width, minimum-scale=1, initial-scale=1, user-scalable=yes, viewport-fit=cover";
 
 	// Mutable for testing.
@@ -0,0 +1,95 @@
+package com.vaadin.starter.bakery.ui.utils;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats amounts given in cents the same way a {@link DecimalFormat} with two
+ * fraction digits formats {@code BigDecimal.valueOf(cents, 2)}, using the
+ * prefixes, suffixes and symbols read from that format once.
+ * <p>
+ * Instances are immutable and can be shared between threads, unlike the
+ * {@link DecimalFormat} they are created from.
+ */
+public final class CentsFormat {
+
+	private static final char CURRENCY_SIGN = '\u00A4';
+
+	private final DecimalFormat fallback;
+	private final String positivePrefix;
+	private final String positiveSuffix;
+	private final String negativePrefix;
+	private final String negativeSuffix;
+	private final char zeroDigit;
+	private final char decimalSeparator;
+	private final char groupingSeparator;
+	private final int groupingSize;
+	private final int minimumIntegerDigits;
+
+	/**
+	 * Creates a new {@code CentsFormat} with the pattern and symbols of the
+	 * given format. The format is copied and not modified.
+	 *
+	 * @param format the format to reproduce
+	 */
+	public CentsFormat(DecimalFormat format) {
+		DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+		positivePrefix = format.getPositivePrefix();
+		positiveSuffix = format.getPositiveSuffix();
+		negativePrefix = format.getNegativePrefix();
+		negativeSuffix = format.getNegativeSuffix();
+		zeroDigit = symbols.getZeroDigit();
+		decimalSeparator = format.toPattern().indexOf(CURRENCY_SIGN) >= 0 ? symbols.getMonetaryDecimalSeparator()
+				: symbols.getDecimalSeparator();
+		groupingSeparator = symbols.getGroupingSeparator();
+		groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+		minimumIntegerDigits = format.getMinimumIntegerDigits();
+
+		// Anything this class does not reproduce is left to a copy of the format
+		boolean supported = format.getMinimumFractionDigits() == 2 && format.getMaximumFractionDigits() == 2
+				&& format.getMultiplier() == 1 && !format.isDecimalSeparatorAlwaysShown()
+				&& minimumIntegerDigits <= 10;
+		fallback = supported ? null : (DecimalFormat) format.clone();
+	}
+
+	/**
+	 * Formats an amount given in cents.
+	 *
+	 * @param cents the amount in cents
+	 * @return the formatted amount
+	 */
+	public String format(int cents) {
+		if (fallback != null) {
+			synchronized (fallback) {
+				return fallback.format(BigDecimal.valueOf(cents, 2));
+			}
+		}
+
+		boolean negative = cents < 0;
+		long value = Math.abs((long) cents);
+		long units = value / 100;
+		int fraction = (int) (value % 100);
+
+		// At most 10 digits, 9 grouping separators and the fraction
+		char[] digits = new char[24];
+		int position = digits.length;
+		digits[--position] = (char) (zeroDigit + fraction % 10);
+		digits[--position] = (char) (zeroDigit + fraction / 10);
+		digits[--position] = decimalSeparator;
+		int written = 0;
+		do {
+			if (groupingSize > 0 && written > 0 && written % groupingSize == 0) {
+				digits[--position] = groupingSeparator;
+			}
+			digits[--position] = (char) (zeroDigit + units % 10);
+			units /= 10;
+			written++;
+		} while (units > 0 || written < minimumIntegerDigits);
+
+		String prefix = negative ? negativePrefix : positivePrefix;
+		String suffix = negative ? negativeSuffix : positiveSuffix;
+		return new StringBuilder(prefix.length() + digits.length - position + suffix.length()).append(prefix)
+				.append(digits, position, digits.length - position).append(suffix).toString();
+	}
+}
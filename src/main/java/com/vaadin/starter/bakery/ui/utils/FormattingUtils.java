@@ -1,10 +1,10 @@
 package com.vaadin.starter.bakery.ui.utils;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.time.temporal.TemporalField;
@@ -49,20 +49,67 @@ public class FormattingUtils {
 	public static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter
 			.ofPattern("h:mm a", BakeryConst.APP_LOCALE);
 
+	private static final String[] FULL_MONTH_NAMES = new String[Month.values().length];
+
+	static {
+		for (Month month : Month.values()) {
+			FULL_MONTH_NAMES[month.ordinal()] = month.getDisplayName(TextStyle.FULL, BakeryConst.APP_LOCALE);
+		}
+	}
+
+	/**
+	 * Template for {@link #getUiPriceFormatter()}, never handed out itself as
+	 * {@link DecimalFormat} is not thread safe.
+	 */
+	private static final DecimalFormat UI_PRICE_FORMAT = createUiPriceFormat();
+
+	private static final CentsFormat CURRENCY_FORMAT = new CentsFormat(
+			(DecimalFormat) NumberFormat.getCurrencyInstance(BakeryConst.APP_LOCALE));
+
+	private static final CentsFormat UI_PRICE_CENTS_FORMAT = new CentsFormat(UI_PRICE_FORMAT);
+
 	/**
 	 * Returns the month name of the date, according to the application locale. 
 	 * @param date {@link LocalDate}
 	 * @return The full month name. E.g: November
 	 */
 	public static String getFullMonthName(LocalDate date) {
-		return date.getMonth().getDisplayName(TextStyle.FULL, BakeryConst.APP_LOCALE);
+		return FULL_MONTH_NAMES[date.getMonth().ordinal()];
 	}
 
+	/**
+	 * Formats an amount in cents as currency of the application locale. E.g:
+	 * $1,234.56
+	 *
+	 * @param valueInCents the amount in cents
+	 * @return the formatted amount
+	 */
 	public static String formatAsCurrency(int valueInCents) {
-		return NumberFormat.getCurrencyInstance(BakeryConst.APP_LOCALE).format(BigDecimal.valueOf(valueInCents, 2));
+		return CURRENCY_FORMAT.format(valueInCents);
+	}
+
+	/**
+	 * Formats an amount in cents the same way as {@link #getUiPriceFormatter()}.
+	 * E.g: 1234.56
+	 *
+	 * @param valueInCents the amount in cents
+	 * @return the formatted amount
+	 */
+	public static String formatAsUiPrice(int valueInCents) {
+		return UI_PRICE_CENTS_FORMAT.format(valueInCents);
 	}
 
+	/**
+	 * Returns a new formatter for prices edited in the UI. A new instance is
+	 * returned on every call as it is not thread safe.
+	 *
+	 * @return the price formatter
+	 */
 	public static DecimalFormat getUiPriceFormatter() {
+		return (DecimalFormat) UI_PRICE_FORMAT.clone();
+	}
+
+	private static DecimalFormat createUiPriceFormat() {
 		DecimalFormat formatter = new DecimalFormat("#" + DECIMAL_ZERO,
 				DecimalFormatSymbols.getInstance(BakeryConst.APP_LOCALE));
 		formatter.setGroupingUsed(false);
@@ -0,0 +1,30 @@
+package com.vaadin.starter.bakery.ui.utils;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridLazyDataView;
+import com.vaadin.flow.data.provider.BackEndDataProvider;
+
+public class GridUtil {
+
+	/**
+	 * Sets a lazy data provider for the grid.
+	 * <p>
+	 * With an undefined size the grid never asks the data provider for an
+	 * exact count. It starts from an estimate, which it grows while the user
+	 * scrolls and replaces with the exact size once a fetch returns fewer items
+	 * than requested.
+	 *
+	 * @param grid          the grid
+	 * @param dataProvider  the data provider
+	 * @param undefinedSize {@code true} to skip the count queries
+	 */
+	public static <T> void setDataProvider(Grid<T> grid, BackEndDataProvider<T, ?> dataProvider,
+			boolean undefinedSize) {
+		grid.setDataProvider(dataProvider);
+		if (undefinedSize) {
+			GridLazyDataView<T> dataView = grid.getLazyDataView();
+			dataView.setItemCountEstimate(BakeryConst.GRID_ITEM_COUNT_ESTIMATE);
+			dataView.setItemCountEstimateIncrease(BakeryConst.GRID_ITEM_COUNT_ESTIMATE);
+		}
+	}
+}
@@ -2,7 +2,6 @@ package com.vaadin.starter.bakery.ui.views.admin.products;
 
 import static com.vaadin.starter.bakery.ui.dataproviders.DataProviderUtil.convertIfNotNull;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 
@@ -26,6 +25,6 @@ class PriceConverter implements Converter<String, Integer> {
 
 	@Override
 	public String convertToPresentation(Integer modelValue, ValueContext valueContext) {
-		return convertIfNotNull(modelValue, i -> df.format(BigDecimal.valueOf(i, 2)), () -> "");
+		return convertIfNotNull(modelValue, FormattingUtils::formatAsUiPrice, () -> "");
 	}
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import com.vaadin.starter.bakery.ui.crud.AbstractBakeryCrudView;
 import com.vaadin.starter.bakery.ui.utils.BakeryConst;
 import com.vaadin.starter.bakery.ui.utils.converters.CurrencyFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Currency;
 
@@ -32,8 +33,9 @@ public class ProductsView extends AbstractBakeryCrudView<Product> {
 	private CurrencyFormatter currencyFormatter = new CurrencyFormatter();
 
 	@Autowired
-	public ProductsView(ProductService service, CurrentUser currentUser) {
-		super(Product.class, service, new Grid<>(), createForm(), currentUser);
+	public ProductsView(ProductService service, CurrentUser currentUser,
+			@Value("${bakery.grid.undefined-size:false}") boolean undefinedGridSize) {
+		super(Product.class, service, new Grid<>(), createForm(), currentUser, undefinedGridSize);
 	}
 
 	@Override
@@ -7,9 +7,8 @@ import java.time.temporal.ChronoUnit;
 import java.util.Iterator;
 
 import com.vaadin.starter.bakery.backend.data.DeliveryStats;
+import com.vaadin.starter.bakery.backend.data.OrderDueInfo;
 import com.vaadin.starter.bakery.backend.data.OrderState;
-import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.OrderSummary;
 import com.vaadin.starter.bakery.ui.views.storefront.beans.OrdersCountData;
 import com.vaadin.starter.bakery.ui.views.storefront.beans.OrdersCountDataWithChart;
 
@@ -19,7 +18,7 @@ public class DashboardUtils {
 	private static final String NEXT_DELIVERY_PATTERN = "Next Delivery %s";
 
 	public static OrdersCountDataWithChart getTodaysOrdersCountData(DeliveryStats deliveryStats,
-			Iterator<OrderSummary> ordersIterator) {
+			Iterator<OrderDueInfo> ordersIterator) {
 		OrdersCountDataWithChart ordersCountData = new OrdersCountDataWithChart("Remaining Today", null,
 				deliveryStats.getDueToday() - deliveryStats.getDeliveredToday(), deliveryStats.getDueToday());
 
@@ -27,7 +26,7 @@ public class DashboardUtils {
 		LocalTime time = LocalTime.now();
 		while (ordersIterator.hasNext()) {
 
-			OrderSummary order = ordersIterator.next();
+			OrderDueInfo order = ordersIterator.next();
 			if (isOrderNextToDeliver(order, date, time)) {
 				if (order.getDueDate().isEqual(date))
 					ordersCountData.setSubtitle(String.format(NEXT_DELIVERY_PATTERN, order.getDueTime()));
@@ -42,7 +41,7 @@ public class DashboardUtils {
 		return ordersCountData;
 	}
 
-	private static boolean isOrderNextToDeliver(OrderSummary order, LocalDate nowDate, LocalTime nowTime) {
+	private static boolean isOrderNextToDeliver(OrderDueInfo order, LocalDate nowDate, LocalTime nowTime) {
 		// ready order starting from current time
 		return order.getState() == OrderState.READY
 				&& ((order.getDueDate().isEqual(nowDate) && order.getDueTime().isAfter(nowTime))
@@ -57,13 +56,13 @@ public class DashboardUtils {
 	}
 
 	public static OrdersCountData getTomorrowOrdersCountData(DeliveryStats deliveryStats,
-			Iterator<OrderSummary> ordersIterator) {
+			Iterator<OrderDueInfo> ordersIterator) {
 		OrdersCountData ordersCountData = new OrdersCountData("Tomorrow", null, deliveryStats.getDueTomorrow());
 
 		LocalDate date = LocalDate.now().plusDays(1);
 		LocalTime minTime = LocalTime.MAX;
 		while (ordersIterator.hasNext()) {
-			OrderSummary order = ordersIterator.next();
+			OrderDueInfo order = ordersIterator.next();
 			if (order.getDueDate().isBefore(date)) {
 				continue;
 			}
@@ -85,15 +84,17 @@ public class DashboardUtils {
 		return ordersCountData;
 	}
 
-	public static OrdersCountData getNewOrdersCountData(DeliveryStats deliveryStats, Order lastOrder) {
-		return new OrdersCountData("New", createSubtitle(lastOrder), deliveryStats.getNewOrders());
+	public static OrdersCountData getNewOrdersCountData(DeliveryStats deliveryStats, LocalDateTime lastOrderPlaced) {
+		return new OrdersCountData("New", createSubtitle(lastOrderPlaced), deliveryStats.getNewOrders());
 	}
 
 	private static final String NEW_ORDERS_COUNT_SUBTITLE_PATTERN = "Last %d%s ago";
 
-	private static String createSubtitle(Order lastOrder) {
+	private static String createSubtitle(LocalDateTime timestamp) {
+		if (timestamp == null) {
+			return null;
+		}
 		LocalDateTime currTime = LocalDateTime.now();
-		LocalDateTime timestamp = lastOrder.getHistory().get(0).getTimestamp();
 
 		long value = timestamp.until(currTime, ChronoUnit.DAYS);
 		if (value > 0) {
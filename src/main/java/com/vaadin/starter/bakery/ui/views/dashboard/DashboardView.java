@@ -1,11 +1,18 @@
 package com.vaadin.starter.bakery.ui.views.dashboard;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.MonthDay;
 import java.time.Year;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -13,9 +20,11 @@ import javax.annotation.security.PermitAll;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.charts.Chart;
 import com.vaadin.flow.component.charts.events.ChartLoadEvent;
 import com.vaadin.flow.component.charts.model.Background;
@@ -28,17 +37,21 @@ import com.vaadin.flow.component.charts.model.ListSeries;
 import com.vaadin.flow.component.charts.model.Pane;
 import com.vaadin.flow.component.charts.model.PlotOptionsPie;
 import com.vaadin.flow.component.charts.model.PlotOptionsSolidgauge;
+import com.vaadin.flow.component.charts.model.Series;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.littemplate.LitTemplate;
 import com.vaadin.flow.component.template.Id;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.starter.bakery.app.HasLogger;
 import com.vaadin.starter.bakery.backend.data.DashboardData;
 import com.vaadin.starter.bakery.backend.data.DeliveryStats;
+import com.vaadin.starter.bakery.backend.data.OrderDueInfo;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.OrderSummary;
 import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.service.DashboardDataCache;
+import com.vaadin.starter.bakery.backend.service.DashboardLoader;
 import com.vaadin.starter.bakery.backend.service.OrderService;
 import com.vaadin.starter.bakery.ui.MainView;
 import com.vaadin.starter.bakery.ui.dataproviders.OrdersGridDataProvider;
@@ -52,12 +65,30 @@ import com.vaadin.starter.bakery.ui.views.storefront.beans.OrdersCountDataWithCh
 @Route(value = BakeryConst.PAGE_DASHBOARD, layout = MainView.class)
 @PageTitle(BakeryConst.TITLE_DASHBOARD)
 @PermitAll
-public class DashboardView extends LitTemplate {
+public class DashboardView extends LitTemplate implements HasLogger {
+
+	/**
+	 * The data of the four counters at the top of the dashboard.
+	 */
+	private static final class OrdersCounts {
+		private final DeliveryStats deliveryStats;
+		private final List<OrderDueInfo> dueOrders;
+		private final LocalDateTime lastOrderPlaced;
+
+		private OrdersCounts(DeliveryStats deliveryStats, List<OrderDueInfo> dueOrders,
+				LocalDateTime lastOrderPlaced) {
+			this.deliveryStats = deliveryStats;
+			this.dueOrders = dueOrders;
+			this.lastOrderPlaced = lastOrderPlaced;
+		}
+	}
 
 	private static final String[] MONTH_LABELS = new String[] {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul",
 			"Aug", "Sep", "Oct", "Nov", "Dec"};
 
 	private final OrderService orderService;
+	private final DashboardDataCache dashboardDataCache;
+	private final DashboardLoader dashboardLoader;
 
 	@Id("todayCount")
 	private DashboardCounterLabel todayCount;
@@ -90,11 +121,14 @@ public class DashboardView extends LitTemplate {
 	private Chart todayCountChart;
 
 	@Autowired
-	public DashboardView(OrderService orderService, OrdersGridDataProvider orderDataProvider) {
+	public DashboardView(OrderService orderService, DashboardDataCache dashboardDataCache,
+			DashboardLoader dashboardLoader, OrdersGridDataProvider orderDataProvider) {
 		this.orderService = orderService;
+		this.dashboardDataCache = dashboardDataCache;
+		this.dashboardLoader = dashboardLoader;
 
 		grid.addColumn(OrderCard.getTemplate()
-				.withProperty("orderCard", OrderCard::create)
+				.withProperty("orderCard", order -> OrderCard.create(order, orderDataProvider.getRenderContext()))
 				.withProperty("header", order -> null)
 				.withFunction("cardClick",
 						order -> UI.getCurrent().navigate(BakeryConst.PAGE_STOREFRONT + "/" + order.getId())));
@@ -102,15 +136,91 @@ public class DashboardView extends LitTemplate {
 		grid.setSelectionMode(Grid.SelectionMode.NONE);
 		grid.setDataProvider(orderDataProvider);
 
-		DashboardData data = orderService.getDashboardData(MonthDay.now().getMonthValue(), Year.now().getValue());
-		populateYearlySalesChart(data);
-		populateDeliveriesCharts(data);
-		populateOrdersCounts(data.getDeliveryStats());
-		initProductSplitMonthlyGraph(data.getProductDeliveries());
-
 		measurePageLoadPerformance();
 	}
 
+	@Override
+	protected void onAttach(AttachEvent attachEvent) {
+		super.onAttach(attachEvent);
+		loadData(attachEvent.getUI());
+	}
+
+	/**
+	 * Loads the data of the counters and charts in the background, each filled
+	 * in as soon as its data arrives. Charts already in the
+	 * {@link DashboardDataCache} are filled in right away. The charts are filled
+	 * by replacing their series, so loading again on a re-attach refreshes them.
+	 *
+	 * @param ui the UI to fill in the data with
+	 */
+	private void loadData(UI ui) {
+		int month = MonthDay.now().getMonthValue();
+		int year = Year.now().getValue();
+
+		CompletableFuture<OrdersCounts> counts = loadSection(ui,
+				() -> new OrdersCounts(orderService.getDeliveryStats(), orderService.findDueInfoStartingToday(),
+						orderService.findLastOrderPlacedStartingToday().orElse(null)),
+				this::populateOrdersCounts);
+
+		Optional<DashboardData> cached = dashboardDataCache.getIfPresent(month, year);
+		if (cached.isPresent()) {
+			DashboardData data = cached.get();
+			populateYearlySalesChart(data.getSalesPerMonth());
+			populateDeliveriesThisYearChart(data.getDeliveriesThisYear());
+			populateDeliveriesThisMonthChart(data.getDeliveriesThisMonth());
+			initProductSplitMonthlyGraph(data.getProductDeliveries());
+			return;
+		}
+
+		long generation = dashboardDataCache.getGeneration();
+		CompletableFuture<Number[][]> salesPerMonth = loadSection(ui,
+				() -> orderService.getSalesPerMonth(month, year), this::populateYearlySalesChart);
+		CompletableFuture<List<Number>> deliveriesThisYear = loadSection(ui,
+				() -> orderService.getDeliveriesPerMonth(year), this::populateDeliveriesThisYearChart);
+		CompletableFuture<List<Number>> deliveriesThisMonth = loadSection(ui,
+				() -> orderService.getDeliveriesPerDay(month, year), this::populateDeliveriesThisMonthChart);
+		CompletableFuture<LinkedHashMap<Product, Integer>> productDeliveries = loadSection(ui,
+				() -> orderService.getProductDeliveries(month, year), this::initProductSplitMonthlyGraph);
+
+		// Share the loaded charts with the next visitors
+		CompletableFuture.allOf(counts, salesPerMonth, deliveriesThisYear, deliveriesThisMonth, productDeliveries)
+				.thenRun(() -> {
+					DashboardData data = new DashboardData();
+					data.setDeliveryStats(counts.join().deliveryStats);
+					data.setSalesPerMonth(salesPerMonth.join());
+					data.setDeliveriesThisYear(deliveriesThisYear.join());
+					data.setDeliveriesThisMonth(deliveriesThisMonth.join());
+					data.setProductDeliveries(productDeliveries.join());
+					dashboardDataCache.put(month, year, data, generation);
+				});
+	}
+
+	/**
+	 * Loads a section of the dashboard with the {@link DashboardLoader} and
+	 * fills it in through {@link UI#access(com.vaadin.flow.server.Command)}.
+	 *
+	 * @param <T>      the type of the section data
+	 * @param ui       the UI to fill in the section with
+	 * @param section  the function reading the section data
+	 * @param populate the function filling in the section
+	 * @return the future completed with the section data
+	 */
+	private <T> CompletableFuture<T> loadSection(UI ui, Supplier<T> section, Consumer<T> populate) {
+		CompletableFuture<T> future = dashboardLoader.load(section);
+		future.whenComplete((data, error) -> {
+			if (error != null) {
+				getLogger().warn("Unable to load dashboard data", error);
+				return;
+			}
+			try {
+				ui.access(() -> populate.accept(data));
+			} catch (UIDetachedException e) {
+				// The dashboard was closed before the data arrived
+			}
+		});
+		return future;
+	}
+
 	// This method is overridden to measure the page load performance and can be safely removed
 	// if there is no need for that.
 	private void measurePageLoadPerformance() {
@@ -145,19 +255,20 @@ public class DashboardView extends LitTemplate {
 		plotOptionsPie.setInnerSize("60%");
 		plotOptionsPie.getDataLabels().setCrop(false);
 		deliveriesPerProductSeries.setPlotOptions(plotOptionsPie);
-		conf.addSeries(deliveriesPerProductSeries);
+		conf.setSeries(deliveriesPerProductSeries);
+		monthlyProductSplit.drawChart();
 	}
 
-	private void populateOrdersCounts(DeliveryStats deliveryStats) {
-		List<OrderSummary> orders = orderService.findAnyMatchingStartingToday();
+	private void populateOrdersCounts(OrdersCounts counts) {
+		DeliveryStats deliveryStats = counts.deliveryStats;
+		List<OrderDueInfo> orders = counts.dueOrders;
 
 		OrdersCountDataWithChart todaysOrdersCountData = DashboardUtils
 				.getTodaysOrdersCountData(deliveryStats, orders.iterator());
 		todayCount.setOrdersCountData(todaysOrdersCountData);
 		initTodayCountSolidgaugeChart(todaysOrdersCountData);
 		notAvailableCount.setOrdersCountData(DashboardUtils.getNotAvailableOrdersCountData(deliveryStats));
-		Order lastOrder = orderService.load(orders.get(orders.size() - 1).getId());
-		newCount.setOrdersCountData(DashboardUtils.getNewOrdersCountData(deliveryStats, lastOrder));
+		newCount.setOrdersCountData(DashboardUtils.getNewOrdersCountData(deliveryStats, counts.lastOrderPlaced));
 		tomorrowCount.setOrdersCountData(DashboardUtils.getTomorrowOrdersCountData(deliveryStats, orders.iterator()));
 	}
 
@@ -192,9 +303,10 @@ public class DashboardView extends LitTemplate {
 		background.setInnerRadius("100%");
 		background.setOuterRadius("110%");
 		pane.setBackground(background);
+		todayCountChart.drawChart();
 	}
 
-	private void populateDeliveriesCharts(DashboardData data) {
+	private void populateDeliveriesThisYearChart(List<Number> deliveriesThisYear) {
 		LocalDate today = LocalDate.now();
 
 		// init the 'Deliveries in [this year]' chart
@@ -203,20 +315,25 @@ public class DashboardView extends LitTemplate {
 
 		yearConf.setTitle("Deliveries in " + today.getYear());
 		yearConf.getxAxis().setCategories(MONTH_LABELS);
-		yearConf.addSeries(new ListSeries("per Month", data.getDeliveriesThisYear()));
+		yearConf.setSeries(new ListSeries("per Month", deliveriesThisYear));
 		yearConf.getChart().setStyledMode(true);
+		deliveriesThisYearChart.drawChart();
+	}
+
+	private void populateDeliveriesThisMonthChart(List<Number> deliveriesThisMonth) {
+		LocalDate today = LocalDate.now();
 
 		// init the 'Deliveries in [this month]' chart
 		Configuration monthConf = deliveriesThisMonthChart.getConfiguration();
 		configureColumnChart(monthConf);
 
-		List<Number> deliveriesThisMonth = data.getDeliveriesThisMonth();
 		String[] deliveriesThisMonthCategories = IntStream.rangeClosed(1, deliveriesThisMonth.size())
 				.mapToObj(String::valueOf).toArray(String[]::new);
 
 		monthConf.setTitle("Deliveries in " + FormattingUtils.getFullMonthName(today));
 		monthConf.getxAxis().setCategories(deliveriesThisMonthCategories);
-		monthConf.addSeries(new ListSeries("per Day", deliveriesThisMonth));
+		monthConf.setSeries(new ListSeries("per Day", deliveriesThisMonth));
+		deliveriesThisMonthChart.drawChart();
 	}
 
 	private void configureColumnChart(Configuration conf) {
@@ -233,7 +350,7 @@ public class DashboardView extends LitTemplate {
 		conf.getLegend().setEnabled(false);
 	}
 
-	private void populateYearlySalesChart(DashboardData data) {
+	private void populateYearlySalesChart(Number[][] salesPerMonth) {
 		Configuration conf = yearlySalesGraph.getConfiguration();
 		conf.getChart().setType(ChartType.AREASPLINE);
 		conf.getChart().setBorderRadius(4);
@@ -247,8 +364,11 @@ public class DashboardView extends LitTemplate {
 		conf.getyAxis().getTitle().setText(null);
 
 		int year = Year.now().getValue();
+		List<Series> series = new ArrayList<>();
 		for (int i = 0; i < 3; i++) {
-			conf.addSeries(new ListSeries(Integer.toString(year - i), data.getSalesPerMonth(i)));
+			series.add(new ListSeries(Integer.toString(year - i), salesPerMonth[i]));
 		}
+		conf.setSeries(series);
+		yearlySalesGraph.drawChart();
 	}
 }
@@ -4,9 +4,10 @@
 package com.vaadin.starter.bakery.ui.views.orderedit;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.LinkedList;
+
+import org.springframework.data.domain.Slice;
+
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.Tag;
@@ -19,19 +20,14 @@ import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
-import com.vaadin.starter.bakery.backend.data.entity.Product;
 import com.vaadin.starter.bakery.ui.events.CancelEvent;
 import com.vaadin.starter.bakery.ui.events.SaveEvent;
-import com.vaadin.starter.bakery.ui.utils.converters.CurrencyFormatter;
-import com.vaadin.starter.bakery.ui.utils.converters.LocalDateTimeConverter;
-import com.vaadin.starter.bakery.ui.utils.converters.LocalTimeConverter;
-import com.vaadin.starter.bakery.ui.views.storefront.converters.StorefrontLocalDateConverter;
 import com.vaadin.starter.bakery.ui.views.storefront.events.CommentEvent;
 import com.vaadin.starter.bakery.ui.views.storefront.events.EditEvent;
+import com.vaadin.starter.bakery.ui.views.storefront.events.OlderHistoryEvent;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
-import elemental.json.JsonObject;
 
 /**
  * The component displaying a full (read-only) summary of an order, and a comment
@@ -58,6 +54,9 @@ public class OrderDetails extends LitTemplate {
 	@Id("history")
 	private Element history;
 
+	@Id("olderHistory")
+	private Button olderHistory;
+
 	@Id("comment")
 	private Element comment;
 
@@ -69,6 +68,9 @@ public class OrderDetails extends LitTemplate {
 
 	private boolean isDirty;
 
+	// The shown part of the order history, oldest first
+	private final LinkedList<HistoryItem> shownHistory = new LinkedList<>();
+
 	public OrderDetails() {
 		sendComment.addClickListener(e -> {
 			String message = commentField.getValue();
@@ -81,34 +83,18 @@ public class OrderDetails extends LitTemplate {
 		save.addClickListener(e -> fireEvent(new SaveEvent(this, false)));
 		cancel.addClickListener(e -> fireEvent(new CancelEvent(this, false)));
 		edit.addClickListener(e -> fireEvent(new EditEvent(this)));
+		olderHistory.addClickListener(e -> fireEvent(new OlderHistoryEvent(this, order.getId())));
 	}
 
 	public void display(Order order, boolean review) {
 		getElement().setProperty("review", review);
 		this.order = order;
 
-		JsonObject item = beanToJson(order);
+		getElement().setPropertyJson("item", OrderDetailsSerializer.toJson(order));
 
-		// Include formatted values to the JsonObject
-		item.put("formattedDueDate", beanToJson(new StorefrontLocalDateConverter().encode(order.getDueDate())));
-		item.put("formattedDueTime", new LocalTimeConverter().encode(order.getDueTime()));
-		item.put("formattedTotalPrice", new CurrencyFormatter().encode(order.getTotalPrice()));
-
-		JsonArray orderItems = item.getArray("items");
-		for (int i = 0; i < orderItems.length(); i++) {
-			JsonObject itemProduct = orderItems.getObject(i).getObject("product");
-			Product product = order.getItems().get(i).getProduct();
-			itemProduct.put("formattedPrice", new CurrencyFormatter().encode(product.getPrice()));
-		}
-
-		JsonArray orderHistory = item.getArray("history");
-		for (int i = 0; i < orderHistory.length(); i++) {
-			JsonObject itemHistory = orderHistory.getObject(i);
-			HistoryItem historyItem = order.getHistory().get(i);
-			itemHistory.put("formattedTimestamp", new LocalDateTimeConverter().encode(historyItem.getTimestamp()));
-		}
-		
-		getElement().setPropertyJson("item", item);
+		// The history is loaded page by page with setHistory and addOlderHistory
+		shownHistory.clear();
+		updateHistory(false);
 
 		if (!review) {
 			commentField.clear();
@@ -116,16 +102,42 @@ public class OrderDetails extends LitTemplate {
 		this.isDirty = review;
 	}
 
-	// Workaround https://github.com/vaadin/flow/issues/13317
-	private JsonObject beanToJson(Object bean) {
-		try {
-			ObjectMapper objectMapper = new ObjectMapper();
-			objectMapper.registerModule(new JavaTimeModule());
-			return Json.parse(objectMapper.writeValueAsString(bean));
-		} catch (JsonProcessingException e) {
-			e.printStackTrace();
+	/**
+	 * Shows the latest history entries of the displayed order.
+	 *
+	 * @param latest the latest entries, newest first
+	 */
+	public void setHistory(Slice<HistoryItem> latest) {
+		shownHistory.clear();
+		addOlderHistory(latest);
+	}
+
+	/**
+	 * Shows history entries older than the ones already shown.
+	 *
+	 * @param older the entries before the oldest shown one, newest first
+	 */
+	public void addOlderHistory(Slice<HistoryItem> older) {
+		older.forEach(shownHistory::addFirst);
+		updateHistory(older.hasNext());
+	}
+
+	/**
+	 * Gets the oldest history entry that is shown.
+	 *
+	 * @return the oldest shown entry, or {@code null} if none is shown
+	 */
+	public HistoryItem getOldestHistoryItem() {
+		return shownHistory.peekFirst();
+	}
+
+	private void updateHistory(boolean hasOlder) {
+		JsonArray entries = Json.createArray();
+		for (HistoryItem historyItem : shownHistory) {
+			entries.set(entries.length(), OrderDetailsSerializer.toJson(historyItem));
 		}
-		return null;
+		getElement().setPropertyJson("history", entries);
+		getElement().setProperty("hasOlderHistory", hasOlder);
 	}
 
 	public boolean isDirty() {
@@ -155,4 +167,8 @@ public class OrderDetails extends LitTemplate {
 	public Registration addCancelListener(ComponentEventListener<CancelEvent> listener) {
 		return addListener(CancelEvent.class, listener);
 	}
+
+	public Registration addOlderHistoryListener(ComponentEventListener<OlderHistoryEvent> listener) {
+		return addListener(OlderHistoryEvent.class, listener);
+	}
 }
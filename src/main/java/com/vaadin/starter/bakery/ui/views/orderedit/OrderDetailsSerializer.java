@@ -0,0 +1,112 @@
+package com.vaadin.starter.bakery.ui.views.orderedit;
+
+import com.vaadin.starter.bakery.backend.data.entity.Customer;
+import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.ui.utils.converters.CurrencyFormatter;
+import com.vaadin.starter.bakery.ui.utils.converters.LocalDateTimeConverter;
+import com.vaadin.starter.bakery.ui.utils.converters.LocalTimeConverter;
+import com.vaadin.starter.bakery.ui.views.storefront.converters.StorefrontDate;
+import com.vaadin.starter.bakery.ui.views.storefront.converters.StorefrontLocalDateConverter;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Writes the properties of an order shown by {@code order-details} straight
+ * into elemental JSON objects.
+ * <p>
+ * Only the properties used by the template are written. The converters are
+ * stateless and shared by all calls.
+ */
+final class OrderDetailsSerializer {
+
+	private static final StorefrontLocalDateConverter DATE_CONVERTER = new StorefrontLocalDateConverter();
+	private static final LocalTimeConverter TIME_CONVERTER = new LocalTimeConverter();
+	private static final LocalDateTimeConverter TIMESTAMP_CONVERTER = new LocalDateTimeConverter();
+	private static final CurrencyFormatter CURRENCY_FORMATTER = new CurrencyFormatter();
+
+	private OrderDetailsSerializer() {
+		// Static methods only
+	}
+
+	static JsonObject toJson(Order order) {
+		JsonObject json = Json.createObject();
+		json.put("id", order.getId() == null ? Json.createNull() : Json.create(order.getId()));
+		json.put("state", order.getState() == null ? Json.createNull() : Json.create(order.getState().name()));
+		json.put("formattedDueDate", toJson(DATE_CONVERTER.encode(order.getDueDate())));
+		json.put("formattedDueTime", string(TIME_CONVERTER.encode(order.getDueTime())));
+		json.put("formattedTotalPrice", string(CURRENCY_FORMATTER.encode(order.getTotalPrice())));
+
+		JsonObject pickupLocation = Json.createObject();
+		if (order.getPickupLocation() != null) {
+			pickupLocation.put("name", string(order.getPickupLocation().getName()));
+		}
+		json.put("pickupLocation", pickupLocation);
+
+		Customer customer = order.getCustomer();
+		JsonObject customerJson = Json.createObject();
+		if (customer != null) {
+			customerJson.put("fullName", string(customer.getFullName()));
+			customerJson.put("phoneNumber", string(customer.getPhoneNumber()));
+			customerJson.put("details", string(customer.getDetails()));
+		}
+		json.put("customer", customerJson);
+
+		JsonArray items = Json.createArray();
+		if (order.getItems() != null) {
+			for (OrderItem item : order.getItems()) {
+				items.set(items.length(), toJson(item));
+			}
+		}
+		json.put("items", items);
+		return json;
+	}
+
+	static JsonObject toJson(HistoryItem historyItem) {
+		JsonObject createdBy = Json.createObject();
+		createdBy.put("firstName", string(historyItem.getCreatedBy().getFirstName()));
+		JsonObject json = Json.createObject();
+		json.put("createdBy", createdBy);
+		json.put("formattedTimestamp", string(TIMESTAMP_CONVERTER.encode(historyItem.getTimestamp())));
+		json.put("newState",
+				historyItem.getNewState() == null ? Json.createNull() : Json.create(historyItem.getNewState().name()));
+		json.put("message", string(historyItem.getMessage()));
+		return json;
+	}
+
+	private static JsonObject toJson(OrderItem item) {
+		JsonObject product = Json.createObject();
+		Product itemProduct = item.getProduct();
+		if (itemProduct != null) {
+			product.put("name", string(itemProduct.getName()));
+			// The price the order was placed at, like the order total
+			Integer unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : itemProduct.getPrice();
+			product.put("formattedPrice", string(CURRENCY_FORMATTER.encode(unitPrice)));
+		}
+		JsonObject json = Json.createObject();
+		json.put("product", product);
+		json.put("comment", string(item.getComment()));
+		json.put("quantity", item.getQuantity() == null ? Json.createNull() : Json.create(item.getQuantity()));
+		return json;
+	}
+
+	private static JsonValue toJson(StorefrontDate date) {
+		if (date == null) {
+			return Json.createNull();
+		}
+		JsonObject json = Json.createObject();
+		json.put("day", date.getDay());
+		json.put("weekday", date.getWeekday());
+		json.put("date", date.getDate());
+		return json;
+	}
+
+	private static JsonValue string(String value) {
+		return value == null ? Json.createNull() : Json.create(value);
+	}
+}
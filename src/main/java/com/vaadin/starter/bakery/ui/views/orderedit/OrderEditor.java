@@ -40,9 +40,10 @@ import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
 import com.vaadin.starter.bakery.backend.data.entity.Product;
 import com.vaadin.starter.bakery.backend.data.entity.User;
 import com.vaadin.starter.bakery.backend.service.PickupLocationService;
-import com.vaadin.starter.bakery.backend.service.ProductService;
+import com.vaadin.starter.bakery.backend.service.ProductCatalog;
 import com.vaadin.starter.bakery.ui.crud.CrudEntityDataProvider;
 import com.vaadin.starter.bakery.ui.dataproviders.DataProviderUtil;
+import com.vaadin.starter.bakery.ui.dataproviders.ProductCatalogDataProvider;
 import com.vaadin.starter.bakery.ui.events.CancelEvent;
 import com.vaadin.starter.bakery.ui.utils.FormattingUtils;
 import com.vaadin.starter.bakery.ui.utils.converters.LocalTimeConverter;
@@ -103,9 +104,9 @@ public class OrderEditor extends LitTemplate {
 	private final LocalTimeConverter localTimeConverter = new LocalTimeConverter();
 
 	@Autowired
-	public OrderEditor(PickupLocationService locationService, ProductService productService) {
+	public OrderEditor(PickupLocationService locationService, ProductCatalog productCatalog) {
 		DataProvider<PickupLocation, String> locationDataProvider = new CrudEntityDataProvider<>(locationService);
-		DataProvider<Product, String> productDataProvider = new CrudEntityDataProvider<>(productService);
+		DataProvider<Product, String> productDataProvider = new ProductCatalogDataProvider(productCatalog);
 		itemsEditor = new OrderItemsEditor(productDataProvider);
 
 		itemsContainer.add(itemsEditor);
@@ -80,7 +80,7 @@ public class OrderItemEditor extends LitTemplate implements HasValueAndElement<C
 		Product product = products.getValue();
 		totalPrice = 0;
 		if (selectedAmount != null && product != null) {
-			totalPrice = selectedAmount * product.getPrice();
+			totalPrice = selectedAmount * getUnitPrice(product);
 		}
 		price.setText(FormattingUtils.formatAsCurrency(totalPrice));
 		if (oldValue != totalPrice) {
@@ -88,6 +88,16 @@ public class OrderItemEditor extends LitTemplate implements HasValueAndElement<C
 		}
 	}
 
+	private int getUnitPrice(Product product) {
+		// The stored price of the order time, the current one for a newly picked product
+		OrderItem item = getValue();
+		if (item != null && item.getUnitPrice() != null && item.getProduct() != null
+				&& Objects.equals(item.getProduct().getId(), product.getId())) {
+			return item.getUnitPrice();
+		}
+		return product.getPrice();
+	}
+
 	@Override
 	public void setValue(OrderItem value) {
 		fieldSupport.setValue(value);
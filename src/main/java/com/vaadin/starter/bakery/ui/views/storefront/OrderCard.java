@@ -4,9 +4,7 @@ import static com.vaadin.starter.bakery.ui.utils.FormattingUtils.HOUR_FORMATTER;
 import static com.vaadin.starter.bakery.ui.utils.FormattingUtils.MONTH_AND_DAY_FORMATTER;
 import static com.vaadin.starter.bakery.ui.utils.FormattingUtils.SHORT_DAY_FORMATTER;
 import static com.vaadin.starter.bakery.ui.utils.FormattingUtils.WEEKDAY_FULLNAME_FORMATTER;
-import static com.vaadin.starter.bakery.ui.utils.FormattingUtils.WEEK_OF_YEAR_FIELD;
 
-import java.time.LocalDate;
 import java.util.List;
 
 import com.vaadin.flow.data.renderer.LitRenderer;
@@ -34,20 +32,19 @@ public class OrderCard {
 				+ "</order-card>");
 	}
 	
-	public static OrderCard create(OrderSummary order) {
-		return new OrderCard(order);
+	public static OrderCard create(OrderSummary order, OrderCardRenderContext context) {
+		return new OrderCard(order, context);
 	}
 
-	private boolean recent, inWeek;
+	private final boolean recent, inWeek;
 
 	private final OrderSummary order;
 	
-	public OrderCard(OrderSummary order) {
+	public OrderCard(OrderSummary order, OrderCardRenderContext context) {
 		this.order = order;
-		LocalDate now = LocalDate.now();
-		LocalDate date = order.getDueDate();
-		recent = date.equals(now) || date.equals(now.minusDays(1));
-		inWeek = !recent && now.getYear() == date.getYear() && now.get(WEEK_OF_YEAR_FIELD) == date.get(WEEK_OF_YEAR_FIELD);
+		long dueDate = order.getDueDate().toEpochDay();
+		recent = context.isRecent(dueDate);
+		inWeek = context.isElsewhereInWeek(dueDate);
 	}
 
 	public String getPlace() {
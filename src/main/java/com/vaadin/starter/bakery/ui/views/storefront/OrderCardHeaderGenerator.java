@@ -2,126 +2,61 @@ package com.vaadin.starter.bakery.ui.views.storefront;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
 
-import com.vaadin.starter.bakery.backend.data.entity.Order;
 import com.vaadin.starter.bakery.ui.views.storefront.beans.OrderCardHeader;
 
 /**
  * A utility class responsible for generating and associating chronological
- * header cards (e.g., "Today", "Yesterday", "Upcoming") with a list of {@code Order} objects
- * based on their due date.
+ * header cards (e.g., "Today", "Yesterday", "Upcoming") with orders based on
+ * their due date.
  * <p>
- * This class uses a chain of time-based predicates to group orders under appropriate headers
- * when they are processed. It prevents redundant headers for subsequent orders in the same
- * chronological grouping.
+ * Every header belongs to a range of due dates. The header is shown above the
+ * first order of its range, which is looked up for the whole listing with
+ * {@link com.vaadin.starter.bakery.backend.service.OrderService#findFirstIdPerDueDateRange}
+ * and does not depend on which pages of the listing have been fetched.
  */
 
 public class OrderCardHeaderGenerator {
 
-	/**
-	 * A private helper class that wraps a header and its associated matching logic.
-	 * It holds a predicate to determine if a date belongs to this header's group,
-	 * and tracks the ID of the first order selected for this header.
-	 */
-	private class HeaderWrapper {
-		private Predicate<LocalDate> matcher;
-
-		private OrderCardHeader header;
-
-		private Long selected;
-
-		/**
-		 * Constructs a new HeaderWrapper.
-		 *
-		 * @param matcher The predicate used to test if a {@code LocalDate} belongs to this header's group.
-		 * @param header The {@code OrderCardHeader} to associate with matching dates.
-		 */
-
-		public HeaderWrapper(Predicate<LocalDate> matcher, OrderCardHeader header) {
-			this.matcher = matcher;
-			this.header = header;
-		}
-
-		/**
-		 * Tests if the given date matches this header's criteria.
-		 *
-		 * @param date The {@code LocalDate} to test.
-		 * @return true if the date matches, false otherwise.
-		 */
-
-		public boolean matches(LocalDate date) {
-			return matcher.test(date);
-		}
-
-		/**
-		 * Gets the ID of the first order that was grouped under this header.
-		 *
-		 * @return The ID of the selected order, or null if none has been selected yet.
-		 */
-
-		public Long getSelected() {
-			return selected;
-		}
-
-		/**
-		 * Sets the ID of the first order selected for this header.
-		 *
-		 * @param selected The ID of the order.
-		 */
-
-		public void setSelected(Long selected) {
-			this.selected = selected;
-		}
-
-		/**
-		 * Gets the header associated with this wrapper.
-		 *
-		 * @return The {@code OrderCardHeader}.
-		 */
-
-		public OrderCardHeader getHeader() {
-			return header;
-		}
-	}
+	// Indexes of the ranges delimited by getDueDateRangeBounds()
+	private static final int RECENT = 0;
+	private static final int THIS_WEEK_BEFORE_YESTERDAY = 1;
+	private static final int YESTERDAY = 2;
+	private static final int TODAY = 3;
+	private static final int THIS_WEEK_STARTING_TOMORROW = 4;
+	private static final int UPCOMING = 5;
 
 	private final DateTimeFormatter HEADER_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("EEE, MMM d");
 
 	private final Map<Long, OrderCardHeader> ordersWithHeaders = new HashMap<>();
-	private List<HeaderWrapper> headerChain = new ArrayList<>();
+	private OrderCardHeader[] headers = new OrderCardHeader[UPCOMING + 1];
+	private OrderCardRenderContext renderContext = OrderCardRenderContext.now();
 
 	private OrderCardHeader getRecentHeader() {
 		return new OrderCardHeader("Recent", "Before this week");
 	}
 
 	private OrderCardHeader getYesterdayHeader() {
-		LocalDate yesterday = LocalDate.now().minusDays(1);
-		return new OrderCardHeader("Yesterday", secondaryHeaderFor(yesterday));
+		return new OrderCardHeader("Yesterday", secondaryHeaderFor(renderContext.getYesterday()));
 	}
 
 	private OrderCardHeader getTodayHeader() {
-		LocalDate today = LocalDate.now();
-		return new OrderCardHeader("Today", secondaryHeaderFor(today));
+		return new OrderCardHeader("Today", secondaryHeaderFor(renderContext.getToday()));
 	}
 
 	private OrderCardHeader getThisWeekBeforeYesterdayHeader() {
-		LocalDate today = LocalDate.now();
-		LocalDate yesterday = today.minusDays(1);
-		LocalDate thisWeekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
-		return new OrderCardHeader("This week before yesterday", secondaryHeaderFor(thisWeekStart, yesterday));
+		return new OrderCardHeader("This week before yesterday",
+				secondaryHeaderFor(renderContext.getWeekStart(), renderContext.getYesterday()));
 	}
 
 	private OrderCardHeader getThisWeekStartingTomorrow(boolean showPrevious) {
-		LocalDate today = LocalDate.now();
-		LocalDate tomorrow = today.plusDays(1);
-		LocalDate nextWeekStart = today.minusDays(today.getDayOfWeek().getValue()).plusWeeks(1);
+		LocalDate tomorrow = renderContext.getToday().plusDays(1);
 		return new OrderCardHeader(showPrevious ? "This week starting tomorrow" : "This week",
-				secondaryHeaderFor(tomorrow, nextWeekStart));
+				secondaryHeaderFor(tomorrow, renderContext.getWeekEnd()));
 	}
 
 	private OrderCardHeader getUpcomingHeader() {
@@ -140,7 +75,7 @@ public class OrderCardHeaderGenerator {
 	 * Retrieves the {@code OrderCardHeader} associated with a specific order ID.
 	 *
 	 * @param id The ID of the order.
-	 * @return The associated {@code OrderCardHeader}, or null if the order was not processed to have a header.
+	 * @return The associated {@code OrderCardHeader}, or null if the order is not the first of its group.
 	 */
 
 	public OrderCardHeader get(Long id) {
@@ -148,78 +83,91 @@ public class OrderCardHeaderGenerator {
 	}
 
 	/**
-	 * Resets the internal state of the generator by recreating the chronological
-	 * header chain and clearing the map of orders with assigned headers.
+	 * Gets the dates the current headers were created for, to render the
+	 * order cards of the same query with.
+	 *
+	 * @return The render context of the last {@link #resetHeaderChain}.
+	 */
+
+	public OrderCardRenderContext getRenderContext() {
+		return renderContext;
+	}
+
+	/**
+	 * Resets the internal state of the generator by capturing the current date,
+	 * recreating the chronological headers and clearing the map of orders
+	 * with assigned headers.
 	 *
 	 * @param showPrevious If true, headers for past time periods (like "Recent" and "Yesterday") are included.
 	 */
 
 	public void resetHeaderChain(boolean showPrevious) {
-		this.headerChain = createHeaderChain(showPrevious);
-		ordersWithHeaders.clear();
+		resetHeaderChain(showPrevious, OrderCardRenderContext.now());
 	}
 
 	/**
-	 * Processes a list of orders to assign a chronological header to the first
-	 * order found for each time period defined in the header chain.
-	 * <p>
-	 * This method iterates through the orders and assigns a header only if the
-	 * order's due date matches a header wrapper whose selected order ID is still null,
-	 * effectively ensuring that only the first order in a period gets a header.
+	 * Resets the internal state of the generator for the given dates,
+	 * recreating the chronological headers and clearing the map of orders
+	 * with assigned headers.
 	 *
-	 * @param orders A list of {@code Order} objects, expected to be sorted by due date.
+	 * @param showPrevious  If true, headers for past time periods (like "Recent" and "Yesterday") are included.
+	 * @param renderContext The dates to create the headers and their ranges for.
 	 */
 
-	public void ordersRead(List<Order> orders) {
-		Iterator<HeaderWrapper> headerIterator = headerChain.stream().filter(h -> h.getSelected() == null).iterator();
-		if (!headerIterator.hasNext()) {
-			return;
-		}
-
-		HeaderWrapper current = headerIterator.next();
-		for (Order order : orders) {
-			// If last selected, discard orders that match it.
-			if (current.getSelected() != null && current.matches(order.getDueDate())) {
-				continue;
-			}
-			while (current != null && !current.matches(order.getDueDate())) {
-				current = headerIterator.hasNext() ? headerIterator.next() : null;
-			}
-			if (current == null) {
-				break;
+	public void resetHeaderChain(boolean showPrevious, OrderCardRenderContext renderContext) {
+		this.renderContext = renderContext;
+		headers = new OrderCardHeader[UPCOMING + 1];
+		if (showPrevious) {
+			// Week starting on Monday
+			headers[RECENT] = getRecentHeader();
+			if (renderContext.getWeekStart().isBefore(renderContext.getYesterday())) {
+				headers[THIS_WEEK_BEFORE_YESTERDAY] = getThisWeekBeforeYesterdayHeader();
 			}
-			current.setSelected(order.getId());
-			ordersWithHeaders.put(order.getId(), current.getHeader());
+			headers[YESTERDAY] = getYesterdayHeader();
 		}
+		headers[TODAY] = getTodayHeader();
+		headers[THIS_WEEK_STARTING_TOMORROW] = getThisWeekStartingTomorrow(showPrevious);
+		headers[UPCOMING] = getUpcomingHeader();
+		ordersWithHeaders.clear();
 	}
 
 	/**
-	 * Creates the ordered list of {@code HeaderWrapper} objects that define the
-	 * chronological groupings for orders.
+	 * Gets the dates delimiting the due date ranges of the headers, to find
+	 * the first order of each range with.
+	 * <p>
+	 * On Mondays yesterday belongs to the previous week, so it is grouped under
+	 * "Recent" and its own range is empty.
 	 *
-	 * @param showPrevious If true, includes headers for past days/weeks.
-	 * @return A list of {@code HeaderWrapper} forming the chronological chain.
+	 * @return The ascending start dates of all ranges but the first.
 	 */
 
-	private List<HeaderWrapper> createHeaderChain(boolean showPrevious) {
-		List<HeaderWrapper> headerChain = new ArrayList<>();
-		LocalDate today = LocalDate.now();
-		LocalDate startOfTheWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
-		if (showPrevious) {
-			LocalDate yesterday = today.minusDays(1);
-			// Week starting on Monday
-			headerChain.add(new HeaderWrapper(d -> d.isBefore(startOfTheWeek), this.getRecentHeader()));
-			if (startOfTheWeek.isBefore(yesterday)) {
-				headerChain.add(new HeaderWrapper(d -> d.isBefore(yesterday) && !d.isAfter(startOfTheWeek),
-						this.getThisWeekBeforeYesterdayHeader()));
+	public List<LocalDate> getDueDateRangeBounds() {
+		LocalDate weekStart = renderContext.getWeekStart();
+		LocalDate yesterday = renderContext.getYesterday();
+		LocalDate today = renderContext.getToday();
+		return Arrays.asList(weekStart, yesterday.isBefore(weekStart) ? weekStart : yesterday, today,
+				today.plusDays(1), renderContext.getWeekEnd().plusDays(1));
+	}
+
+	/**
+	 * Assigns the headers to the first orders of their ranges.
+	 *
+	 * @param firstIds The id of the first order in each range delimited by
+	 *                 {@link #getDueDateRangeBounds()}, null for empty ranges.
+	 * @return true if any order got or lost a header.
+	 */
+
+	public boolean setFirstOrderIds(List<Long> firstIds) {
+		Map<Long, OrderCardHeader> assigned = new HashMap<>();
+		for (int range = 0; range < headers.length; range++) {
+			Long id = firstIds.get(range);
+			if (id != null && headers[range] != null) {
+				assigned.put(id, headers[range]);
 			}
-			headerChain.add(new HeaderWrapper(yesterday::equals, this.getYesterdayHeader()));
 		}
-		LocalDate firstDayOfTheNextWeek = startOfTheWeek.plusDays(7);
-		headerChain.add(new HeaderWrapper(today::equals, getTodayHeader()));
-		headerChain.add(new HeaderWrapper(d -> d.isAfter(today) && d.isBefore(firstDayOfTheNextWeek),
-				getThisWeekStartingTomorrow(showPrevious)));
-		headerChain.add(new HeaderWrapper(d -> !d.isBefore(firstDayOfTheNextWeek), getUpcomingHeader()));
-		return headerChain;
+		boolean changed = !assigned.equals(ordersWithHeaders);
+		ordersWithHeaders.clear();
+		ordersWithHeaders.putAll(assigned);
+		return changed;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.vaadin.starter.bakery.ui.views.storefront;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * The dates order cards and their headers are rendered against, captured once
+ * so that all cards of a fetch agree on what today is, also across midnight.
+ * <p>
+ * Weeks start on Monday. Dates are compared as epoch days.
+ */
+public final class OrderCardRenderContext implements Serializable {
+
+	private final LocalDate today;
+	private final long todayEpochDay;
+	private final long yesterdayEpochDay;
+	private final long weekStartEpochDay;
+	private final long nextWeekStartEpochDay;
+
+	private OrderCardRenderContext(LocalDate today) {
+		this.today = today;
+		todayEpochDay = today.toEpochDay();
+		yesterdayEpochDay = todayEpochDay - 1;
+		weekStartEpochDay = todayEpochDay - (today.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+		nextWeekStartEpochDay = weekStartEpochDay + 7;
+	}
+
+	/**
+	 * Creates a context for the current date.
+	 *
+	 * @return the context
+	 */
+	public static OrderCardRenderContext now() {
+		return of(LocalDate.now());
+	}
+
+	/**
+	 * Creates a context for the given date.
+	 *
+	 * @param today the date to treat as today
+	 * @return the context
+	 */
+	public static OrderCardRenderContext of(LocalDate today) {
+		return new OrderCardRenderContext(today);
+	}
+
+	public LocalDate getToday() {
+		return today;
+	}
+
+	public LocalDate getYesterday() {
+		return LocalDate.ofEpochDay(yesterdayEpochDay);
+	}
+
+	public LocalDate getWeekStart() {
+		return LocalDate.ofEpochDay(weekStartEpochDay);
+	}
+
+	public LocalDate getWeekEnd() {
+		return LocalDate.ofEpochDay(nextWeekStartEpochDay - 1);
+	}
+
+	public boolean isToday(long epochDay) {
+		return epochDay == todayEpochDay;
+	}
+
+	public boolean isYesterday(long epochDay) {
+		return epochDay == yesterdayEpochDay;
+	}
+
+	public boolean isBeforeThisWeek(long epochDay) {
+		return epochDay < weekStartEpochDay;
+	}
+
+	public boolean isThisWeekBeforeYesterday(long epochDay) {
+		return epochDay >= weekStartEpochDay && epochDay < yesterdayEpochDay;
+	}
+
+	public boolean isThisWeekAfterToday(long epochDay) {
+		return epochDay > todayEpochDay && epochDay < nextWeekStartEpochDay;
+	}
+
+	public boolean isAfterThisWeek(long epochDay) {
+		return epochDay >= nextWeekStartEpochDay;
+	}
+
+	/**
+	 * Tells whether the date is today or yesterday.
+	 */
+	public boolean isRecent(long epochDay) {
+		return epochDay == todayEpochDay || epochDay == yesterdayEpochDay;
+	}
+
+	/**
+	 * Tells whether the date is in the current week but neither today nor
+	 * yesterday.
+	 */
+	public boolean isElsewhereInWeek(long epochDay) {
+		return epochDay >= weekStartEpochDay && epochDay < nextWeekStartEpochDay && !isRecent(epochDay);
+	}
+}
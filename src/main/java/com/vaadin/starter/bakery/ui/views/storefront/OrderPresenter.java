@@ -1,24 +1,35 @@
 package com.vaadin.starter.bakery.ui.views.storefront;
 
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 
 import com.vaadin.flow.component.Focusable;
 import com.vaadin.flow.component.HasValue;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.spring.annotation.SpringComponent;
 import com.vaadin.starter.bakery.app.security.CurrentUser;
 import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.service.OrderChangeBroadcaster;
+import com.vaadin.starter.bakery.backend.service.OrderChanges;
 import com.vaadin.starter.bakery.backend.service.OrderService;
 import com.vaadin.starter.bakery.ui.crud.EntityPresenter;
 import com.vaadin.starter.bakery.ui.dataproviders.OrdersGridDataProvider;
 import com.vaadin.starter.bakery.ui.dataproviders.OrdersGridDataProvider.OrderFilter;
+import com.vaadin.starter.bakery.ui.utils.GridUtil;
+import com.vaadin.starter.bakery.ui.views.orderedit.OrderDetails;
 import com.vaadin.starter.bakery.ui.views.storefront.beans.OrderCardHeader;
 
+import static com.vaadin.starter.bakery.ui.utils.BakeryConst.ORDER_HISTORY_PAGE_SIZE;
 import static com.vaadin.starter.bakery.ui.utils.BakeryConst.PAGE_STOREFRONT_ORDER_EDIT;
 
 @SpringComponent
@@ -26,29 +37,37 @@ import static com.vaadin.starter.bakery.ui.utils.BakeryConst.PAGE_STOREFRONT_ORD
 public class OrderPresenter {
 
 	private OrderCardHeaderGenerator headersGenerator;
+	private OrderFilter filter = OrderFilter.getEmptyFilter();
 	private StorefrontView view;
+	// Orders this view has already refreshed itself after saving them
+	private final Set<Long> refreshedOrderIds = new HashSet<>();
 
 	private final EntityPresenter<Order, StorefrontView> entityPresenter;
 	private final OrdersGridDataProvider dataProvider;
 	private final CurrentUser currentUser;
 	private final OrderService orderService;
+	private final OrderChangeBroadcaster orderChangeBroadcaster;
+	private final boolean undefinedGridSize;
 
 	@Autowired
-	OrderPresenter(OrderService orderService, OrdersGridDataProvider dataProvider,
-			EntityPresenter<Order, StorefrontView> entityPresenter, CurrentUser currentUser) {
+	OrderPresenter(OrderService orderService, OrderChangeBroadcaster orderChangeBroadcaster,
+			OrdersGridDataProvider dataProvider, EntityPresenter<Order, StorefrontView> entityPresenter,
+			CurrentUser currentUser, @Value("${bakery.grid.undefined-size:false}") boolean undefinedGridSize) {
 		this.orderService = orderService;
+		this.orderChangeBroadcaster = orderChangeBroadcaster;
+		this.undefinedGridSize = undefinedGridSize;
 		this.entityPresenter = entityPresenter;
 		this.dataProvider = dataProvider;
 		this.currentUser = currentUser;
 		headersGenerator = new OrderCardHeaderGenerator();
-		headersGenerator.resetHeaderChain(false);
-		dataProvider.setPageObserver(p -> headersGenerator.ordersRead(p.getContent()));
+		headersGenerator.resetHeaderChain(filter.isShowPrevious());
 	}
 
 	void init(StorefrontView view) {
 		this.entityPresenter.setView(view);
 		this.view = view;
-		view.getGrid().setDataProvider(dataProvider);
+		updateHeaders();
+		GridUtil.setDataProvider(view.getGrid(), dataProvider, undefinedGridSize);
 		view.getOpenedOrderEditor().setCurrentUser(currentUser.getUser());
 		view.getOpenedOrderEditor().addCancelListener(e -> cancel());
 		view.getOpenedOrderEditor().addReviewListener(e -> review());
@@ -57,15 +76,46 @@ public class OrderPresenter {
 		view.getOpenedOrderDetails().addBackListener(e -> back());
 		view.getOpenedOrderDetails().addEditListener(e -> edit());
 		view.getOpenedOrderDetails().addCommentListener(e -> addComment(e.getMessage()));
+		view.getOpenedOrderDetails().addOlderHistoryListener(e -> loadOlderHistory(e.getOrderId()));
+		view.addAttachListener(e -> {
+			UI ui = e.getUI();
+			Registration registration = orderChangeBroadcaster
+					.register(changes -> ui.access(() -> ordersChanged(changes)));
+			view.addDetachListener(detach -> {
+				detach.unregisterListener();
+				registration.remove();
+			});
+		});
 	}
 
 	OrderCardHeader getHeaderByOrderId(Long id) {
+		updateDay();
 		return headersGenerator.get(id);
 	}
 
+	OrderCardRenderContext getRenderContext() {
+		updateDay();
+		return dataProvider.getRenderContext();
+	}
+
+	/**
+	 * Recomputes the headers and their ranges when the listing was started on
+	 * another day than the headers were created for, so that a view left open
+	 * past midnight shows the cards of a fetch under matching headers.
+	 */
+	private void updateDay() {
+		OrderCardRenderContext renderContext = dataProvider.getRenderContext();
+		if (!renderContext.getToday().equals(headersGenerator.getRenderContext().getToday())) {
+			headersGenerator.resetHeaderChain(filter.isShowPrevious(), renderContext);
+			updateHeaders();
+		}
+	}
+
 	public void filterChanged(String filter, boolean showPrevious) {
+		this.filter = new OrderFilter(filter, showPrevious);
 		headersGenerator.resetHeaderChain(showPrevious);
-		dataProvider.setFilter(new OrderFilter(filter, showPrevious));
+		updateHeaders();
+		dataProvider.setFilter(this.filter);
 	}
 
 	void onNavigation(Long id, boolean edit) {
@@ -101,6 +151,7 @@ public class OrderPresenter {
 		List<HasValue<?, ?>> fields = view.validate().collect(Collectors.toList());
 		if (fields.isEmpty()) {
 			if (entityPresenter.writeEntity()) {
+				entityPresenter.getEntity().updateTotalPrice();
 				view.setDialogElementsVisibility(false);
 				view.getOpenedOrderDetails().display(entityPresenter.getEntity(), true);
 			}
@@ -111,12 +162,19 @@ public class OrderPresenter {
 
 	void save() {
 		entityPresenter.save(e -> {
+			refreshedOrderIds.add(e.getId());
+			boolean headersChanged = updateHeaders();
 			if (entityPresenter.isNew()) {
 				view.showCreatedNotification();
 				dataProvider.refreshAll();
 			} else {
 				view.showUpdatedNotification();
-				dataProvider.refreshItem(e);
+				// Other cards only need to be rendered again if they got or lost a header
+				if (headersChanged) {
+					dataProvider.refreshAll();
+				} else {
+					dataProvider.refreshItem(e);
+				}
 			}
 			close();
 		});
@@ -130,6 +188,12 @@ public class OrderPresenter {
 		}
 	}
 
+	void loadOlderHistory(Long orderId) {
+		OrderDetails details = view.getOpenedOrderDetails();
+		details.addOlderHistory(
+				orderService.findHistoryBefore(orderId, details.getOldestHistoryItem(), ORDER_HISTORY_PAGE_SIZE));
+	}
+
 	private void open(Order order, boolean edit) {
 		view.setDialogElementsVisibility(edit);
 		view.setOpened(true);
@@ -138,9 +202,55 @@ public class OrderPresenter {
 			view.getOpenedOrderEditor().read(order, entityPresenter.isNew());
 		} else {
 			view.getOpenedOrderDetails().display(order, false);
+			view.getOpenedOrderDetails()
+					.setHistory(orderService.findLatestHistory(order.getId(), ORDER_HISTORY_PAGE_SIZE));
 		}
 	}
 
+	/**
+	 * Brings the grid up to date with changed orders. Changed rows are
+	 * refreshed in place, the grid is only fetched again when orders were
+	 * added, removed or moved, the group headers changed, or the day changed
+	 * since the listing started. Orders this view saved itself are skipped unless
+	 * their row has to move or may be filtered out.
+	 *
+	 * @param changes the orders changed since the previous notice
+	 */
+	void ordersChanged(OrderChanges changes) {
+		// A changed customer may make an order match the search filter or stop matching it
+		boolean filteredRowsChanged = changes.isCustomerChanged() && filter.getFilter() != null
+				&& !filter.getFilter().isEmpty();
+		Set<Long> orderIds = new HashSet<>(changes.getOrderIds());
+		// save() refreshed its order in place, which neither moves nor filters out the row
+		if (!changes.isStructural() && !filteredRowsChanged) {
+			orderIds.removeAll(refreshedOrderIds);
+		}
+		refreshedOrderIds.removeAll(changes.getOrderIds());
+		if (orderIds.isEmpty() && !changes.isIncomplete()) {
+			return;
+		}
+		boolean headersChanged = updateHeaders();
+		// Refreshed rows would be rendered against the day the listing started
+		boolean dayChanged = !LocalDate.now().equals(dataProvider.getRenderContext().getToday());
+		if (changes.isStructural() || changes.isIncomplete() || filteredRowsChanged || headersChanged
+				|| dayChanged) {
+			dataProvider.refreshAll();
+		} else {
+			// Rows that are not in the grid are ignored
+			orderService.findAllWithItems(orderIds).forEach(dataProvider::refreshItem);
+		}
+	}
+
+	/**
+	 * Looks up the first order of every header group for the current filter.
+	 *
+	 * @return true if any order got or lost a header
+	 */
+	private boolean updateHeaders() {
+		return headersGenerator.setFirstOrderIds(orderService.findFirstIdPerDueDateRange(
+				Optional.ofNullable(filter.getFilter()), headersGenerator.getDueDateRangeBounds()));
+	}
+
 	private void close() {
 		view.getOpenedOrderEditor().close();
 		view.setOpened(false);
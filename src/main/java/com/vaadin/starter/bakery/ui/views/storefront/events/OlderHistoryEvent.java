@@ -0,0 +1,18 @@
+package com.vaadin.starter.bakery.ui.views.storefront.events;
+
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.starter.bakery.ui.views.orderedit.OrderDetails;
+
+public class OlderHistoryEvent extends ComponentEvent<OrderDetails> {
+
+	private Long orderId;
+
+	public OlderHistoryEvent(OrderDetails component, Long orderId) {
+		super(component, false);
+		this.orderId = orderId;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+}
@@ -0,0 +1,102 @@
+-- Schema as previously generated by Hibernate (spring.jpa.hibernate.ddl-auto)
+
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table user_info (
+	id bigint not null,
+	version integer not null,
+	email varchar(255),
+	first_name varchar(255),
+	last_name varchar(255),
+	locked boolean not null,
+	password_hash varchar(255) not null,
+	role varchar(255),
+	primary key (id),
+	constraint uk_user_info_email unique (email)
+);
+
+create table product (
+	id bigint not null,
+	version integer not null,
+	name varchar(255),
+	price integer,
+	primary key (id),
+	constraint uk_product_name unique (name)
+);
+
+create table pickup_location (
+	id bigint not null,
+	version integer not null,
+	name varchar(255),
+	primary key (id),
+	constraint uk_pickup_location_name unique (name)
+);
+
+create table customer (
+	id bigint not null,
+	version integer not null,
+	details varchar(255),
+	full_name varchar(255),
+	phone_number varchar(20),
+	primary key (id)
+);
+
+create table order_info (
+	id bigint not null,
+	version integer not null,
+	due_date date not null,
+	due_time time not null,
+	state integer not null,
+	customer_id bigint not null,
+	pickup_location_id bigint not null,
+	primary key (id),
+	constraint uk_order_info_customer unique (customer_id),
+	constraint fk_order_info_customer foreign key (customer_id) references customer (id),
+	constraint fk_order_info_pickup_location foreign key (pickup_location_id) references pickup_location (id)
+);
+
+create index idx_order_info_due_date on order_info (due_date);
+
+create table order_item (
+	id bigint not null,
+	version integer not null,
+	comment varchar(255),
+	quantity integer not null,
+	product_id bigint not null,
+	items_id bigint,
+	items_order integer,
+	primary key (id),
+	constraint fk_order_item_product foreign key (product_id) references product (id),
+	constraint fk_order_item_order foreign key (items_id) references order_info (id)
+);
+
+create table history_item (
+	id bigint not null,
+	version integer not null,
+	message varchar(255),
+	new_state integer,
+	timestamp timestamp not null,
+	created_by_id bigint not null,
+	history_id bigint,
+	history_order integer,
+	primary key (id),
+	constraint fk_history_item_created_by foreign key (created_by_id) references user_info (id),
+	constraint fk_history_item_order foreign key (history_id) references order_info (id)
+);
+
+create table order_rollup (
+	id bigint not null,
+	version integer not null,
+	due_date date not null,
+	state integer not null,
+	pickup_location_id bigint not null,
+	product_id bigint,
+	order_count bigint not null,
+	quantity bigint not null,
+	revenue bigint not null,
+	primary key (id),
+	constraint fk_order_rollup_pickup_location foreign key (pickup_location_id) references pickup_location (id),
+	constraint fk_order_rollup_product foreign key (product_id) references product (id)
+);
+
+create index idx_order_rollup_due_date on order_rollup (due_date);
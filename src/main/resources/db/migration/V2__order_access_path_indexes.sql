@@ -0,0 +1,18 @@
+-- Composite and covering indexes for the order hot paths, see SchemaIndexCheck
+
+-- Due date lookups that also filter or count by state (DeliveryStats, storefront)
+drop index idx_order_info_due_date;
+create index idx_order_info_due_date_state on order_info (due_date, state);
+
+-- State first, for counts over all dates such as the "new" orders
+create index idx_order_info_state_due_date on order_info (state, due_date);
+
+-- Storefront customer name search
+create index idx_customer_full_name on customer (full_name);
+
+-- Loading the items and history of an order
+create index idx_order_item_order on order_item (items_id, items_order);
+create index idx_history_item_order on history_item (history_id, history_order);
+
+-- Dashboard aggregates filter the rollups by state and due date range
+create index idx_order_rollup_state_due_date on order_rollup (state, due_date);
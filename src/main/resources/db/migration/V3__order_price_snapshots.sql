@@ -0,0 +1,14 @@
+-- Order items keep the unit price at order time, orders keep their total price
+
+alter table order_item add column unit_price integer;
+
+update order_item set unit_price = (select p.price from product p where p.id = order_item.product_id);
+
+alter table order_item alter column unit_price set not null;
+
+alter table order_info add column total_price integer;
+
+update order_info set total_price = coalesce(
+	(select sum(oi.quantity * oi.unit_price) from order_item oi where oi.items_id = order_info.id), 0);
+
+alter table order_info alter column total_price set not null;
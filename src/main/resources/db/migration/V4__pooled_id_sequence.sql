@@ -0,0 +1,2 @@
+-- Ids are allocated in blocks of AbstractEntity.ID_ALLOCATION_SIZE with the pooled-lo optimizer
+alter sequence hibernate_sequence increment by 50;
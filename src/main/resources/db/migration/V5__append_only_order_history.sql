@@ -0,0 +1,6 @@
+-- The order history is an append-only log owned by the history items and read in timestamp order,
+-- so the list index maintained by the order is no longer needed
+drop index idx_history_item_order;
+alter table history_item drop column history_order;
+alter table history_item alter column history_id set not null;
+create index idx_history_item_order_timestamp on history_item (history_id, timestamp);
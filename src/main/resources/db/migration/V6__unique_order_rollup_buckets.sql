@@ -0,0 +1,9 @@
+-- One rollup row per (due date, state, pickup location, product) bucket. Without a unique key two transactions
+-- writing the first order of a bucket could both insert a row, and every later change updated both.
+-- Unique indexes allow any number of NULLs, so the order total rows (without a product) are keyed by product 0.
+alter table order_rollup add column product_key bigint generated always as (coalesce(product_id, 0));
+
+-- Rollups written before may hold such duplicates. They are dropped here and rebuilt from the orders on startup.
+delete from order_rollup;
+
+create unique index uk_order_rollup_bucket on order_rollup (due_date, state, pickup_location_id, product_key);
@@ -0,0 +1,3 @@
+-- The storefront searches customer names with lower(full_name) LIKE '%...%', which no index on full_name can
+-- seek, so idx_customer_full_name only cost writes. Names are searched through CustomerSearchIndex instead.
+drop index idx_customer_full_name;
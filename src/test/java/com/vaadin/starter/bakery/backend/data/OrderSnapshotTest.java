@@ -0,0 +1,84 @@
+package com.vaadin.starter.bakery.backend.data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.data.entity.User;
+
+public class OrderSnapshotTest {
+
+	@Test
+	public void snapshotOfOrderSumsLinesPerProduct() {
+		Product product = new Product();
+		product.setPrice(250);
+		Order order = createOrder(item(product, 2), item(product, 3));
+
+		OrderSnapshot snapshot = OrderSnapshot.of(order);
+
+		Assert.assertEquals(1, snapshot.getLines().size());
+		Assert.assertEquals(5, snapshot.getTotalQuantity());
+		Assert.assertEquals(1250, snapshot.getTotalRevenue());
+	}
+
+	@Test
+	public void snapshotOfRowsEqualsSnapshotOfOrder() {
+		Product product = new Product();
+		product.setPrice(250);
+		Order order = createOrder(item(product, 2));
+
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { order.getDueDate(), OrderState.NEW, null, null, 2, 250, order.getDueTime(),
+				"Ori Carter", "+1-555-0000" });
+
+		Assert.assertEquals(OrderSnapshot.of(order), OrderSnapshot.of(rows));
+	}
+
+	@Test
+	public void dueTimeAndCustomerDoNotChangeFigures() {
+		Product product = new Product();
+		product.setPrice(250);
+		Order order = createOrder(item(product, 2));
+		OrderSnapshot before = OrderSnapshot.of(order);
+
+		order.setDueTime(LocalTime.of(9, 0));
+		order.getCustomer().setFullName("Ori Carter-Smith");
+		OrderSnapshot after = OrderSnapshot.of(order);
+
+		Assert.assertNotEquals(before, after);
+		Assert.assertTrue(before.hasSameFigures(after));
+	}
+
+	@Test
+	public void incompleteOrderIsEmpty() {
+		Assert.assertTrue(OrderSnapshot.of(new Order(new User())).isEmpty());
+		Assert.assertTrue(OrderSnapshot.of(new ArrayList<>()).isEmpty());
+	}
+
+	private Order createOrder(OrderItem... items) {
+		Order order = new Order(new User());
+		order.setDueDate(LocalDate.of(2017, 11, 13));
+		order.setDueTime(LocalTime.of(8, 0));
+		order.getCustomer().setFullName("Ori Carter");
+		order.getCustomer().setPhoneNumber("+1-555-0000");
+		order.setPickupLocation(new PickupLocation());
+		order.setItems(Arrays.asList(items));
+		return order;
+	}
+
+	private OrderItem item(Product product, int quantity) {
+		OrderItem item = new OrderItem();
+		item.setProduct(product);
+		item.setQuantity(quantity);
+		return item;
+	}
+}
@@ -0,0 +1,132 @@
+package com.vaadin.starter.bakery.backend.data.entity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Saves orders with a growing number of items through Hibernate, configured
+ * with the batching settings of {@code application.properties}, and checks
+ * that the number of prepared SQL statements does not grow with the items.
+ */
+public class OrderInsertStatementCountTest {
+
+	private static final String JPA_PROPERTIES = "spring.jpa.properties.";
+
+	private static StandardServiceRegistry registry;
+	private static SessionFactory sessionFactory;
+	private static User user;
+	private static PickupLocation pickupLocation;
+	private static List<Product> products = new ArrayList<>();
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		registry = new StandardServiceRegistryBuilder().applySetting(AvailableSettings.URL, "jdbc:h2:mem:batching")
+				.applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+				.applySetting(AvailableSettings.GENERATE_STATISTICS, "true")
+				.applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+				.applySetting(AvailableSettings.JPA_VALIDATION_MODE, "none").applySettings(batchingSettings())
+				.build();
+		sessionFactory = new MetadataSources(registry).addAnnotatedClass(User.class).addAnnotatedClass(Product.class)
+				.addAnnotatedClass(PickupLocation.class).addAnnotatedClass(Customer.class)
+				.addAnnotatedClass(Order.class).addAnnotatedClass(OrderItem.class)
+				.addAnnotatedClass(HistoryItem.class).buildMetadata().buildSessionFactory();
+
+		try (Session session = sessionFactory.openSession()) {
+			session.beginTransaction();
+			user = new User();
+			user.setEmail("barista@vaadin.com");
+			user.setPasswordHash("hash");
+			user.setFirstName("Malin");
+			user.setLastName("Castro");
+			user.setRole("barista");
+			session.persist(user);
+			pickupLocation = new PickupLocation();
+			pickupLocation.setName("Store");
+			session.persist(pickupLocation);
+			for (int i = 0; i < 40; i++) {
+				Product product = new Product();
+				product.setName("Product " + i);
+				product.setPrice(100 + i);
+				session.persist(product);
+				products.add(product);
+			}
+			session.getTransaction().commit();
+		}
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		sessionFactory.close();
+		StandardServiceRegistryBuilder.destroy(registry);
+	}
+
+	@Test
+	public void statementCountDoesNotGrowWithItems() {
+		long forOne = countStatementsToSave(1);
+		long forTen = countStatementsToSave(10);
+		long forForty = countStatementsToSave(40);
+
+		// Without batching every item is inserted and then linked to the order on its own
+		Assert.assertTrue("Saving 40 items took " + forForty + " statements", forForty < 40);
+		// The only statements that may be added are the calls for a new block of ids
+		Assert.assertTrue(forTen + " statements for 10 items, " + forOne + " for one", forTen - forOne <= 1);
+		Assert.assertTrue(forForty + " statements for 40 items, " + forTen + " for ten", forForty - forTen <= 1);
+	}
+
+	private static long countStatementsToSave(int itemCount) {
+		Order order = new Order(user);
+		order.getCustomer().setFullName("Ori Carter");
+		order.getCustomer().setPhoneNumber("+1-555-0000");
+		order.setPickupLocation(pickupLocation);
+		order.setDueDate(LocalDate.of(2020, 1, 1));
+		order.setDueTime(LocalTime.of(8, 0));
+		List<OrderItem> items = new ArrayList<>();
+		for (int i = 0; i < itemCount; i++) {
+			OrderItem item = new OrderItem();
+			item.setProduct(products.get(i));
+			item.setQuantity(1);
+			items.add(item);
+		}
+		order.setItems(items);
+
+		sessionFactory.getStatistics().clear();
+		try (Session session = sessionFactory.openSession()) {
+			session.beginTransaction();
+			session.persist(order);
+			order.getHistory().forEach(session::persist);
+			session.getTransaction().commit();
+		}
+		return sessionFactory.getStatistics().getPrepareStatementCount();
+	}
+
+	private static Properties batchingSettings() throws IOException {
+		Properties application = new Properties();
+		try (InputStream in = OrderInsertStatementCountTest.class.getResourceAsStream("/application.properties")) {
+			application.load(in);
+		}
+		Properties settings = new Properties();
+		for (String name : application.stringPropertyNames()) {
+			if (name.startsWith(JPA_PROPERTIES + "hibernate.jdbc.")
+					|| name.startsWith(JPA_PROPERTIES + "hibernate.order_")) {
+				settings.setProperty(name.substring(JPA_PROPERTIES.length()), application.getProperty(name));
+			}
+		}
+		return settings;
+	}
+}
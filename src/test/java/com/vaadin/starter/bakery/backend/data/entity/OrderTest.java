@@ -0,0 +1,44 @@
+package com.vaadin.starter.bakery.backend.data.entity;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderTest {
+
+	@Test
+	public void itemKeepsPriceAtOrderTime() {
+		Product product = new Product();
+		product.setPrice(250);
+		OrderItem item = new OrderItem();
+		item.setProduct(product);
+		item.setQuantity(2);
+
+		product.setPrice(300);
+		item.setProduct(product);
+
+		Assert.assertEquals(Integer.valueOf(250), item.getUnitPrice());
+		Assert.assertEquals(500, item.getTotalPrice());
+	}
+
+	@Test
+	public void totalPriceIsUpdatedFromItems() {
+		Product croissant = new Product();
+		croissant.setPrice(150);
+		Product bread = new Product();
+		bread.setPrice(400);
+		OrderItem first = new OrderItem();
+		first.setProduct(croissant);
+		first.setQuantity(3);
+		OrderItem second = new OrderItem();
+		second.setProduct(bread);
+
+		Order order = new Order(new User());
+		order.setItems(Arrays.asList(first, second));
+		Assert.assertEquals(Integer.valueOf(0), order.getTotalPrice());
+
+		order.updateTotalPrice();
+		Assert.assertEquals(Integer.valueOf(850), order.getTotalPrice());
+	}
+}
@@ -0,0 +1,204 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+
+/**
+ * Checks on the Flyway schema that the half-open {@code dueDate} ranges of the
+ * analytics queries of {@link OrderRollupRepository} select the orders of the
+ * requested year or month, and that such a range can use a {@code due_date}
+ * index where a {@code year(dueDate)}/{@code month(dueDate)} filter cannot.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+public class DateRangeQueryTest {
+
+	private static final Pattern INDEX_CONDITION = Pattern.compile("/\\*\\s*PUBLIC\\.(\\w+):([^*]*)\\*/");
+
+	@Autowired
+	private OrderRollupRepository orderRollupRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// Due date, state, total price and item count of every order
+	private final List<Object[]> orders = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		OrderRows rows = new OrderRows(jdbcTemplate);
+		Random random = new Random(1L);
+		LocalDate start = LocalDate.of(2000, 1, 1);
+		OrderState[] states = OrderState.values();
+		for (int i = 0; i < 5_000; i++) {
+			LocalDate dueDate = start.plusDays(random.nextInt(20 * 365));
+			OrderState state = states[random.nextInt(states.length)];
+			int itemCount = 1 + random.nextInt(OrderRows.PRODUCTS);
+			rows.add(dueDate, LocalTime.NOON, state, itemCount, 0);
+			orders.add(new Object[] { dueDate, state, (long) OrderRows.totalPrice(itemCount), itemCount });
+		}
+		rows.flush();
+		// The order totals and product lines of every due date, state and pickup location, as OrderRollupService
+		// writes them
+		List<Object[]> rollups = new ArrayList<>();
+		long id = 2_000_000_000L;
+		for (Object[] totals : orderRollupRepository.aggregateOrderTotals()) {
+			rollups.add(new Object[] { id++, Date.valueOf((LocalDate) totals[0]), ((OrderState) totals[1]).ordinal(),
+					totals[2], null, totals[3], totals[4], totals[5] });
+		}
+		for (Object[] line : orderRollupRepository.aggregateProductLines()) {
+			rollups.add(new Object[] { id++, Date.valueOf((LocalDate) line[0]), ((OrderState) line[1]).ordinal(),
+					line[2], line[3], line[4], line[5], line[6] });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO order_rollup (id, version, due_date, state, pickup_location_id,"
+				+ " product_id, order_count, quantity, revenue) VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?)", rollups);
+	}
+
+	@Test
+	public void countPerMonthSelectsTheYear() {
+		for (int year = 2000; year < 2020; year += 7) {
+			LocalDate from = LocalDate.of(year, 1, 1);
+			LocalDate to = from.plusYears(1);
+			Map<Integer, Long> expected = expected(from, to, LocalDate::getMonthValue, false);
+			Assert.assertFalse(expected.isEmpty());
+			Assert.assertEquals(expected, toMap(orderRollupRepository.countPerMonth(OrderState.DELIVERED, from, to)));
+		}
+	}
+
+	@Test
+	public void countPerDaySelectsTheMonth() {
+		// Includes December to cover the year boundary
+		for (int month = 1; month <= 12; month += 11) {
+			LocalDate from = LocalDate.of(2012, month, 1);
+			LocalDate to = from.plusMonths(1);
+			Map<Integer, Long> expected = expected(from, to, LocalDate::getDayOfMonth, false);
+			Assert.assertFalse(expected.isEmpty());
+			Assert.assertEquals(expected, toMap(orderRollupRepository.countPerDay(OrderState.DELIVERED, from, to)));
+		}
+	}
+
+	@Test
+	public void sumPerMonthSelectsTheYears() {
+		LocalDate from = LocalDate.of(2012, 1, 1);
+		LocalDate to = LocalDate.of(2016, 1, 1);
+		Map<Integer, Long> sums = expected(from, to, date -> date.getYear() * 100 + date.getMonthValue(), true);
+		// Latest year first, months ascending
+		List<List<Number>> expected = new ArrayList<>();
+		sums.forEach((yearMonth, sum) -> expected.add(Arrays.asList(yearMonth / 100, yearMonth % 100, sum)));
+		expected.sort(Comparator.comparing((List<Number> row) -> -row.get(0).intValue())
+				.thenComparing(row -> row.get(1).intValue()));
+
+		Assert.assertEquals(expected, toRows(orderRollupRepository.sumPerMonth(OrderState.DELIVERED, from, to)));
+	}
+
+	@Test
+	public void countPerProductSelectsTheMonth() {
+		LocalDate from = LocalDate.of(2012, 11, 1);
+		LocalDate to = from.plusMonths(1);
+		// Item i of an order is one more of product i % PRODUCTS than the item before it
+		Map<String, Long> expected = new TreeMap<>();
+		for (Object[] order : delivered(from, to)) {
+			for (int i = 0; i < (Integer) order[3]; i++) {
+				int product = i % OrderRows.PRODUCTS;
+				expected.merge("Product " + product, product + 1L, Long::sum);
+			}
+		}
+		Assert.assertFalse(expected.isEmpty());
+
+		Map<String, Long> quantities = new TreeMap<>();
+		for (Object[] row : orderRollupRepository.countPerProduct(OrderState.DELIVERED, from, to)) {
+			quantities.put(((Product) row[1]).getName(), ((Number) row[0]).longValue());
+		}
+		Assert.assertEquals(expected, quantities);
+	}
+
+	@Test
+	public void onlyRangeFilterSeeksInDueDateIndex() {
+		String select = "SELECT count(*) FROM order_info WHERE state = " + OrderState.DELIVERED.ordinal();
+		String range = explain(select + " AND due_date >= DATE '2012-11-01' AND due_date < DATE '2012-12-01'");
+		String function = explain(select + " AND EXTRACT(YEAR FROM due_date) = 2012"
+				+ " AND EXTRACT(MONTH FROM due_date) = 11");
+
+		Assert.assertTrue(range, indexCondition(range).contains("DUE_DATE"));
+		Assert.assertFalse(function, indexCondition(function).contains("DUE_DATE"));
+	}
+
+	/**
+	 * Counts the delivered orders, or sums their total prices, per key in the
+	 * half-open range of due dates.
+	 */
+	private Map<Integer, Long> expected(LocalDate from, LocalDate to, Function<LocalDate, Integer> key,
+			boolean sumPrices) {
+		Map<Integer, Long> expected = new TreeMap<>();
+		for (Object[] order : delivered(from, to)) {
+			expected.merge(key.apply((LocalDate) order[0]), sumPrices ? (Long) order[2] : 1L, Long::sum);
+		}
+		return expected;
+	}
+
+	/**
+	 * Gets the delivered orders in the half-open range of due dates.
+	 */
+	private List<Object[]> delivered(LocalDate from, LocalDate to) {
+		List<Object[]> delivered = new ArrayList<>();
+		for (Object[] order : orders) {
+			LocalDate dueDate = (LocalDate) order[0];
+			if (order[1] == OrderState.DELIVERED && !dueDate.isBefore(from) && dueDate.isBefore(to)) {
+				delivered.add(order);
+			}
+		}
+		return delivered;
+	}
+
+	private static Map<Integer, Long> toMap(List<Object[]> rows) {
+		Map<Integer, Long> map = new TreeMap<>();
+		for (Object[] row : rows) {
+			map.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+		}
+		return map;
+	}
+
+	private static List<List<Number>> toRows(List<Object[]> rows) {
+		List<List<Number>> result = new ArrayList<>();
+		for (Object[] row : rows) {
+			result.add(Arrays.asList(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+					((Number) row[2]).longValue()));
+		}
+		return result;
+	}
+
+	private String explain(String sql) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+	}
+
+	/**
+	 * Gets the condition H2 seeks in an index with, empty for a table scan.
+	 */
+	private static String indexCondition(String plan) {
+		Matcher matcher = INDEX_CONDITION.matcher(plan.replace("\"", ""));
+		return matcher.find() ? matcher.group(2).toUpperCase() : "";
+	}
+}
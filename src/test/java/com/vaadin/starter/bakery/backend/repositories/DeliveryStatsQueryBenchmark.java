@@ -0,0 +1,69 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Times the five separate DeliveryStats count queries against the single
+ * conditional aggregation query of {@link OrderRepository#countDeliveryStats}
+ * on the Flyway schema. {@link DeliveryStatsQueryTest} checks that both count
+ * the same figures.
+ * <p>
+ * Skipped unless run with {@code -Dbenchmark=true}, the number of orders can
+ * be set with {@code -Dbenchmark.orders} (default 1 000 000).
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+public class DeliveryStatsQueryBenchmark {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryStatsQueryBenchmark.class);
+
+	private static final int ROUNDS = 20;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate today = LocalDate.now();
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+		DeliveryStatsQueryTest.addOrders(new OrderRows(jdbcTemplate), today,
+				Integer.getInteger("benchmark.orders", 1_000_000));
+	}
+
+	@Test
+	public void singlePassBenchmark() {
+		long[] separate = null;
+		long[] single = null;
+		long separateNanos = 0;
+		long singleNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			separate = DeliveryStatsQueryTest.separateCounts(orderRepository, today);
+			separateNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			single = DeliveryStatsQueryTest.singlePass(orderRepository, today);
+			singleNanos += System.nanoTime() - start;
+		}
+		Assert.assertArrayEquals(separate, single);
+		LOGGER.info("DeliveryStats of {}: 5 queries {} ms, 1 query {} ms", Arrays.toString(single),
+				String.format("%.2f", separateNanos / 1e6 / ROUNDS), String.format("%.2f", singleNanos / 1e6 / ROUNDS));
+	}
+}
@@ -0,0 +1,91 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+/**
+ * Checks on the Flyway schema that the single conditional aggregation query of
+ * {@link OrderRepository#countDeliveryStats} counts the same DeliveryStats
+ * figures as the five separate count queries.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+public class DeliveryStatsQueryTest {
+
+	static final Set<OrderState> NOT_AVAILABLE = Collections
+			.unmodifiableSet(EnumSet.complementOf(EnumSet.of(OrderState.DELIVERED, OrderState.READY,
+					OrderState.CANCELLED)));
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate today = LocalDate.now();
+
+	@Before
+	public void setUp() {
+		addOrders(new OrderRows(jdbcTemplate), today, 2_000);
+	}
+
+	/**
+	 * Adds orders due from about a thousand days before to a month after
+	 * today, in random states.
+	 */
+	static void addOrders(OrderRows rows, LocalDate today, int orders) {
+		Random random = new Random(1L);
+		OrderState[] states = OrderState.values();
+		for (int i = 0; i < orders; i++) {
+			rows.add(today.minusDays(random.nextInt(1000) - 30), LocalTime.of(8 + random.nextInt(10), 0),
+					states[random.nextInt(states.length)], 0, 0);
+		}
+		rows.flush();
+	}
+
+	@Test
+	public void singlePassMatchesSeparateCounts() {
+		long[] separate = separateCounts(orderRepository, today);
+		Assert.assertArrayEquals(separate, singlePass(orderRepository, today));
+		Assert.assertTrue("No orders due today", separate[0] > 0);
+	}
+
+	/**
+	 * Counts the figures with the five queries getDeliveryStats used before.
+	 */
+	static long[] separateCounts(OrderRepository orderRepository, LocalDate today) {
+		return new long[] { orderRepository.countByDueDate(today),
+				orderRepository.countByDueDate(today.plusDays(1)),
+				orderRepository.countByDueDateAndStateIn(today, Collections.singleton(OrderState.DELIVERED)),
+				orderRepository.countByDueDateAndStateIn(today, NOT_AVAILABLE),
+				orderRepository.countByState(OrderState.NEW) };
+	}
+
+	/**
+	 * Counts the figures with {@link OrderRepository#countDeliveryStats}.
+	 */
+	static long[] singlePass(OrderRepository orderRepository, LocalDate today) {
+		Object[] row = orderRepository.countDeliveryStats(today, today.plusDays(1), OrderState.DELIVERED,
+				NOT_AVAILABLE, OrderState.NEW).get(0);
+		long[] counts = new long[row.length];
+		for (int i = 0; i < row.length; i++) {
+			counts[i] = ((Number) row[i]).longValue();
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,105 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.ui.utils.BakeryConst;
+
+/**
+ * Checks on the Flyway schema that walking the storefront order with the
+ * keyset queries of {@link OrderRepository} returns the same pages as offset
+ * paging, including for ties on due date and due time.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+public class KeysetPaginationQueryTest {
+
+	private static final int ORDERS = 2_000;
+	private static final int PAGE_SIZE = 37;
+	private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+	private final Sort sort = Sort.by(BakeryConst.DEFAULT_SORT_DIRECTION, BakeryConst.ORDER_SORT_FIELDS);
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void setUp() {
+		OrderRows rows = new OrderRows(jdbcTemplate);
+		Random random = new Random(1L);
+		for (int i = 0; i < ORDERS; i++) {
+			// Few distinct dates and times to get many ties
+			rows.add(START.plusDays(random.nextInt(30)), LocalTime.of(8 + random.nextInt(4), 0), OrderState.NEW, 1,
+					0);
+		}
+		rows.flush();
+	}
+
+	@Test
+	public void keysetPagesMatchOffsetPages() {
+		int walked = walk(pageable -> orderRepository.findAll(pageable),
+				last -> orderRepository.findAfterSortKey(last.getDueDate(), last.getDueTime(), last.getId(),
+						PageRequest.of(0, PAGE_SIZE)));
+		Assert.assertEquals(ORDERS, walked);
+	}
+
+	@Test
+	public void keysetPagesMatchOffsetPagesAfterDueDate() {
+		LocalDate filterDate = START.plusDays(14);
+		int walked = walk(pageable -> orderRepository.findByDueDateAfter(filterDate, pageable),
+				last -> orderRepository.findAfterSortKeyAndDueDateAfter(last.getDueDate(), last.getDueTime(),
+						last.getId(), filterDate, PageRequest.of(0, PAGE_SIZE)));
+		Assert.assertEquals(orderRepository.countByDueDateAfter(filterDate), walked);
+	}
+
+	/**
+	 * Fetches all pages both by offset and by seeking past the last order of
+	 * the previous page, and compares them.
+	 *
+	 * @return the number of orders walked
+	 */
+	private int walk(Function<Pageable, Page<Order>> byOffset, Function<Order, List<Order>> afterKey) {
+		List<Order> last = null;
+		int walked = 0;
+		for (int page = 0;; page++) {
+			List<Order> offsetPage = byOffset.apply(PageRequest.of(page, PAGE_SIZE, sort)).getContent();
+			List<Order> keysetPage = last == null ? offsetPage : afterKey.apply(last.get(last.size() - 1));
+			Assert.assertEquals("Page " + page, ids(offsetPage), ids(keysetPage));
+			if (keysetPage.isEmpty()) {
+				return walked;
+			}
+			walked += keysetPage.size();
+			last = keysetPage;
+		}
+	}
+
+	private static List<Long> ids(List<Order> orders) {
+		List<Long> ids = new ArrayList<>();
+		for (Order order : orders) {
+			ids.add(order.getId());
+		}
+		return ids;
+	}
+}
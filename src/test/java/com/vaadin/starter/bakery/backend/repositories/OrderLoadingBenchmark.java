@@ -0,0 +1,147 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.HistoryItem;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+
+/**
+ * Compares loading a large order with its items and history fetch joined in one
+ * JPQL query with loading the order through {@link OrderRepository#findById}
+ * and its history with {@link HistoryItemRepository#findLatestByOrderId}, as
+ * the order details do, on the Flyway schema.
+ * <p>
+ * Skipped unless run with {@code -Dbenchmark=true}, the size of the orders can
+ * be set with {@code -Dbenchmark.items} (default 20) and
+ * {@code -Dbenchmark.history} (default 50).
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(showSql = false)
+public class OrderLoadingBenchmark {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderLoadingBenchmark.class);
+
+	private static final int ORDERS = 200;
+	private static final int ROUNDS = 2_000;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private HistoryItemRepository historyItemRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final long[] orderIds = new long[ORDERS];
+	private int items;
+	private int history;
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+		items = Integer.getInteger("benchmark.items", 20);
+		history = Integer.getInteger("benchmark.history", 50);
+		OrderRows rows = new OrderRows(jdbcTemplate);
+		for (int i = 0; i < ORDERS; i++) {
+			orderIds[i] = rows.add(LocalDate.now(), LocalTime.NOON, OrderState.NEW, items, history);
+		}
+		rows.flush();
+	}
+
+	@Test
+	public void separateHistoryQueryReturnsFewerRows() {
+		Loaded joined = null;
+		Loaded separate = null;
+		long joinedNanos = 0;
+		long separateNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long orderId = orderIds[i % ORDERS];
+			// Read from the database, not from the persistence context of the previous load
+			entityManager.clear();
+			long start = System.nanoTime();
+			joined = loadJoined(orderId);
+			joinedNanos += System.nanoTime() - start;
+
+			entityManager.clear();
+			start = System.nanoTime();
+			separate = loadSeparately(orderId);
+			separateNanos += System.nanoTime() - start;
+		}
+		Assert.assertEquals(joined.items, separate.items);
+		Assert.assertEquals(joined.history, separate.history);
+		Assert.assertEquals(items, separate.items.size());
+		Assert.assertEquals(history, separate.history.size());
+		Assert.assertEquals(items * history, joined.rows);
+		Assert.assertEquals(items + history, separate.rows);
+		LOGGER.info("Order with {} items and {} history items: joined {} rows {} ms, separate history {} rows {} ms",
+				items, history, joined.rows, String.format("%.3f", joinedNanos / 1e6 / ROUNDS), separate.rows,
+				String.format("%.3f", separateNanos / 1e6 / ROUNDS));
+	}
+
+	/**
+	 * Loads the order with its items and history fetch joined, as the order
+	 * was read before the history got a query of its own. Without
+	 * {@code DISTINCT} the query returns a history entry for every row of the
+	 * join.
+	 */
+	private Loaded loadJoined(long orderId) {
+		Loaded loaded = new Loaded();
+		List<HistoryItem> rows = entityManager.getEntityManager()
+				.createQuery("SELECT h FROM HistoryItem h JOIN FETCH h.order o JOIN FETCH o.customer"
+						+ " JOIN FETCH o.pickupLocation LEFT JOIN FETCH o.items WHERE o.id = ?1", HistoryItem.class)
+				.setParameter(1, orderId).getResultList();
+		for (HistoryItem item : rows) {
+			loaded.history.add(item.getId());
+		}
+		for (OrderItem item : rows.get(0).getOrder().getItems()) {
+			loaded.items.add(item.getId());
+		}
+		loaded.rows = rows.size();
+		return loaded;
+	}
+
+	private Loaded loadSeparately(long orderId) {
+		Loaded loaded = new Loaded();
+		Order order = orderRepository.findById(orderId).get();
+		for (OrderItem item : order.getItems()) {
+			loaded.items.add(item.getId());
+		}
+		Slice<HistoryItem> page = historyItemRepository.findLatestByOrderId(orderId, PageRequest.of(0, history));
+		for (HistoryItem item : page) {
+			loaded.history.add(item.getId());
+		}
+		loaded.rows = order.getItems().size() + page.getNumberOfElements();
+		return loaded;
+	}
+
+	private static class Loaded {
+		private final Set<Long> items = new TreeSet<>();
+		private final Set<Long> history = new TreeSet<>();
+		private int rows;
+	}
+}
@@ -0,0 +1,114 @@
+package com.vaadin.starter.bakery.backend.repositories;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+/**
+ * Writes orders straight into the tables of the Flyway schema with batched
+ * JDBC inserts, so that the repository tests can set up many orders quickly.
+ * <p>
+ * The rows are written when {@link #flush()} is called. Ids are taken from a
+ * counter far above the ids Hibernate allocates from the sequence.
+ */
+class OrderRows {
+
+	static final int PRODUCTS = 4;
+
+	private static final int BATCH_SIZE = 10_000;
+
+	private final JdbcTemplate jdbcTemplate;
+	private long nextId = 1_000_000_000L;
+	private final long userId;
+	private final long pickupLocationId;
+	private final long firstProductId;
+
+	private final List<Object[]> customers = new ArrayList<>();
+	private final List<Object[]> orders = new ArrayList<>();
+	private final List<Object[]> items = new ArrayList<>();
+	private final List<Object[]> history = new ArrayList<>();
+
+	OrderRows(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		userId = nextId++;
+		jdbcTemplate.update("INSERT INTO user_info (id, version, email, first_name, last_name, locked, password_hash,"
+				+ " role) VALUES (?, 0, 'baker@vaadin.com', 'Test', 'Baker', false, 'hash', 'baker')", userId);
+		pickupLocationId = nextId++;
+		jdbcTemplate.update("INSERT INTO pickup_location (id, version, name) VALUES (?, 0, 'Store')",
+				pickupLocationId);
+		firstProductId = nextId;
+		for (int i = 0; i < PRODUCTS; i++) {
+			jdbcTemplate.update("INSERT INTO product (id, version, name, price) VALUES (?, 0, ?, ?)", nextId++,
+					"Product " + i, price(i));
+		}
+	}
+
+	/**
+	 * Adds an order with one of every product per item and the given number of
+	 * history entries.
+	 *
+	 * @return the id of the order
+	 */
+	long add(LocalDate dueDate, LocalTime dueTime, OrderState state, int itemCount, int historyCount) {
+		long orderId = nextId++;
+		long customerId = nextId++;
+		customers.add(new Object[] { customerId, "Customer " + orderId, "+358 " + orderId });
+		for (int i = 0; i < itemCount; i++) {
+			int product = i % PRODUCTS;
+			items.add(new Object[] { nextId++, product + 1, firstProductId + product, orderId, i, price(product) });
+		}
+		orders.add(new Object[] { orderId, Date.valueOf(dueDate), Time.valueOf(dueTime), state.ordinal(),
+				customerId, pickupLocationId, totalPrice(itemCount) });
+		LocalDateTime placed = dueDate.atStartOfDay().minusDays(1);
+		for (int i = 0; i < historyCount; i++) {
+			history.add(new Object[] { nextId++, i == 0 ? "Order placed" : "Comment " + i,
+					Timestamp.valueOf(placed.plusMinutes(i)), userId, orderId });
+		}
+		return orderId;
+	}
+
+	/**
+	 * Writes the orders added since the last call.
+	 */
+	void flush() {
+		insert("INSERT INTO customer (id, version, full_name, phone_number) VALUES (?, 0, ?, ?)", customers);
+		insert("INSERT INTO order_info (id, version, due_date, due_time, state, customer_id, pickup_location_id,"
+				+ " total_price) VALUES (?, 0, ?, ?, ?, ?, ?, ?)", orders);
+		insert("INSERT INTO order_item (id, version, quantity, product_id, items_id, items_order, unit_price)"
+				+ " VALUES (?, 0, ?, ?, ?, ?, ?)", items);
+		insert("INSERT INTO history_item (id, version, message, timestamp, created_by_id, history_id)"
+				+ " VALUES (?, 0, ?, ?, ?, ?)", history);
+	}
+
+	private void insert(String sql, List<Object[]> rows) {
+		for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+			jdbcTemplate.batchUpdate(sql, rows.subList(start, Math.min(start + BATCH_SIZE, rows.size())));
+		}
+		rows.clear();
+	}
+
+	/**
+	 * Gets the total price of an order added with the given number of items.
+	 */
+	static int totalPrice(int itemCount) {
+		int totalPrice = 0;
+		for (int i = 0; i < itemCount; i++) {
+			int product = i % PRODUCTS;
+			totalPrice += (product + 1) * price(product);
+		}
+		return totalPrice;
+	}
+
+	private static int price(int product) {
+		return 100 + product;
+	}
+}
@@ -0,0 +1,102 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.repositories.OrderRepository;
+
+public class CustomerSearchIndexTest {
+
+	private CustomerSearchIndex index;
+
+	@Before
+	public void setUp() {
+		index = new CustomerSearchIndex(null);
+		index.markBuilt();
+		index.put(1L, "Jennifer Smith", "+358 555 1234");
+		index.put(2L, "Marcus Smithson", "+1 555 9876");
+		index.put(3L, "Lily Jennings", "+46 123 4567");
+	}
+
+	@Test
+	public void findsSubstringIgnoringCase() {
+		Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(index.findOrderIds("SMITH")));
+		Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 3L)), new HashSet<>(index.findOrderIds("jenn")));
+		Assert.assertEquals(Collections.singletonList(2L), index.findOrderIds("cus smi"));
+	}
+
+	@Test
+	public void findsPhoneNumber() {
+		Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(index.findOrderIds("555")));
+		Assert.assertEquals(Collections.singletonList(3L), index.findOrderIds("4567"));
+	}
+
+	@Test
+	public void trigramFalsePositivesAreFiltered() {
+		// All trigrams of "abcde" occur in "abcd bcde", but not the filter itself
+		index.put(4L, "Abcd Bcde", "+1 234 5678");
+		Assert.assertTrue(index.findOrderIds("abcde").isEmpty());
+		Assert.assertTrue(index.findOrderIds("xyz").isEmpty());
+	}
+
+	@Test
+	public void updatesReplaceAndRemoveEntries() {
+		index.put(1L, "Jane Doe", "+358 555 1234");
+		Assert.assertEquals(Collections.singletonList(2L), index.findOrderIds("smith"));
+		Assert.assertEquals(Collections.singletonList(1L), index.findOrderIds("doe"));
+
+		index.remove(2L);
+		Assert.assertTrue(index.findOrderIds("smith").isEmpty());
+	}
+
+	@Test
+	public void idsAreSortedWhateverTheInsertionOrder() {
+		index.put(10L, "Anna Smith", "+1 555 0000");
+		index.put(5L, "Bob Smith", "+1 555 0001");
+		index.remove(1L);
+		Assert.assertEquals(Arrays.asList(2L, 5L, 10L), index.findOrderIds("smith"));
+		Assert.assertEquals(Arrays.asList(5L, 10L), index.findOrderIds("555 000"));
+	}
+
+	@Test
+	public void ordersRemovedWhileBuildingAreNotIndexed() {
+		CustomerSearchIndex[] building = new CustomerSearchIndex[1];
+		OrderRepository repository = (OrderRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { OrderRepository.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("findAllCustomerSearchRows")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					// Order 1 is deleted after the build has read it
+					building[0].remove(1L);
+					return Arrays.asList(new Object[] { 1L, "Jennifer Smith", "+358 555 1234" },
+							new Object[] { 2L, "Marcus Smithson", "+1 555 9876" });
+				});
+		building[0] = new CustomerSearchIndex(repository);
+
+		Assert.assertEquals(Collections.singletonList(2L), building[0].findOrderIds("smith"));
+		// Removals are only remembered while the index is built
+		building[0].put(1L, "Jennifer Smith", "+358 555 1234");
+		Assert.assertEquals(Arrays.asList(1L, 2L), building[0].findOrderIds("smith"));
+	}
+
+	@Test
+	public void shortFiltersCannotBeResolved() {
+		Assert.assertFalse(CustomerSearchIndex.canResolve("ab"));
+		Assert.assertFalse(CustomerSearchIndex.canResolve(null));
+		Assert.assertTrue(CustomerSearchIndex.canResolve("abc"));
+		// Would match across the name and the phone number
+		Assert.assertFalse(CustomerSearchIndex.canResolve("ith\n+35"));
+	}
+
+	@Test
+	public void likePatternMatchesTheFilterLiterally() {
+		Assert.assertEquals("%smith%", CustomerSearchIndex.toLikePattern("SMITH"));
+		Assert.assertEquals("%50\\%\\_a\\\\b%", CustomerSearchIndex.toLikePattern("50%_a\\b"));
+	}
+}
@@ -0,0 +1,81 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.data.DashboardData;
+
+public class DashboardDataCacheTest {
+
+	private final AtomicInteger computations = new AtomicInteger();
+
+	private final OrderService orderService = new OrderService(null, null, null, null, null, null, null) {
+		@Override
+		public DashboardData getDashboardData(int month, int year) {
+			computations.incrementAndGet();
+			return new DashboardData();
+		}
+	};
+
+	@Test
+	public void secondRequestIsServedFromCache() {
+		DashboardDataCache cache = new DashboardDataCache(orderService, Duration.ofMinutes(1));
+
+		DashboardData first = cache.get(11, 2017);
+		Assert.assertSame(first, cache.get(11, 2017));
+		Assert.assertEquals(1, computations.get());
+		Assert.assertEquals(0.5, cache.getHitRate(), 0);
+
+		cache.get(10, 2017);
+		Assert.assertEquals(2, computations.get());
+	}
+
+	@Test
+	public void orderChangeInvalidatesSnapshots() {
+		DashboardDataCache cache = new DashboardDataCache(orderService, Duration.ofMinutes(1));
+
+		DashboardData first = cache.get(11, 2017);
+		cache.onOrderChanged(new OrderChangedEvent(1L, null, null));
+
+		Assert.assertNotSame(first, cache.get(11, 2017));
+		Assert.assertEquals(2, computations.get());
+	}
+
+	@Test
+	public void expiredSnapshotIsRecomputed() {
+		DashboardDataCache cache = new DashboardDataCache(orderService, Duration.ZERO);
+
+		cache.get(11, 2017);
+		cache.get(11, 2017);
+
+		Assert.assertEquals(2, computations.get());
+		Assert.assertEquals(0, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void dataLoadedByCallerIsShared() {
+		DashboardDataCache cache = new DashboardDataCache(orderService, Duration.ofMinutes(1));
+		Assert.assertFalse(cache.getIfPresent(11, 2017).isPresent());
+
+		DashboardData loaded = new DashboardData();
+		cache.put(11, 2017, loaded, cache.getGeneration());
+
+		Assert.assertSame(loaded, cache.getIfPresent(11, 2017).get());
+		Assert.assertSame(loaded, cache.get(11, 2017));
+		Assert.assertEquals(0, computations.get());
+	}
+
+	@Test
+	public void dataLoadedBeforeOrderChangeIsNotShared() {
+		DashboardDataCache cache = new DashboardDataCache(orderService, Duration.ofMinutes(1));
+
+		long generation = cache.getGeneration();
+		cache.onOrderChanged(new OrderChangedEvent(1L, null, null));
+		cache.put(11, 2017, new DashboardData(), generation);
+
+		Assert.assertFalse(cache.getIfPresent(11, 2017).isPresent());
+	}
+}
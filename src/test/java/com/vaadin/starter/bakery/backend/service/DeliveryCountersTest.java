@@ -0,0 +1,168 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.data.DeliveryStats;
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+public class DeliveryCountersTest {
+
+	private static final long BLOCKING_ORDER_ID = -1;
+
+	private final LocalDate today = LocalDate.now();
+	private final LocalDate tomorrow = today.plusDays(1);
+	private final List<Object[]> perDayRows = new ArrayList<>();
+	private final List<Object[]> perStateRows = new ArrayList<>();
+	private final CountDownLatch applying = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<OrderEvent> committedWhileReading = new ArrayList<>();
+
+	private final OrderEventBus eventBus = new OrderEventBus(16, 8, Duration.ofMinutes(1));
+	private final DeliveryCounters counters = new DeliveryCounters(null, eventBus, Duration.ofHours(1)) {
+		@Override
+		List<Object[]> countPerDueDateAndState(LocalDate from) {
+			return perDayRows;
+		}
+
+		@Override
+		List<Object[]> countPerState() {
+			if (!committedWhileReading.isEmpty()) {
+				eventBus.onOrderEvent(committedWhileReading.remove(0));
+			}
+			return perStateRows;
+		}
+
+		@Override
+		void apply(OrderEvent event) {
+			if (event.getOrderId() == BLOCKING_ORDER_ID) {
+				applying.countDown();
+				awaitUninterruptibly(release);
+			}
+			super.apply(event);
+		}
+	};
+
+	@Before
+	public void setUp() {
+		perDayRows.add(new Object[] { today, OrderState.NEW, 2L });
+		perDayRows.add(new Object[] { today, OrderState.DELIVERED, 3L });
+		perDayRows.add(new Object[] { today, OrderState.PROBLEM, 1L });
+		perDayRows.add(new Object[] { tomorrow, OrderState.CONFIRMED, 4L });
+		perStateRows.add(new Object[] { OrderState.NEW, 7L });
+		perStateRows.add(new Object[] { OrderState.DELIVERED, 30L });
+		perStateRows.add(new Object[] { OrderState.PROBLEM, 1L });
+		perStateRows.add(new Object[] { OrderState.CONFIRMED, 4L });
+		counters.start();
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		counters.shutdown();
+		eventBus.shutdown();
+	}
+
+	@Test
+	public void statsAreReadFromLoadedCounters() {
+		assertStats(6, 4, 3, 3, 7);
+		Assert.assertEquals(1, counters.getReconciliationCount());
+		Assert.assertEquals(0, counters.getDriftCount());
+	}
+
+	@Test
+	public void eventsMoveOrdersBetweenCounters() {
+		counters.apply(new OrderEvent(OrderEvent.Type.CREATED, 1L, null, OrderState.NEW, null, today));
+		assertStats(7, 4, 3, 4, 8);
+
+		counters.apply(new OrderEvent(OrderEvent.Type.STATE_CHANGED, 1L, OrderState.NEW, OrderState.DELIVERED, today,
+				today));
+		assertStats(7, 4, 4, 3, 7);
+
+		counters.apply(new OrderEvent(OrderEvent.Type.UPDATED, 2L, OrderState.CONFIRMED, OrderState.CONFIRMED,
+				tomorrow, today));
+		assertStats(8, 3, 4, 4, 7);
+
+		counters.apply(new OrderEvent(OrderEvent.Type.DELETED, 3L, OrderState.NEW, null, today, null));
+		assertStats(7, 3, 4, 3, 6);
+	}
+
+	@Test
+	public void reconciliationCorrectsDrift() {
+		counters.apply(new OrderEvent(OrderEvent.Type.CREATED, 1L, null, OrderState.NEW, null, tomorrow));
+		assertStats(6, 5, 3, 3, 8);
+
+		counters.resync().join();
+
+		assertStats(6, 4, 3, 3, 7);
+		Assert.assertEquals(1, counters.getDriftCount());
+	}
+
+	@Test
+	public void eventsBufferedWhenComparingAreNotReportedAsDrift() throws InterruptedException {
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.UPDATED, BLOCKING_ORDER_ID, OrderState.NEW,
+				OrderState.NEW, today, today));
+		Assert.assertTrue(applying.await(5, TimeUnit.SECONDS));
+		// Committed while the counters are busy, so already in the database but not applied when it is read
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.CREATED, 1L, null, OrderState.NEW, null, today));
+		perDayRows.set(0, new Object[] { today, OrderState.NEW, 3L });
+		perStateRows.set(0, new Object[] { OrderState.NEW, 8L });
+		CompletableFuture<Void> resync = counters.resync();
+		release.countDown();
+		resync.join();
+
+		// Committed after the database was read
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.CREATED, 2L, null, OrderState.CONFIRMED, null,
+				tomorrow));
+		for (int i = 0; i < 500 && counters.getDeliveryStats(today).getDueTomorrow() == 4; i++) {
+			Thread.sleep(10);
+		}
+
+		assertStats(7, 5, 3, 4, 8);
+		Assert.assertEquals(0, counters.getDriftCount());
+	}
+
+	@Test
+	public void countersOfEventsCommittedWhileReadingAreNotCompared() {
+		// Committed after the rows were read, but claimed before every read ends
+		committedWhileReading.add(new OrderEvent(OrderEvent.Type.CREATED, 1L, null, OrderState.NEW, null, tomorrow));
+		committedWhileReading.add(new OrderEvent(OrderEvent.Type.STATE_CHANGED, 1L, OrderState.NEW,
+				OrderState.CONFIRMED, tomorrow, tomorrow));
+		committedWhileReading.add(new OrderEvent(OrderEvent.Type.STATE_CHANGED, 1L, OrderState.CONFIRMED,
+				OrderState.READY, tomorrow, tomorrow));
+
+		counters.resync().join();
+
+		Assert.assertTrue(committedWhileReading.isEmpty());
+		assertStats(6, 5, 3, 3, 7);
+		Assert.assertEquals(0, counters.getDriftCount());
+	}
+
+	private void assertStats(int dueToday, int dueTomorrow, int deliveredToday, int notAvailableToday,
+			int newOrders) {
+		DeliveryStats stats = counters.getDeliveryStats(today);
+		Assert.assertEquals(dueToday, stats.getDueToday());
+		Assert.assertEquals(dueTomorrow, stats.getDueTomorrow());
+		Assert.assertEquals(deliveredToday, stats.getDeliveredToday());
+		Assert.assertEquals(notAvailableToday, stats.getNotAvailableToday());
+		Assert.assertEquals(newOrders, stats.getNewOrders());
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+public class OrderChangeBroadcasterTest {
+
+	private final OrderEventBus eventBus = new OrderEventBus(16, 8, Duration.ofMinutes(1));
+	private final OrderChangeBroadcaster broadcaster = new OrderChangeBroadcaster(eventBus, Duration.ofMillis(100));
+	private final BlockingQueue<OrderChanges> notices = new LinkedBlockingQueue<>();
+
+	@After
+	public void tearDown() {
+		broadcaster.shutdown();
+		eventBus.shutdown();
+	}
+
+	@Test
+	public void changesAreCoalescedPerListener() throws InterruptedException {
+		broadcaster.register(notices::add);
+
+		eventBus.onOrderEvent(event(OrderEvent.Type.UPDATED, 1L, 1, 1));
+		eventBus.onOrderEvent(event(OrderEvent.Type.STATE_CHANGED, 2L, 1, 1));
+		eventBus.onOrderEvent(event(OrderEvent.Type.UPDATED, 1L, 1, 1));
+
+		OrderChanges changes = notices.poll(5, TimeUnit.SECONDS);
+		Assert.assertEquals(Arrays.asList(1L, 2L), Arrays.asList(changes.getOrderIds().toArray()));
+		Assert.assertFalse(changes.isStructural());
+		Assert.assertFalse(changes.isIncomplete());
+		Assert.assertNull(notices.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void createdAndMovedOrdersAreStructural() throws InterruptedException {
+		broadcaster.register(notices::add);
+
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.CREATED, 1L, null, OrderState.NEW, null, day(1)));
+		Assert.assertTrue(notices.poll(5, TimeUnit.SECONDS).isStructural());
+
+		eventBus.onOrderEvent(event(OrderEvent.Type.UPDATED, 1L, 1, 2));
+		Assert.assertTrue(notices.poll(5, TimeUnit.SECONDS).isStructural());
+
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.UPDATED, 1L, OrderState.NEW, OrderState.NEW, day(2),
+				day(2), LocalTime.of(8, 0), LocalTime.of(9, 0), false));
+		Assert.assertTrue(notices.poll(5, TimeUnit.SECONDS).isStructural());
+	}
+
+	@Test
+	public void customerChangesArePassedOn() throws InterruptedException {
+		broadcaster.register(notices::add);
+
+		eventBus.onOrderEvent(new OrderEvent(OrderEvent.Type.UPDATED, 1L, OrderState.NEW, OrderState.NEW, day(1),
+				day(1), LocalTime.of(8, 0), LocalTime.of(8, 0), true));
+
+		OrderChanges changes = notices.poll(5, TimeUnit.SECONDS);
+		Assert.assertFalse(changes.isStructural());
+		Assert.assertTrue(changes.isCustomerChanged());
+	}
+
+	@Test
+	public void commentsAreNotPassedOn() throws InterruptedException {
+		broadcaster.register(notices::add);
+
+		eventBus.onOrderEvent(event(OrderEvent.Type.COMMENTED, 1L, 1, 1));
+
+		Assert.assertNull(notices.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void removedListenerIsNotNotified() throws InterruptedException {
+		Registration registration = broadcaster.register(notices::add);
+		registration.remove();
+
+		eventBus.onOrderEvent(event(OrderEvent.Type.UPDATED, 1L, 1, 1));
+
+		Assert.assertNull(notices.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	private static OrderEvent event(OrderEvent.Type type, Long orderId, int previousDay, int day) {
+		return new OrderEvent(type, orderId, OrderState.NEW, OrderState.NEW, day(previousDay), day(day));
+	}
+
+	private static LocalDate day(int dayOfMonth) {
+		return LocalDate.of(2017, 11, dayOfMonth);
+	}
+}
@@ -0,0 +1,130 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.data.OrderState;
+
+public class OrderEventBusTest {
+
+	private final OrderEventBus eventBus = new OrderEventBus(4, 4, Duration.ofMinutes(1));
+
+	@After
+	public void tearDown() {
+		eventBus.shutdown();
+	}
+
+	@Test
+	public void eventsAreDeliveredInOrderToEverySubscriber() throws InterruptedException {
+		BlockingQueue<Long> first = new LinkedBlockingQueue<>();
+		BlockingQueue<Long> second = new LinkedBlockingQueue<>();
+		eventBus.subscribe("first", events -> events.forEach(event -> first.add(event.getOrderId())));
+		eventBus.subscribe("second", events -> events.forEach(event -> second.add(event.getOrderId())));
+
+		for (long id = 1; id <= 10; id++) {
+			eventBus.onOrderEvent(event(id));
+			// The buffer holds 4 events, give the subscribers time to keep up
+			Assert.assertEquals(Long.valueOf(id), first.poll(5, TimeUnit.SECONDS));
+			Assert.assertEquals(Long.valueOf(id), second.poll(5, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(10, eventBus.getPublishedCount());
+		Assert.assertEquals(0, eventBus.getDroppedCount());
+	}
+
+	@Test
+	public void eventsAreDroppedWhenASubscriberFallsBehind() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		OrderEventBus.Subscription subscription = eventBus.subscribe("slow", new OrderEventConsumer() {
+			@Override
+			public void accept(List<OrderEvent> events) {
+				List<Long> ids = new ArrayList<>();
+				events.forEach(event -> ids.add(event.getOrderId()));
+				received.add(ids.toString());
+				blocked.countDown();
+				awaitUninterruptibly(release);
+			}
+
+			@Override
+			public void eventsLost(long count) {
+				received.add("lost " + count);
+			}
+		});
+
+		eventBus.onOrderEvent(event(1));
+		Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		for (long id = 2; id <= 11; id++) {
+			eventBus.onOrderEvent(event(id));
+		}
+		Assert.assertEquals(4, subscription.getLag());
+		Assert.assertEquals(6, eventBus.getDroppedCount());
+		release.countDown();
+
+		List<String> expected = Arrays.asList("[1]", "lost 6", "[2, 3, 4, 5]");
+		for (String notice : expected) {
+			Assert.assertEquals(notice, received.poll(5, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(11, eventBus.getPublishedCount());
+	}
+
+	@Test
+	public void subscriberWithOwnBufferDoesNotLoseEventsToSlowSubscriber() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		eventBus.subscribe("slow", events -> {
+			blocked.countDown();
+			awaitUninterruptibly(release);
+		});
+		BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+		OrderEventBus.Subscription subscription = eventBus.subscribe("own",
+				events -> events.forEach(event -> received.add(event.getOrderId())), true);
+
+		eventBus.onOrderEvent(event(1));
+		Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		for (long id = 2; id <= 10; id++) {
+			eventBus.onOrderEvent(event(id));
+			Assert.assertEquals(Long.valueOf(id - 1), received.poll(5, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(Long.valueOf(10), received.poll(5, TimeUnit.SECONDS));
+		Assert.assertEquals(0, subscription.getDroppedCount());
+		Assert.assertEquals(5, eventBus.getDroppedCount());
+		release.countDown();
+	}
+
+	@Test
+	public void removedSubscriberNeitherReceivesNorHoldsBackEvents() throws InterruptedException {
+		BlockingQueue<OrderEvent> received = new LinkedBlockingQueue<>();
+		eventBus.subscribe("removed", received::addAll).remove();
+
+		for (long id = 1; id <= 10; id++) {
+			eventBus.onOrderEvent(event(id));
+		}
+
+		Assert.assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(0, eventBus.getDroppedCount());
+	}
+
+	private static OrderEvent event(long orderId) {
+		return new OrderEvent(OrderEvent.Type.STATE_CHANGED, orderId, OrderState.NEW, OrderState.CONFIRMED, null,
+				null);
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
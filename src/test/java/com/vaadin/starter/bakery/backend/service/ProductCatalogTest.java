@@ -0,0 +1,64 @@
+package com.vaadin.starter.bakery.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+
+public class ProductCatalogTest {
+
+	private static final List<String> NAMES = Arrays.asList("Strawberry Bun", "Vanilla Cracker", "Blueberry Cheese Cake",
+			"Raspberry Cheesecake", "Bun", "Salami Pie", "Cracker", "Strawberry Cracker");
+
+	private final ProductCatalog.Snapshot snapshot = new ProductCatalog.Snapshot(1, products(NAMES));
+
+	@Test
+	public void findsSubstringIgnoringCase() {
+		Assert.assertEquals(Arrays.asList("Strawberry Bun", "Bun"), names(snapshot.find("BUN")));
+		Assert.assertEquals(Arrays.asList("Blueberry Cheese Cake", "Raspberry Cheesecake"),
+				names(snapshot.find("cheese")));
+		Assert.assertEquals(Arrays.asList("Strawberry Cracker"), names(snapshot.find("ry cr")));
+		Assert.assertTrue(snapshot.find("pretzel").isEmpty());
+	}
+
+	@Test
+	public void emptyFilterMatchesAllProductsInOrder() {
+		Assert.assertEquals(NAMES, names(snapshot.find(null)));
+		Assert.assertEquals(NAMES, names(snapshot.find("")));
+	}
+
+	@Test
+	public void matchesTheSameProductsAsAScan() {
+		for (String name : NAMES) {
+			String lower = name.toLowerCase(Locale.ROOT);
+			for (int start = 0; start < lower.length(); start++) {
+				for (int end = start + 1; end <= Math.min(lower.length(), start + 4); end++) {
+					String filter = lower.substring(start, end);
+					List<String> expected = NAMES.stream()
+							.filter(n -> n.toLowerCase(Locale.ROOT).contains(filter)).collect(Collectors.toList());
+					Assert.assertEquals(filter, expected, names(snapshot.find(filter)));
+				}
+			}
+		}
+	}
+
+	private static List<Product> products(List<String> names) {
+		List<Product> products = new ArrayList<>();
+		for (String name : names) {
+			Product product = new Product();
+			product.setName(name);
+			products.add(product);
+		}
+		return products;
+	}
+
+	private static List<String> names(List<Product> products) {
+		return products.stream().map(Product::getName).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,72 @@
+package com.vaadin.starter.bakery.ui.utils;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares {@link FormattingUtils#formatAsCurrency(int)} with creating a
+ * {@link NumberFormat} and a {@link BigDecimal} for every value, as it was done
+ * before, and checks that both give the same result for every value used.
+ * <p>
+ * Skipped unless run with {@code -Dbenchmark=true}.
+ */
+public class CurrencyFormattingBenchmark {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CurrencyFormattingBenchmark.class);
+
+	private static final int VALUES = 100_000;
+	private static final int ROUNDS = 20;
+
+	private static int[] values;
+
+	@BeforeClass
+	public static void setUpClass() {
+		Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+		Random random = new Random(1);
+		values = new int[VALUES];
+		for (int i = 0; i < VALUES; i++) {
+			// Mostly prices of a few dollars, as in the product grid and order items
+			values[i] = i % 10 == 0 ? random.nextInt() : random.nextInt(10_000);
+		}
+	}
+
+	@Test
+	public void cachedFormatMatchesNumberFormat() {
+		for (int value : values) {
+			Assert.assertEquals(formatWithNumberFormat(value), FormattingUtils.formatAsCurrency(value));
+		}
+
+		long numberFormatNanos = 0;
+		long cachedNanos = 0;
+		int length = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int value : values) {
+				length += formatWithNumberFormat(value).length();
+			}
+			numberFormatNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int value : values) {
+				length -= FormattingUtils.formatAsCurrency(value).length();
+			}
+			cachedNanos += System.nanoTime() - start;
+		}
+		Assert.assertEquals(0, length);
+		LOGGER.info("Currency formatting: NumberFormat per call {} ns, cached format {} ns",
+				String.format("%.1f", (double) numberFormatNanos / ROUNDS / VALUES),
+				String.format("%.1f", (double) cachedNanos / ROUNDS / VALUES));
+	}
+
+	private static String formatWithNumberFormat(int valueInCents) {
+		return NumberFormat.getCurrencyInstance(BakeryConst.APP_LOCALE).format(BigDecimal.valueOf(valueInCents, 2));
+	}
+}
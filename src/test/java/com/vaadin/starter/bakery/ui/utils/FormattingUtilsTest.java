@@ -6,6 +6,8 @@ package com.vaadin.starter.bakery.ui.utils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
+import java.math.BigDecimal;
+import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -22,6 +24,23 @@ public class FormattingUtilsTest extends FormattingTest {
 		assertEquals("$9,876,543.45", result);
 	}
 
+	@Test
+	public void formatAsCurrencyShouldMatchNumberFormat() {
+		NumberFormat format = NumberFormat.getCurrencyInstance(BakeryConst.APP_LOCALE);
+		for (int value : new int[] { 0, 1, 9, 10, 99, 100, 101, 99999, 100000, 123456789, -1, -100, -123456,
+				Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+			assertEquals(format.format(BigDecimal.valueOf(value, 2)), FormattingUtils.formatAsCurrency(value));
+		}
+	}
+
+	@Test
+	public void formatAsUiPriceShouldMatchUiPriceFormatter() {
+		for (int value : new int[] { 0, 5, 100, 123456789, -5, -123456, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+			assertEquals(FormattingUtils.getUiPriceFormatter().format(BigDecimal.valueOf(value, 2)),
+					FormattingUtils.formatAsUiPrice(value));
+		}
+	}
+
 	@Test
 	public void getUiPriceFormatterShouldBeLocaleIndependent() {
 		String result = FormattingUtils.getUiPriceFormatter().format(9876543);
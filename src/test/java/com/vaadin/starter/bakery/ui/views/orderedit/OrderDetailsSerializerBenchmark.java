@@ -0,0 +1,54 @@
+package com.vaadin.starter.bakery.ui.views.orderedit;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+
+/**
+ * Times {@link OrderDetailsSerializer} against the previous way of building
+ * the {@code order-details} item, see {@link OrderDetailsSerializerTest}.
+ * <p>
+ * Skipped unless run with {@code -Dbenchmark=true}.
+ */
+public class OrderDetailsSerializerBenchmark {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderDetailsSerializerBenchmark.class);
+
+	private static final int WARMUP_ROUNDS = 2_000;
+	private static final int ROUNDS = 10_000;
+
+	private static Order order;
+
+	@BeforeClass
+	public static void setUpClass() {
+		Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+		order = OrderDetailsSerializerTest.createOrder();
+	}
+
+	@Test
+	public void serializerIsFasterThanObjectMapperPath() {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			OrderDetailsSerializerTest.legacyToJson(order);
+			OrderDetailsSerializer.toJson(order);
+		}
+		long legacyNanos = 0;
+		long serializerNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			OrderDetailsSerializerTest.legacyToJson(order);
+			legacyNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			OrderDetailsSerializer.toJson(order);
+			serializerNanos += System.nanoTime() - start;
+		}
+		LOGGER.info(String.format("OrderDetails JSON: ObjectMapper %.1f us, OrderDetailsSerializer %.1f us",
+				legacyNanos / 1e3 / ROUNDS, serializerNanos / 1e3 / ROUNDS));
+		Assert.assertTrue("OrderDetailsSerializer should be faster", serializerNanos < legacyNanos);
+	}
+}
@@ -0,0 +1,134 @@
+package com.vaadin.starter.bakery.ui.views.orderedit;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vaadin.starter.bakery.backend.data.OrderState;
+import com.vaadin.starter.bakery.backend.data.entity.Order;
+import com.vaadin.starter.bakery.backend.data.entity.OrderItem;
+import com.vaadin.starter.bakery.backend.data.entity.PickupLocation;
+import com.vaadin.starter.bakery.backend.data.entity.Product;
+import com.vaadin.starter.bakery.backend.data.entity.User;
+import com.vaadin.starter.bakery.ui.utils.converters.CurrencyFormatter;
+import com.vaadin.starter.bakery.ui.utils.converters.LocalTimeConverter;
+import com.vaadin.starter.bakery.ui.views.storefront.converters.StorefrontLocalDateConverter;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Checks that {@link OrderDetailsSerializer} builds the same
+ * {@code order-details} item as the previous way of building it: a new
+ * {@link ObjectMapper} per call, a round trip through a JSON string and new
+ * converters per element.
+ */
+public class OrderDetailsSerializerTest {
+
+	private Order order;
+
+	@Before
+	public void setUp() {
+		order = createOrder();
+	}
+
+	@Test
+	public void serializerMatchesObjectMapperPath() {
+		JsonObject legacy = legacyToJson(order);
+		JsonObject serialized = OrderDetailsSerializer.toJson(order);
+		for (String key : new String[] { "id", "state", "formattedDueTime", "formattedTotalPrice" }) {
+			Assert.assertEquals(key, legacy.get(key).toJson(), serialized.get(key).toJson());
+		}
+		for (String key : new String[] { "formattedDueDate", "pickupLocation", "customer" }) {
+			for (String property : serialized.getObject(key).keys()) {
+				Assert.assertEquals(key + "." + property, legacy.getObject(key).get(property).toJson(),
+						serialized.getObject(key).get(property).toJson());
+			}
+		}
+		for (int i = 0; i < order.getItems().size(); i++) {
+			JsonObject legacyItem = legacy.getArray("items").getObject(i);
+			JsonObject serializedItem = serialized.getArray("items").getObject(i);
+			for (String property : new String[] { "comment", "quantity" }) {
+				Assert.assertEquals(legacyItem.get(property).toJson(), serializedItem.get(property).toJson());
+			}
+			for (String property : new String[] { "name", "formattedPrice" }) {
+				Assert.assertEquals(legacyItem.getObject("product").get(property).toJson(),
+						serializedItem.getObject("product").get(property).toJson());
+			}
+		}
+	}
+
+	@Test
+	public void itemsArePricedAtTheirUnitPrice() {
+		Product product = order.getItems().get(0).getProduct();
+		product.setPrice(product.getPrice() * 2);
+
+		JsonObject serialized = OrderDetailsSerializer.toJson(order);
+
+		Assert.assertEquals(new CurrencyFormatter().encode(order.getItems().get(0).getUnitPrice()),
+				serialized.getArray("items").getObject(0).getObject("product").getString("formattedPrice"));
+		Assert.assertEquals(new CurrencyFormatter().encode(order.getTotalPrice()),
+				serialized.getString("formattedTotalPrice"));
+	}
+
+	static Order createOrder() {
+		User user = new User();
+		user.setFirstName("Malin");
+		Order order = new Order(user);
+		order.getCustomer().setFullName("Ori Carter");
+		order.getCustomer().setPhoneNumber("+1-555-0000");
+		order.getCustomer().setDetails("Very important customer");
+		PickupLocation pickupLocation = new PickupLocation();
+		pickupLocation.setName("Bakery");
+		order.setPickupLocation(pickupLocation);
+		order.setDueDate(LocalDate.of(2020, 1, 1));
+		order.setDueTime(LocalTime.of(8, 0));
+		order.changeState(user, OrderState.CONFIRMED);
+		List<OrderItem> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Product product = new Product();
+			product.setName("Strawberry Cake " + i);
+			product.setPrice(1_000 + i * 123);
+			OrderItem item = new OrderItem();
+			item.setProduct(product);
+			item.setQuantity(i + 1);
+			item.setComment(i % 3 == 0 ? "Gluten free" : null);
+			items.add(item);
+		}
+		order.setItems(items);
+		order.updateTotalPrice();
+		return order;
+	}
+
+	static JsonObject legacyToJson(Order order) {
+		JsonObject item = beanToJson(order);
+		item.put("formattedDueDate", beanToJson(new StorefrontLocalDateConverter().encode(order.getDueDate())));
+		item.put("formattedDueTime", new LocalTimeConverter().encode(order.getDueTime()));
+		item.put("formattedTotalPrice", new CurrencyFormatter().encode(order.getTotalPrice()));
+		JsonArray orderItems = item.getArray("items");
+		for (int i = 0; i < orderItems.length(); i++) {
+			JsonObject itemProduct = orderItems.getObject(i).getObject("product");
+			itemProduct.put("formattedPrice", new CurrencyFormatter().encode(order.getItems().get(i).getUnitPrice()));
+		}
+		return item;
+	}
+
+	private static JsonObject beanToJson(Object bean) {
+		try {
+			ObjectMapper objectMapper = new ObjectMapper();
+			objectMapper.registerModule(new JavaTimeModule());
+			return Json.parse(objectMapper.writeValueAsString(bean));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.vaadin.starter.bakery.ui.views.storefront;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class OrderCardRenderContextTest {
+
+	// A Wednesday
+	private final OrderCardRenderContext context = OrderCardRenderContext.of(LocalDate.of(2017, 11, 15));
+
+	@Test
+	public void weekShouldStartOnMonday() {
+		assertEquals(LocalDate.of(2017, 11, 13), context.getWeekStart());
+		assertEquals(LocalDate.of(2017, 11, 19), context.getWeekEnd());
+		assertEquals(LocalDate.of(2017, 11, 14), context.getYesterday());
+	}
+
+	@Test
+	public void datesShouldBeClassifiedOnce() {
+		assertTrue(context.isBeforeThisWeek(day(12)));
+		assertTrue(context.isThisWeekBeforeYesterday(day(13)));
+		assertFalse(context.isThisWeekBeforeYesterday(day(14)));
+		assertTrue(context.isYesterday(day(14)));
+		assertTrue(context.isToday(day(15)));
+		assertTrue(context.isThisWeekAfterToday(day(16)));
+		assertTrue(context.isThisWeekAfterToday(day(19)));
+		assertTrue(context.isAfterThisWeek(day(20)));
+	}
+
+	@Test
+	public void recentShouldBeTodayAndYesterday() {
+		assertTrue(context.isRecent(day(14)));
+		assertTrue(context.isRecent(day(15)));
+		assertFalse(context.isRecent(day(16)));
+		assertFalse(context.isElsewhereInWeek(day(14)));
+		assertTrue(context.isElsewhereInWeek(day(13)));
+		assertTrue(context.isElsewhereInWeek(day(19)));
+		assertFalse(context.isElsewhereInWeek(day(20)));
+		assertFalse(context.isElsewhereInWeek(day(12)));
+	}
+
+	@Test
+	public void mondayShouldHaveYesterdayInPreviousWeek() {
+		OrderCardRenderContext monday = OrderCardRenderContext.of(LocalDate.of(2017, 11, 13));
+		assertTrue(monday.isYesterday(day(12)));
+		assertTrue(monday.isBeforeThisWeek(day(12)));
+		assertTrue(monday.isRecent(day(12)));
+	}
+
+	@Test
+	public void headerRangesShouldFollowTheDay() {
+		OrderCardHeaderGenerator generator = new OrderCardHeaderGenerator();
+		generator.resetHeaderChain(true, context);
+		assertEquals(Arrays.asList(date(13), date(14), date(15), date(16), date(20)),
+				generator.getDueDateRangeBounds());
+
+		// Past midnight
+		generator.resetHeaderChain(true, OrderCardRenderContext.of(date(16)));
+		assertEquals(date(16), generator.getRenderContext().getToday());
+		assertEquals(Arrays.asList(date(13), date(15), date(16), date(17), date(20)),
+				generator.getDueDateRangeBounds());
+	}
+
+	private static LocalDate date(int dayOfMonth) {
+		return LocalDate.of(2017, 11, dayOfMonth);
+	}
+
+	private static long day(int dayOfMonth) {
+		return date(dayOfMonth).toEpochDay();
+	}
+}